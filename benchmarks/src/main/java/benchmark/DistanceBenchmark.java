@@ -0,0 +1,92 @@
+package benchmark;
+
+import solver.DistanceMatrix;
+import solver.Metric;
+import solver.PointSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of distance kernels of metrics from one city to a block of cities,
+ * and of reading distances of random pairs of the block from a precomputed matrix, each operation is one distance.
+ * Coordinates are valid degrees, so geographic metrics get valid values too.
+ * @author Majid Feyzi
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceBenchmark {
+
+	// Count of cities in block
+	private static final int BLOCK = 4096;
+
+	@Param({ "EUCLIDEAN", "EUC_2D", "SQUARED_EUCLIDEAN", "MANHATTAN", "MAN_2D", "GEO", "HAVERSINE" })
+	public Metric metric;
+
+	private final double[] x = new double[BLOCK], y = new double[BLOCK], out = new double[BLOCK];
+
+	// Matrix of distances of block and random pairs of cities to read from it
+	private DistanceMatrix matrix;
+	private final int[] pairs = new int[2 * BLOCK];
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		for (int i = 0; i < BLOCK; i++) {
+			x[i] = random.nextDouble() * 160 - 80;
+			y[i] = random.nextDouble() * 160 - 80;
+		}
+		for (int i = 0; i < pairs.length; i++)
+			pairs[i] = random.nextInt(BLOCK);
+		matrix = new DistanceMatrix(new PointSet(x, y), metric);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BLOCK)
+	public double scalar() {
+		double sum = 0;
+		for (int i = 0; i < BLOCK; i++)
+			sum += metric.distance(x[0], y[0], x[i], y[i]);
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BLOCK)
+	public double[] bulkDistances() {
+		metric.distances(x[0], y[0], x, y, 0, BLOCK, out);
+		return out;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BLOCK)
+	public double matrix() {
+		double sum = 0;
+		for (int i = 0; i < pairs.length; i += 2)
+			sum += matrix.distance(pairs[i], pairs[i + 1]);
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BLOCK)
+	public double[] bulkKeys() {
+		metric.keys(x[0], y[0], x, y, 0, BLOCK, out);
+		return out;
+	}
+}
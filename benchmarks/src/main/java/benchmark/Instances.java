@@ -0,0 +1,116 @@
+package benchmark;
+
+import solver.PointSet;
+import tsplib.Instance;
+import tsplib.TsplibReader;
+import tsplib.TsplibWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Instances of benchmarks with different distributions of cities.
+ * @author Majid Feyzi
+ * */
+public class Instances {
+
+	// Side of square that cities are generated in
+	private static final double SIDE = 1_000_000;
+
+	// Seed of random generator, so all runs use the same instances
+	private static final long SEED = 20200826;
+
+	private Instances() {}
+
+	/**
+	 * Create instance with given distribution.
+	 * <ul>
+	 * <li>uniform: cities are uniformly distributed in a square</li>
+	 * <li>clustered: cities are normally distributed around random centers like clustered DIMACS instances</li>
+	 * <li>tsplib: cities of TSPLIB file of tsplib system property, or an instance with integer coordinates
+	 * on a grid that has many duplicate cities, it's written to and read from TSPLIB format.
+	 * If file has less cities, it's repeated side by side, otherwise it's first n cities are used.</li>
+	 * </ul>
+	 * @param distribution distribution of cities
+	 * @param n count of cities
+	 * @return cities of instance
+	 * */
+	public static PointSet create(String distribution, int n) {
+		Random random = new Random(SEED);
+		switch (distribution) {
+		case "uniform":
+			return uniform(random, n);
+		case "clustered":
+			return clustered(random, n);
+		case "tsplib":
+			return tsplib(random, n);
+		default:
+			throw new IllegalArgumentException("Unknown distribution " + distribution);
+		}
+	}
+
+	private static PointSet uniform(Random random, int n) {
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++)
+			points.add(random.nextDouble() * SIDE, random.nextDouble() * SIDE);
+		return points;
+	}
+
+	private static PointSet clustered(Random random, int n) {
+		int clusters = Math.max(1, n / 100);
+		double[] cx = new double[clusters], cy = new double[clusters];
+		for (int i = 0; i < clusters; i++) {
+			cx[i] = random.nextDouble() * SIDE;
+			cy[i] = random.nextDouble() * SIDE;
+		}
+		double deviation = SIDE / Math.sqrt(n);
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++) {
+			int c = random.nextInt(clusters);
+			points.add(cx[c] + random.nextGaussian() * deviation, cy[c] + random.nextGaussian() * deviation);
+		}
+		return points;
+	}
+
+	private static PointSet tsplib(Random random, int n) {
+		try {
+			String file = System.getProperty("tsplib");
+			if (file != null)
+				return repeat(TsplibReader.read(Paths.get(file)).getPoints(), n);
+
+			// Integer coordinates on a grid of about n / 2 cells like drilling problems of TSPLIB
+			int side = (int) Math.ceil(Math.sqrt(n / 2.0));
+			PointSet points = new PointSet(n);
+			for (int i = 0; i < n; i++)
+				points.add(random.nextInt(side) * 10, random.nextInt(side) * 10);
+			Path path = Files.createTempFile("benchmark", ".tsp");
+			try {
+				TsplibWriter.writeProblem(path, "benchmark", null, "EUC_2D", points);
+				return TsplibReader.read(path).getPoints();
+			} finally {
+				Files.delete(path);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * Use first n cities of instance, or repeat it side by side until there are n cities.
+	 * */
+	private static PointSet repeat(PointSet instance, int n) {
+		int size = instance.size();
+		double width = 0;
+		for (int i = 0; i < size; i++)
+			width = Math.max(width, instance.getX(i));
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++) {
+			int copy = i / size, city = i % size;
+			points.add(instance.getX(city) + copy * (width + 1), instance.getY(city));
+		}
+		return points;
+	}
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+import solver.DelaunayMst;
+import solver.Metric;
+import solver.PointSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building euclidean MST from Delaunay triangulation.
+ * @author Majid Feyzi
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MstBenchmark {
+
+	@Param({ "uniform", "clustered", "tsplib" })
+	public String distribution;
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	private PointSet points;
+	private int[] mstOrder;
+	private DelaunayMst builder;
+
+	@Setup
+	public void setup() {
+		points = Instances.create(distribution, size);
+		mstOrder = new int[size];
+		builder = new DelaunayMst(Metric.EUCLIDEAN);
+	}
+
+	@Benchmark
+	public double delaunay() {
+		return builder.build(points, 0, mstOrder);
+	}
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import solver.Metric;
+import solver.MstBuilder;
+import solver.ParallelPrimMst;
+import solver.PointSet;
+import solver.PrimMst;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building MST with Prim algorithm over complete graph, it takes O(n^2) time,
+ * so it's measured only for smaller instances.
+ * @author Majid Feyzi
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimBenchmark {
+
+	@Param({ "uniform", "clustered", "tsplib" })
+	public String distribution;
+
+	@Param({ "1000", "10000" })
+	public int size;
+
+	@Param({ "EUCLIDEAN", "MANHATTAN" })
+	public Metric metric;
+
+	private PointSet points;
+	private int[] mstOrder;
+	private MstBuilder prim, parallelPrim;
+
+	@Setup
+	public void setup() {
+		points = Instances.create(distribution, size);
+		mstOrder = new int[size];
+		prim = new PrimMst(metric);
+		parallelPrim = new ParallelPrimMst(metric);
+	}
+
+	@Benchmark
+	public double prim() {
+		return prim.build(points, 0, mstOrder);
+	}
+
+	@Benchmark
+	public double parallelPrim() {
+		return parallelPrim.build(points, 0, mstOrder);
+	}
+}
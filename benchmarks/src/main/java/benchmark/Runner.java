@@ -0,0 +1,32 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runner of benchmarks that accepts all options of JMH.
+ * Unless options specify otherwise, it adds allocation rate of GC profiler to results and
+ * writes results in JSON format to jmh-result.json, so results of versions can be compared.
+ * @author Majid Feyzi
+ * */
+public class Runner {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions options = new CommandLineOptions(args);
+		if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers() || options.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if (!options.getResultFormat().hasValue())
+			builder.resultFormat(ResultFormatType.JSON);
+		if (!options.getResult().hasValue())
+			builder.result("jmh-result.json");
+		if (options.getProfilers().isEmpty())
+			builder.addProfiler(GCProfiler.class);
+		new org.openjdk.jmh.runner.Runner(builder.build()).run();
+	}
+}
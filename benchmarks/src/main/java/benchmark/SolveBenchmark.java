@@ -0,0 +1,57 @@
+package benchmark;
+
+import solver.Algorithm;
+import solver.Metric;
+import solver.PointSet;
+import solver.Tour;
+import solver.TourSolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of solving instances from cities to tour with each algorithm.
+ * @author Majid Feyzi
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+	@Param({ "uniform", "clustered", "tsplib" })
+	public String distribution;
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "MST", "CHRISTOFIDES", "HILBERT" })
+	public Algorithm algorithm;
+
+	private PointSet points;
+	private TourSolver solver;
+
+	@Setup
+	public void setup() {
+		points = Instances.create(distribution, size);
+		solver = algorithm.create(Metric.EUCLIDEAN);
+	}
+
+	@Benchmark
+	public Tour solve() {
+		return solver.solve(points, 0);
+	}
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import solver.Metric;
+import solver.MstTourSolver;
+import solver.PointSet;
+import solver.Tour;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of extracting tour from MST, MST is built once and solver only walks it and computes cost of tour.
+ * @author Majid Feyzi
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TourBenchmark {
+
+	@Param({ "uniform", "clustered", "tsplib" })
+	public String distribution;
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	private PointSet points;
+	private MstTourSolver solver;
+
+	@Setup
+	public void setup() {
+		points = Instances.create(distribution, size);
+		new MstTourSolver().solve(points, 0);
+
+		// Builder keeps MST that has been built in point set
+		solver = new MstTourSolver(Metric.EUCLIDEAN, (points, root, mstOrder) -> 0);
+	}
+
+	@Benchmark
+	public Tour preorder() {
+		return solver.solve(points, 0);
+	}
+}
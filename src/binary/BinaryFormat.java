@@ -0,0 +1,129 @@
+package binary;
+
+import solver.Metric;
+
+/**
+ * Layout of binary files of instances and their solutions.
+ * All numbers are little endian and arrays start at offsets that are multiple of eight.
+ * <pre>
+ * offset  size   content
+ * 0       4      magic bytes "TSPB"
+ * 4       4      version of format
+ * 8       4      flags, FLAG_TREE if parents are kept and FLAG_TOUR if tour is kept
+ * 12      4      count of cities n
+ * 16      4      code of metric, or -1 if metric is not specified
+ * 20      4      reserved, zero
+ * 24      8      cost of tour, or NaN if there is no tour
+ * 32      8n     x coordinates of cities
+ * ...     8n     y coordinates of cities
+ * ...     4n     parent of each city in MST or -1 for root, if FLAG_TREE is set
+ * ...     0 or 4 zero padding to a multiple of eight, if FLAG_TREE is set
+ * ...     4n     cities in order of tour, if FLAG_TOUR is set
+ * </pre>
+ * Codes of metrics are kept in this class instead of order of constants of solver.Metric,
+ * so adding a metric doesn't change meaning of files that have been written.
+ * @author Majid Feyzi
+ * @see BinaryReader
+ * @see BinaryWriter
+ * */
+public final class BinaryFormat {
+
+	private BinaryFormat() {}
+
+	// Magic bytes and version of format
+	public static final int MAGIC = 'T' | 'S' << 8 | 'P' << 16 | 'B' << 24;
+	public static final int VERSION = 2;
+
+	// Flags of optional parts
+	public static final int FLAG_TREE = 1;
+	public static final int FLAG_TOUR = 2;
+
+	// Size of header
+	public static final int HEADER_SIZE = 32;
+
+	/**
+	 * Get offset of parents array in file.
+	 * @param n count of cities
+	 * @return offset of parents
+	 * */
+	public static long treeOffset(int n) {
+		return HEADER_SIZE + 16L * n;
+	}
+
+	/**
+	 * Get offset of tour array in file.
+	 * @param n count of cities
+	 * @param flags flags of file
+	 * @return offset of tour
+	 * */
+	public static long tourOffset(int n, int flags) {
+		return treeOffset(n) + ((flags & FLAG_TREE) != 0 ? (4L * n + 7) & ~7L : 0);
+	}
+
+	/**
+	 * Get size of file.
+	 * @param n count of cities
+	 * @param flags flags of file
+	 * @return size of file in bytes
+	 * */
+	public static long size(int n, int flags) {
+		return tourOffset(n, flags) + ((flags & FLAG_TOUR) != 0 ? 4L * n : 0);
+	}
+
+	/**
+	 * Get code of a metric in files.
+	 * @param metric metric of distance between cities, or null
+	 * @return code of metric, or -1 if metric is null
+	 * */
+	public static int code(Metric metric) {
+		if (metric == null)
+			return -1;
+		switch (metric) {
+		case EUCLIDEAN:
+			return 0;
+		case EUC_2D:
+			return 1;
+		case SQUARED_EUCLIDEAN:
+			return 2;
+		case MANHATTAN:
+			return 3;
+		case GEO:
+			return 4;
+		case HAVERSINE:
+			return 5;
+		case MAN_2D:
+			return 6;
+		default:
+			throw new IllegalArgumentException("Metric " + metric + " has no code");
+		}
+	}
+
+	/**
+	 * Get metric of a code in files.
+	 * @param code code of metric
+	 * @return metric, or null if code is -1
+	 * @throws IllegalArgumentException if code is not a code of metric
+	 * */
+	public static Metric metric(int code) {
+		switch (code) {
+		case -1:
+			return null;
+		case 0:
+			return Metric.EUCLIDEAN;
+		case 1:
+			return Metric.EUC_2D;
+		case 2:
+			return Metric.SQUARED_EUCLIDEAN;
+		case 3:
+			return Metric.MANHATTAN;
+		case 4:
+			return Metric.GEO;
+		case 5:
+			return Metric.HAVERSINE;
+		case 6:
+			return Metric.MAN_2D;
+		default:
+			throw new IllegalArgumentException("Metric code " + code + " is not valid");
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package binary;
+
+import solver.Metric;
+import solver.PointSet;
+
+/**
+ * Instance of a binary file, cities with their MST if it's kept and a tour if it's kept.
+ * @author Majid Feyzi
+ * @see BinaryReader
+ * */
+public class BinaryInstance {
+
+	// Cities of problem with their MST
+	private final PointSet points;
+	private final boolean tree;
+
+	// Metric of distance between cities, or null if it's not specified
+	private final Metric metric;
+
+	// Cities in order of tour and cost of tour, or null and NaN if there is no tour
+	private final int[] tour;
+	private final double cost;
+
+	public BinaryInstance(PointSet points, boolean tree, Metric metric, int[] tour, double cost) {
+		this.points = points;
+		this.tree = tree;
+		this.metric = metric;
+		this.tour = tour;
+		this.cost = cost;
+	}
+
+	public PointSet getPoints() {
+		return points;
+	}
+
+	/**
+	 * Check that MST of cities has been kept in file and is restored in point set.
+	 * @return true if point set has MST
+	 * */
+	public boolean hasTree() {
+		return tree;
+	}
+
+	public Metric getMetric() {
+		return metric;
+	}
+
+	public int[] getTour() {
+		return tour;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+}
@@ -0,0 +1,133 @@
+package binary;
+
+import solver.Metric;
+import solver.PointSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of binary files of instances.
+ * Arrays of file are mapped read only and copied in bulk into primitive arrays of point set,
+ * so reading takes about the time of copying memory, and mapped pages of file are shared by all readers.
+ * @author Majid Feyzi
+ * @see BinaryFormat
+ * */
+public class BinaryReader {
+
+	// Largest part of an array that is mapped at once
+	private static final int WINDOW = 1 << 30;
+
+	private BinaryReader() {}
+
+	/**
+	 * Read instance of a binary file.
+	 * @param path path of file
+	 * @return instance of file
+	 * @throws IOException if file can't be read or is not valid
+	 * */
+	public static BinaryInstance read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < BinaryFormat.HEADER_SIZE)
+				throw new IOException(path + " is not a binary instance");
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(0) != BinaryFormat.MAGIC)
+				throw new IOException(path + " is not a binary instance");
+			int version = header.getInt(4);
+			if (version != BinaryFormat.VERSION)
+				throw new IOException("Version " + version + " of binary format is not supported");
+			int flags = header.getInt(8), n = header.getInt(12);
+			double cost = header.getDouble(24);
+			Metric metric;
+			try {
+				metric = BinaryFormat.metric(header.getInt(16));
+			} catch (IllegalArgumentException e) {
+				throw new IOException(path + " has an invalid header", e);
+			}
+			if (n < 0)
+				throw new IOException(path + " has an invalid header");
+			if (channel.size() < BinaryFormat.size(n, flags))
+				throw new IOException(path + " is truncated");
+
+			double[] x = new double[n], y = new double[n];
+			doubles(channel, BinaryFormat.HEADER_SIZE, x);
+			doubles(channel, BinaryFormat.HEADER_SIZE + 8L * n, y);
+			PointSet points = new PointSet(x, y);
+
+			boolean tree = (flags & BinaryFormat.FLAG_TREE) != 0;
+			if (tree) {
+				int[] parents = new int[n];
+				ints(channel, BinaryFormat.treeOffset(n), parents);
+				tree(points, parents);
+			}
+
+			int[] tour = null;
+			if ((flags & BinaryFormat.FLAG_TOUR) != 0) {
+				tour = new int[n];
+				ints(channel, BinaryFormat.tourOffset(n, flags), tour);
+				boolean[] seen = new boolean[n];
+				for (int city : tour) {
+					if (city < 0 || city >= n || seen[city])
+						throw new IOException("Tour of " + path + " is not a permutation of cities");
+					seen[city] = true;
+				}
+			}
+			return new BinaryInstance(points, tree, metric, tour, cost);
+		}
+	}
+
+	/*
+	 * Restore MST of cities from parents array, children of each vertex are attached in order of their indices.
+	 * */
+	private static void tree(PointSet points, int[] parents) throws IOException {
+		int n = parents.length, roots = 0;
+		for (int i = n - 1; i >= 0; i--) {
+			if (parents[i] == PointSet.NONE)
+				roots++;
+			else if (parents[i] < 0 || parents[i] >= n || parents[i] == i)
+				throw new IOException("Invalid parent of city " + i);
+			else
+				points.attach(i, parents[i]);
+		}
+
+		// Tree must have one root and reach all vertices from it
+		int reached = 0;
+		if (roots == 1) {
+			int[] stack = new int[n];
+			int top = 0;
+			for (int i = 0; i < n; i++)
+				if (parents[i] == PointSet.NONE)
+					stack[top++] = i;
+			while (top > 0) {
+				int v = stack[--top];
+				reached++;
+				for (int child = points.getFirstChild(v); child != PointSet.NONE; child = points.getNextSibling(child))
+					stack[top++] = child;
+			}
+		}
+		if (n > 0 && reached != n)
+			throw new IOException("Parents of cities are not a tree");
+	}
+
+	private static void doubles(FileChannel channel, long offset, double[] out) throws IOException {
+		for (int from = 0; from < out.length; ) {
+			int count = Math.min(out.length - from, WINDOW / Double.BYTES);
+			channel.map(FileChannel.MapMode.READ_ONLY, offset + (long) Double.BYTES * from, (long) Double.BYTES * count)
+					.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(out, from, count);
+			from += count;
+		}
+	}
+
+	private static void ints(FileChannel channel, long offset, int[] out) throws IOException {
+		for (int from = 0; from < out.length; ) {
+			int count = Math.min(out.length - from, WINDOW / Integer.BYTES);
+			channel.map(FileChannel.MapMode.READ_ONLY, offset + (long) Integer.BYTES * from, (long) Integer.BYTES * count)
+					.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(out, from, count);
+			from += count;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package binary;
+
+import solver.Metric;
+import solver.PointSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer of binary files of instances.
+ * Arrays are copied in bulk into a direct buffer and written in chunks.
+ * @author Majid Feyzi
+ * @see BinaryFormat
+ * */
+public class BinaryWriter {
+
+	// Size of chunks that are written at once
+	private static final int CHUNK = 1 << 20;
+
+	private BinaryWriter() {}
+
+	/**
+	 * Write cities and optionally their MST and a tour into a binary file.
+	 * @param path path of file
+	 * @param points cities of problem
+	 * @param tree true to write MST of cities that is kept in point set
+	 * @param metric metric of distance between cities, or null
+	 * @param tour cities in order of tour, or null
+	 * @param cost cost of tour
+	 * @throws IOException if file can't be written
+	 * */
+	public static void write(Path path, PointSet points, boolean tree, Metric metric, int[] tour, double cost) throws IOException {
+		int n = points.size();
+		if (tour != null && tour.length != n)
+			throw new IllegalArgumentException("Tour must visit all cities");
+		int flags = (tree ? BinaryFormat.FLAG_TREE : 0) | (tour != null ? BinaryFormat.FLAG_TOUR : 0);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(BinaryFormat.MAGIC);
+			buffer.putInt(BinaryFormat.VERSION);
+			buffer.putInt(flags);
+			buffer.putInt(n);
+			buffer.putInt(BinaryFormat.code(metric));
+			buffer.putInt(0);
+			buffer.putDouble(tour != null ? cost : Double.NaN);
+			write(channel, buffer);
+
+			doubles(channel, buffer, points.xs(), n);
+			doubles(channel, buffer, points.ys(), n);
+			if (tree) {
+				int[] parents = new int[n];
+				for (int i = 0; i < n; i++)
+					parents[i] = points.getParent(i);
+				ints(channel, buffer, parents, n);
+
+				// Pad parents, so tour starts at a multiple of eight
+				if (n % 2 != 0) {
+					buffer.putInt(0);
+					write(channel, buffer);
+				}
+			}
+			if (tour != null)
+				ints(channel, buffer, tour, n);
+		}
+	}
+
+	private static void doubles(FileChannel channel, ByteBuffer buffer, double[] values, int n) throws IOException {
+		for (int from = 0; from < n; ) {
+			int count = Math.min(n - from, CHUNK / Double.BYTES);
+			buffer.clear();
+			buffer.asDoubleBuffer().put(values, from, count);
+			buffer.position(count * Double.BYTES);
+			write(channel, buffer);
+			from += count;
+		}
+	}
+
+	private static void ints(FileChannel channel, ByteBuffer buffer, int[] values, int n) throws IOException {
+		for (int from = 0; from < n; ) {
+			int count = Math.min(n - from, CHUNK / Integer.BYTES);
+			buffer.clear();
+			buffer.asIntBuffer().put(values, from, count);
+			buffer.position(count * Integer.BYTES);
+			write(channel, buffer);
+			from += count;
+		}
+	}
+
+	/*
+	 * Write content of buffer from it's beginning to it's position.
+	 * */
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -0,0 +1,435 @@
+package cache;
+
+import binary.BinaryInstance;
+import binary.BinaryReader;
+import binary.BinaryWriter;
+import solver.Metric;
+import solver.PointSet;
+import solver.Tour;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of solved tours keyed by fingerprint of cities, start city and options of solver.
+ * Fingerprint is SHA-256 hash of coordinates in canonical order, cities sorted by x and then y,
+ * so the same set of cities in another order hits the same entry, and tours are kept in canonical indices.
+ * Entries are kept in memory in least recently used order and are evicted when count of entries or their size
+ * is more than limits. If a directory is given, entries are also written to it as binary instances with MST
+ * and tour, and entries that are not in memory are read from it, so they are kept between runs.
+ * Files of directory are never evicted and errors of reading or writing them are ignored, so a broken file is a miss.
+ * All methods are thread safe.
+ * @author Majid Feyzi
+ * @see BinaryWriter
+ * */
+public class SolutionCache {
+
+	// Default limits of count of entries and their size in memory
+	public static final int DEFAULT_ENTRIES = 1024;
+	public static final long DEFAULT_BYTES = 256L << 20;
+
+	// Estimated memory of an entry besides it's arrays
+	private static final long ENTRY_OVERHEAD = 128;
+
+	// Entries in least recently used order
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	// Limits of count and size of entries in memory and directory of files, or null for memory only
+	private final int maxEntries;
+	private final long maxBytes;
+	private final Path directory;
+
+	// Size of entries in memory and counters of cache
+	private long bytes;
+	private long hits, diskHits, misses, evictions;
+
+	/**
+	 * Fingerprint of a problem and canonical order of it's cities.
+	 * */
+	public static final class Key {
+
+		// SHA-256 hash of cities, start and options
+		private final byte[] hash;
+
+		// Index of city at each canonical position, it's not part of key
+		private final int[] cities;
+
+		private Key(byte[] hash, int[] cities) {
+			this.hash = hash;
+			this.cities = cities;
+		}
+
+		/**
+		 * Get hash of key as hexadecimal digits, that is name of it's file.
+		 * @return hexadecimal hash
+		 * */
+		public String toHex() {
+			StringBuilder hex = new StringBuilder(hash.length * 2);
+			for (byte b : hash)
+				hex.append(Character.forDigit((b >> 4) & 15, 16)).append(Character.forDigit(b & 15, 16));
+			return hex.toString();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && Arrays.equals(hash, ((Key) o).hash);
+		}
+
+		@Override
+		public int hashCode() {
+			return (hash[0] & 255) | (hash[1] & 255) << 8 | (hash[2] & 255) << 16 | hash[3] << 24;
+		}
+	}
+
+	/*
+	 * Tour and MST of an entry in canonical indices.
+	 * */
+	private static final class Entry {
+		private final int[] order, mstOrder, parents;
+		private final double cost, mstCost;
+
+		private Entry(int[] order, int[] mstOrder, int[] parents, double cost, double mstCost) {
+			this.order = order;
+			this.mstOrder = mstOrder;
+			this.parents = parents;
+			this.cost = cost;
+			this.mstCost = mstCost;
+		}
+
+		private long bytes() {
+			return ENTRY_OVERHEAD + 12L * order.length;
+		}
+	}
+
+	/**
+	 * Create cache in memory with default limits.
+	 * */
+	public SolutionCache() {
+		this(DEFAULT_ENTRIES, DEFAULT_BYTES, null);
+	}
+
+	/**
+	 * Create cache.
+	 * @param maxEntries maximum count of entries in memory
+	 * @param maxBytes maximum estimated size of entries in memory
+	 * @param directory directory of files of entries, or null to keep entries only in memory
+	 * */
+	public SolutionCache(int maxEntries, long maxBytes, Path directory) {
+		if (maxEntries < 0 || maxBytes < 0)
+			throw new IllegalArgumentException("Limits of cache must not be negative");
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.directory = directory;
+	}
+
+	/**
+	 * Find key of a problem.
+	 * @param points cities of problem
+	 * @param start start city of tour
+	 * @param options algorithm, metric and options of solver that change it's tour
+	 * @return key of problem
+	 * */
+	public static Key key(PointSet points, int start, String options) {
+		int n = points.size();
+		double[] x = points.xs(), y = points.ys();
+		int[] cities = new int[n];
+		for (int i = 0; i < n; i++)
+			cities[i] = i;
+		sort(cities, x, y, 0, n - 1);
+		int canonicalStart = -1;
+		for (int i = 0; i < n && canonicalStart < 0; i++)
+			if (cities[i] == start)
+				canonicalStart = i;
+
+		MessageDigest digest = sha256();
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 13).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(n).putInt(canonicalStart);
+		byte[] text = options.getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(text.length);
+		digest.update(buffer.array(), 0, buffer.position());
+		digest.update(text);
+		buffer.clear();
+
+		// Negative zero is hashed as zero, because it's the same coordinate
+		for (int i = 0; i < n; i++) {
+			if (buffer.remaining() < 16) {
+				digest.update(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+			buffer.putDouble(x[cities[i]] + 0.0).putDouble(y[cities[i]] + 0.0);
+		}
+		digest.update(buffer.array(), 0, buffer.position());
+		return new Key(digest.digest(), cities);
+	}
+
+	/**
+	 * Find tour of a problem in cache and restore it's MST in point set.
+	 * @param key key of problem
+	 * @param points cities of problem, they must be the cities that key has been found from
+	 * @return tour of problem in indices of point set, or null if it's not in cache
+	 * */
+	public Tour get(Key key, PointSet points) {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry != null)
+				hits++;
+		}
+		if (entry == null && directory != null) {
+			entry = read(key, points);
+			if (entry != null) {
+				synchronized (this) {
+					hits++;
+					diskHits++;
+					add(key, entry);
+				}
+			}
+		}
+		if (entry == null) {
+			synchronized (this) {
+				misses++;
+			}
+			return null;
+		}
+
+		// Map canonical indices to indices of point set
+		int[] cities = key.cities;
+		int n = cities.length;
+		int[] order = new int[n], mstOrder = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = cities[entry.order[i]];
+			mstOrder[i] = cities[entry.mstOrder[i]];
+		}
+		points.clearTree();
+		for (int i = 0; i < n; i++) {
+			int vertex = entry.mstOrder[i], parent = entry.parents[vertex];
+			if (parent != PointSet.NONE)
+				points.attach(cities[vertex], cities[parent]);
+		}
+		return new Tour(order, mstOrder, entry.cost, entry.mstCost);
+	}
+
+	/**
+	 * Keep tour of a problem in cache.
+	 * @param key key of problem
+	 * @param points cities of problem with MST of tour
+	 * @param tour tour of problem
+	 * @param metric metric of distance between cities that is written to file of entry
+	 * */
+	public void put(Key key, PointSet points, Tour tour, Metric metric) {
+		int[] cities = key.cities;
+		int n = cities.length;
+		if (tour.size() != n || points.size() != n)
+			throw new IllegalArgumentException("Tour must visit all cities of key");
+
+		// Map indices of point set to canonical indices
+		int[] canonical = new int[n];
+		for (int i = 0; i < n; i++)
+			canonical[cities[i]] = i;
+		int[] order = new int[n], mstOrder = new int[n], parents = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = canonical[tour.getOrder()[i]];
+			mstOrder[i] = canonical[tour.getMstOrder()[i]];
+			int parent = points.getParent(cities[i]);
+			parents[i] = parent == PointSet.NONE ? PointSet.NONE : canonical[parent];
+		}
+		Entry entry = new Entry(order, mstOrder, parents, tour.getCost(), tour.getMstCost());
+		synchronized (this) {
+			add(key, entry);
+		}
+		if (directory != null)
+			write(key, points, entry, metric);
+	}
+
+	/*
+	 * Add entry to memory and evict least recently used entries that exceed limits.
+	 * */
+	private void add(Key key, Entry entry) {
+		Entry old = entries.put(key, entry);
+		if (old != null)
+			bytes -= old.bytes();
+		bytes += entry.bytes();
+		Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+			bytes -= eldest.next().getValue().bytes();
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	/*
+	 * Read entry of file of key, cities of file must be the canonical cities of key.
+	 * Return null if there is no valid file.
+	 * */
+	private Entry read(Key key, PointSet points) {
+		Path file = directory.resolve(key.toHex().concat(".tspb"));
+		if (!Files.isRegularFile(file))
+			return null;
+		try {
+			BinaryInstance instance = BinaryReader.read(file);
+			PointSet cached = instance.getPoints();
+			int[] cities = key.cities;
+			int n = cities.length;
+			if (!instance.hasTree() || instance.getTour() == null || instance.getMetric() == null || cached.size() != n)
+				return null;
+			for (int i = 0; i < n; i++)
+				if (cached.getX(i) != points.getX(cities[i]) + 0.0 || cached.getY(i) != points.getY(cities[i]) + 0.0)
+					return null;
+
+			// Order of MST is found from root to leaves and weight of MST from it's edges
+			Metric metric = instance.getMetric();
+			int[] parents = new int[n], mstOrder = new int[n];
+			int size = 0;
+			double mstCost = 0;
+			for (int i = 0; i < n; i++) {
+				parents[i] = cached.getParent(i);
+				if (parents[i] == PointSet.NONE)
+					mstOrder[size++] = i;
+				else
+					mstCost += metric.distance(cached.getX(i), cached.getY(i), cached.getX(parents[i]), cached.getY(parents[i]));
+			}
+			for (int head = 0; head < size; head++)
+				for (int child = cached.getFirstChild(mstOrder[head]); child != PointSet.NONE; child = cached.getNextSibling(child))
+					mstOrder[size++] = child;
+			return new Entry(instance.getTour(), mstOrder, parents, instance.getCost(), mstCost);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * Write entry to file of key in canonical order, file is moved to it's place after it's written completely.
+	 * */
+	private void write(Key key, PointSet points, Entry entry, Metric metric) {
+		int[] cities = key.cities;
+		int n = cities.length;
+		PointSet canonical = new PointSet();
+		for (int i = 0; i < n; i++)
+			canonical.add(points.getX(cities[i]) + 0.0, points.getY(cities[i]) + 0.0);
+		for (int vertex : entry.mstOrder)
+			if (entry.parents[vertex] != PointSet.NONE)
+				canonical.attach(vertex, entry.parents[vertex]);
+		Path file = directory.resolve(key.toHex().concat(".tspb"));
+		try {
+			Files.createDirectories(directory);
+			Path temporary = Files.createTempFile(directory, key.toHex(), ".tmp");
+			try {
+				BinaryWriter.write(temporary, canonical, true, metric, entry.order, entry.cost);
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		} catch (IOException e) {
+			// Entry is still kept in memory
+		}
+	}
+
+	/*
+	 * Sort indices of cities by x and then y coordinate with quicksort.
+	 * */
+	private static void sort(int[] cities, double[] x, double[] y, int left, int right) {
+		while (right - left > 16) {
+			int i = left, j = right;
+			int pivot = cities[(left + right) >>> 1];
+			double px = x[pivot], py = y[pivot];
+			while (i <= j) {
+				while (compare(x, y, cities[i], px, py) < 0)
+					i++;
+				while (compare(x, y, cities[j], px, py) > 0)
+					j--;
+				if (i <= j) {
+					int t = cities[i];
+					cities[i++] = cities[j];
+					cities[j--] = t;
+				}
+			}
+
+			// Sort smaller part recursively and continue with larger one
+			if (j - left < right - i) {
+				sort(cities, x, y, left, j);
+				left = i;
+			} else {
+				sort(cities, x, y, i, right);
+				right = j;
+			}
+		}
+		for (int i = left + 1; i <= right; i++) {
+			int city = cities[i], j = i - 1;
+			while (j >= left && compare(x, y, cities[j], x[city], y[city]) > 0) {
+				cities[j + 1] = cities[j];
+				j--;
+			}
+			cities[j + 1] = city;
+		}
+	}
+
+	private static int compare(double[] x, double[] y, int city, double px, double py) {
+		int c = Double.compare(x[city] + 0.0, px + 0.0);
+		return c != 0 ? c : Double.compare(y[city] + 0.0, py + 0.0);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+
+	/**
+	 * Get count of entries in memory.
+	 * @return count of entries
+	 * */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get estimated size of entries in memory.
+	 * @return size in bytes
+	 * */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Get count of tours that have been found in memory or in files.
+	 * @return count of hits
+	 * */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get count of tours that have been found in files.
+	 * @return count of hits of files
+	 * */
+	public synchronized long getDiskHits() {
+		return diskHits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "hits " + hits + " (" + diskHits + " from disk), misses " + misses + ", evictions " + evictions
+				+ ", entries " + entries.size() + ", " + bytes + " bytes";
+	}
+}
@@ -0,0 +1,487 @@
+package cli;
+
+import binary.BinaryInstance;
+import binary.BinaryReader;
+import binary.BinaryWriter;
+import cache.SolutionCache;
+import solver.Algorithm;
+import solver.CountingMetric;
+import solver.DelaunayMst;
+import solver.DistanceMetric;
+import solver.Graph;
+import solver.GraphTourSolver;
+import solver.HilbertCurve;
+import solver.LocalSearch;
+import solver.Metric;
+import solver.MstBuilder;
+import solver.ParallelPrimMst;
+import solver.Phase;
+import solver.PointSet;
+import solver.PrimMst;
+import solver.SolveListener;
+import solver.SolveMetrics;
+import solver.Tour;
+import tsplib.DimacsReader;
+import tsplib.Instance;
+import tsplib.TsplibReader;
+import tsplib.TsplibWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Command line runner that solves instances of files, directories or standard input without user interface.
+ * It doesn't use any class of java.awt, so it runs on headless servers.
+ * Instances are solved concurrently and their results are written in order of inputs.
+ * Exit status is 0 if all instances have been solved, 1 if solving some instances has failed and 2 for invalid arguments.
+ * @author Majid Feyzi
+ * @see Options
+ * */
+public class Batch {
+
+	// Name of instance of standard input
+	private static final String STDIN = "stdin";
+
+	// Instances with at least this many cities are solved in order of Hilbert curve,
+	// for smaller instances sorting costs more than it saves
+	private static final int REORDER_LIMIT = 1 << 16;
+
+	private final Options options;
+
+	// Cache of tours, or null if tours are not cached
+	private final SolutionCache cache;
+
+	/*
+	 * Result of solving an instance, error is null if instance has been solved.
+	 * */
+	private static class Result {
+		private final String name;
+		private final PointSet points;
+		private final Metric metric;
+		private final Tour tour;
+		private final SolveMetrics metrics;
+		private final String error;
+
+		private Result(String name, PointSet points, Metric metric, Tour tour, SolveMetrics metrics, String error) {
+			this.name = name;
+			this.points = points;
+			this.metric = metric;
+			this.tour = tour;
+			this.metrics = metrics;
+			this.error = error;
+		}
+
+		private Result(String name, String error) {
+			this(name, null, null, null, null, error);
+		}
+	}
+
+	public Batch(Options options) {
+		this.options = options;
+		this.cache = options.getCache() != null ? new SolutionCache(SolutionCache.DEFAULT_ENTRIES, SolutionCache.DEFAULT_BYTES, options.getCache()) : null;
+	}
+
+	/**
+	 * Launch the command line runner.
+	 */
+	public static void main(String[] args) {
+		Options options;
+		try {
+			options = Options.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(Options.USAGE);
+			System.exit(2);
+			return;
+		}
+		if (options.isHelp()) {
+			System.out.println(Options.USAGE);
+			return;
+		}
+		try {
+			System.exit(new Batch(options).run());
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Solve all instances and write their results.
+	 * @return exit status, 0 if all instances have been solved
+	 * @throws IOException if inputs can't be listed or results can't be written
+	 * */
+	public int run() throws IOException {
+		List<Path> files = new ArrayList<>();
+		boolean stdin = options.getInputs().isEmpty();
+		for (String input : options.getInputs()) {
+			if (input.equals("-"))
+				stdin = true;
+			else
+				collect(Paths.get(input), files);
+		}
+		if (options.getOutput() != null)
+			Files.createDirectories(options.getOutput());
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+		int failures = 0;
+		if (stdin) {
+			Result result;
+			try {
+				SolveMetrics metrics = metrics();
+				metrics.begin(Phase.LOAD, 0);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+				PointSet points = read(reader);
+				metrics.end(Phase.LOAD);
+				result = solve(STDIN, points, metric(null), files.isEmpty(), metrics);
+			} catch (IOException | RuntimeException e) {
+				result = new Result(STDIN, message(e));
+			}
+			failures += write(result, out);
+		}
+
+		if (files.size() == 1 && !stdin) {
+
+			// Solve single instance with all threads
+			failures += write(solve(files.get(0), true), out);
+		} else if (!files.isEmpty()) {
+
+			// Solve instances concurrently and write results in order
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(options.getThreads(), files.size()), daemonThreads());
+			try {
+				List<Future<Result>> results = new ArrayList<>(files.size());
+				for (Path file : files)
+					results.add(executor.submit(() -> solve(file, false)));
+				for (Future<Result> result : results)
+					failures += write(result.get(), out);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted", e);
+			} catch (ExecutionException e) {
+				throw new IOException(message(e.getCause()), e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		out.flush();
+		if (cache != null && options.isMetrics())
+			System.err.println("cache: ".concat(cache.toString()));
+		return failures == 0 ? 0 : 1;
+	}
+
+	/*
+	 * Add files of path to list of instances, files of directories are added in order of their names.
+	 * */
+	private static void collect(Path path, List<Path> files) throws IOException {
+		if (!Files.isDirectory(path)) {
+			files.add(path);
+			return;
+		}
+		List<Path> children = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+			for (Path child : stream)
+				if (Files.isRegularFile(child))
+					children.add(child);
+		}
+		Collections.sort(children);
+		files.addAll(children);
+	}
+
+	/*
+	 * Read and solve instance of a file, files with .tsp extension are read as TSPLIB problems,
+	 * files with .tspb extension are read as binary instances and files with .gr extension are read as DIMACS graphs.
+	 * */
+	private Result solve(Path file, boolean parallel) {
+		String name = name(file);
+		try {
+			String extension = file.getFileName().toString().toLowerCase(Locale.ROOT);
+			SolveMetrics metrics = metrics();
+			metrics.begin(Phase.LOAD, 0);
+			PointSet points;
+			Metric metric;
+			if (extension.endsWith(".tspb")) {
+				BinaryInstance instance = BinaryReader.read(file);
+				metric = options.getMetric() != null ? options.getMetric() : instance.getMetric();
+				if (metric == null)
+					metric = Metric.EUCLIDEAN;
+				points = instance.getPoints();
+			} else if (extension.endsWith(".gr")) {
+				Graph graph = DimacsReader.read(file);
+				metrics.end(Phase.LOAD);
+				return solve(name, graph, metrics);
+			} else if (extension.endsWith(".tsp")) {
+				Instance instance = TsplibReader.read(file);
+				if (instance.getGraph() != null) {
+					metrics.end(Phase.LOAD);
+					return solve(name, instance.getGraph(), metrics);
+				}
+				if (instance.getPoints() == null)
+					throw new IllegalArgumentException("Problem has no coordinates of nodes");
+				metric = metric(instance);
+				points = instance.getPoints();
+			} else {
+				try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+					points = read(reader);
+				}
+				metric = metric(null);
+			}
+			metrics.end(Phase.LOAD);
+			return solve(name, points, metric, parallel, metrics);
+		} catch (IOException | RuntimeException e) {
+			return new Result(name, message(e));
+		}
+	}
+
+	/*
+	 * Create metrics of solving an instance, allocations and distance evaluations are measured only if
+	 * metrics are written.
+	 * */
+	private SolveMetrics metrics() {
+		return options.isMetrics() ? new SolveMetrics(SolveListener.NONE) : new SolveMetrics();
+	}
+
+	/*
+	 * Find metric of instance, metric of options is used if it's specified,
+	 * otherwise edge weight type of TSPLIB problem or euclidean metric is used.
+	 * */
+	private Metric metric(Instance instance) {
+		if (options.getMetric() != null)
+			return options.getMetric();
+		if (instance == null || instance.getEdgeWeightType() == null)
+			return Metric.EUCLIDEAN;
+		if (instance.getMetric() == null)
+			throw new IllegalArgumentException("Edge weight type " + instance.getEdgeWeightType() + " is not supported");
+		return instance.getMetric();
+	}
+
+	/*
+	 * Solve instance and improve it's tour if improvement is enabled.
+	 * If parallel is true, MST of non euclidean metrics is built with all threads.
+	 * */
+	private Result solve(String name, PointSet points, Metric metric, boolean parallel, SolveMetrics metrics) {
+		int start = options.getStart();
+		if (points.isEmpty())
+			return new Result(name, points, metric, new Tour(new int[0], new int[0], 0, 0), null, null);
+		if (start < 0 || start >= points.size())
+			throw new IllegalArgumentException("Start city " + start + " doesn't exist");
+
+		// Tours of instances that have been solved with the same options are taken from cache
+		SolutionCache.Key key = null;
+		if (cache != null) {
+			key = SolutionCache.key(points, start, options.getAlgorithm() + " " + metric + " " + options.getImprove());
+			Tour cached = cache.get(key, points);
+			if (cached != null) {
+				metrics.finish();
+				return new Result(name, points, metric, cached, options.isMetrics() ? metrics : null, null);
+			}
+		}
+
+		// Distance evaluations are counted only if metrics are written, counting slows down each evaluation
+		DistanceMetric distance = metric;
+		if (options.isMetrics()) {
+			CountingMetric counting = new CountingMetric(metric);
+			metrics.watch(counting);
+			distance = counting;
+		}
+
+		// Pool of parallel builder is shut down after solve
+		MstBuilder builder;
+		ParallelPrimMst parallelBuilder = null;
+		if (metric.isEuclidean())
+			builder = new DelaunayMst(distance);
+		else if (parallel && options.getThreads() > 1)
+			builder = parallelBuilder = new ParallelPrimMst(distance, options.getThreads());
+		else
+			builder = new PrimMst(distance);
+
+		// Cities are reordered along Hilbert curve, so solvers walk memory in order of plane, and restored after solving
+		int[] curve = null;
+		if (points.size() >= REORDER_LIMIT && options.getAlgorithm() != Algorithm.HILBERT) {
+			metrics.begin(Phase.LOAD, points.size());
+			curve = HilbertCurve.order(points);
+			points.reorder(curve);
+			for (int i = 0; i < curve.length; i++) {
+				if (curve[i] == options.getStart()) {
+					start = i;
+					break;
+				}
+			}
+			metrics.end(Phase.LOAD);
+		}
+
+		Tour tour;
+		try {
+			tour = options.getAlgorithm().create(distance, builder).solve(points, start, metrics);
+		} finally {
+			if (parallelBuilder != null)
+				parallelBuilder.close();
+		}
+		if (options.getImprove() > 0)
+			tour = new LocalSearch(distance, LocalSearch.DEFAULT_NEIGHBOURS, options.getImprove(), 0).improve(points, tour, metrics);
+		if (curve != null)
+			tour = restore(points, curve, tour);
+
+		// Tours without MST, such as tours of Hilbert curve, are found faster than they are cached
+		if (cache != null && tour.getMstOrder().length == points.size())
+			cache.put(key, points, tour, metric);
+		metrics.finish();
+		return new Result(name, points, metric, tour, options.isMetrics() ? metrics : null, null);
+	}
+
+	/*
+	 * Restore order of cities that have been reordered along a curve and map tour to their first indices.
+	 * */
+	private static Tour restore(PointSet points, int[] curve, Tour tour) {
+		int n = curve.length;
+		int[] inverse = new int[n];
+		for (int i = 0; i < n; i++)
+			inverse[curve[i]] = i;
+		points.reorder(inverse);
+		int[] order = tour.getOrder(), mstOrder = tour.getMstOrder();
+		for (int i = 0; i < order.length; i++)
+			order[i] = curve[order[i]];
+		for (int i = 0; i < mstOrder.length; i++)
+			mstOrder[i] = curve[mstOrder[i]];
+		return new Tour(order, mstOrder, tour.getCost(), tour.getMstCost());
+	}
+
+	/*
+	 * Solve instance of a graph with explicit weights. Graphs have no coordinates, so their tours are built
+	 * from MST of adjacency arrays, and they are not improved, cached or written in binary format.
+	 * */
+	private Result solve(String name, Graph graph, SolveMetrics metrics) {
+		if (options.getAlgorithm() != Algorithm.MST)
+			throw new IllegalArgumentException("Algorithm " + options.getAlgorithm().name().toLowerCase(Locale.ROOT) + " is not supported for graphs");
+		if (options.isBinary() && options.getOutput() != null && !options.isCostsOnly())
+			throw new IllegalArgumentException("Binary format needs coordinates of cities");
+		Tour tour = new GraphTourSolver().solve(graph, options.getStart(), metrics);
+		metrics.finish();
+		return new Result(name, null, null, tour, options.isMetrics() ? metrics : null, null);
+	}
+
+	/**
+	 * Read cities of an instance, each line has x and y or index, x and y of a city.
+	 * Empty lines and lines that start with # are ignored.
+	 * @param reader reader of instance
+	 * @return cities of instance
+	 * @throws IOException if instance can't be read
+	 * @throws IllegalArgumentException if a line is not valid
+	 * */
+	public static PointSet read(BufferedReader reader) throws IOException {
+		PointSet points = new PointSet();
+		double[] numbers = new double[3];
+		String line;
+		for (int number = 1; (line = reader.readLine()) != null; number++) {
+			int count = 0, length = line.length();
+			for (int i = 0; i < length; ) {
+				while (i < length && Character.isWhitespace(line.charAt(i)))
+					i++;
+				if (i == length || (count == 0 && line.charAt(i) == '#'))
+					break;
+				int end = i;
+				while (end < length && !Character.isWhitespace(line.charAt(end)))
+					end++;
+				if (count == numbers.length)
+					throw new IllegalArgumentException("Line " + number + " has more than three numbers");
+				try {
+					numbers[count++] = Double.parseDouble(line.substring(i, end));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Line " + number + " has an invalid number " + line.substring(i, end));
+				}
+				i = end;
+			}
+			if (count == 2)
+				points.add(numbers[0], numbers[1]);
+			else if (count == 3)
+				points.add(numbers[1], numbers[2]);
+			else if (count != 0)
+				throw new IllegalArgumentException("Line " + number + " must have two or three numbers");
+		}
+		return points;
+	}
+
+	/*
+	 * Write result to standard output or to tour file of output directory.
+	 * Return 1 if solving instance has failed, otherwise 0.
+	 * */
+	private int write(Result result, Writer out) throws IOException {
+		if (result.error != null) {
+			System.err.println(result.name + ": " + result.error);
+			return 1;
+		}
+		// String concatenation is not used on this path, it's bootstrap takes a notable part of startup time
+		if (result.metrics != null)
+			System.err.println(result.name.concat(": ").concat(result.metrics.toString()));
+		Tour tour = result.tour;
+		out.write(result.name);
+		out.write(' ');
+		out.write(Integer.toString(tour.size()));
+		out.write(' ');
+		out.write(Double.toString(tour.getCost()));
+		out.write('\n');
+		if (options.isCostsOnly())
+			return 0;
+
+		if (options.getOutput() != null) {
+			if (options.isBinary()) {
+				Path file = options.getOutput().resolve(result.name.concat(".tspb"));
+				boolean tree = tour.getMstOrder().length == tour.size();
+				BinaryWriter.write(file, result.points, tree, result.metric, tour.getOrder(), tour.getCost());
+			} else {
+				String name = result.name.concat(".tour");
+				TsplibWriter.writeTour(options.getOutput().resolve(name), name, "Length ".concat(Double.toString(tour.getCost())), tour.getOrder());
+			}
+		} else {
+			StringBuilder line = new StringBuilder();
+			for (int city : tour.getOrder()) {
+				if (line.length() > 0)
+					line.append(' ');
+				line.append(city);
+			}
+			out.write(line.append('\n').toString());
+		}
+		return 0;
+	}
+
+	/*
+	 * Get name of instance from name of it's file without extension.
+	 * */
+	private static String name(Path file) {
+		String name = file.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		return dot > 0 ? name.substring(0, dot) : name;
+	}
+
+	private static String message(Throwable e) {
+		return e.getMessage() != null ? e.getMessage() : e.toString();
+	}
+
+	/*
+	 * Threads of executor don't keep program alive.
+	 * */
+	private static ThreadFactory daemonThreads() {
+		return runnable -> {
+			Thread thread = new Thread(runnable, "solver");
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
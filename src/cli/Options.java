@@ -0,0 +1,192 @@
+package cli;
+
+import solver.Algorithm;
+import solver.Metric;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Options of command line runner that are parsed from arguments of program.
+ * @author Majid Feyzi
+ * */
+public class Options {
+
+	// Usage of command line runner
+	public static final String USAGE = String.join("\n",
+			"Usage: java -cp <classes> cli.Batch [options] [file | directory | -]...",
+			"Solves TSP instances of files, all files of directories or standard input (-, default).",
+			"Files with .tsp extension are read as TSPLIB problems with coordinates or explicit weights,",
+			"files with .tspb extension are read as binary instances and files with .gr extension are read",
+			"as weighted graphs in DIMACS format. Problems of weights are solved with mst and not improved.",
+			"Other files have x and y coordinates of a city in each line, lines with three numbers are read",
+			"as index, x and y, and lines that start with # are ignored.",
+			"",
+			"Options:",
+			"  -a, --algorithm <name>   mst, christofides or hilbert that orders cities along Hilbert curve",
+			"                           without MST in O(n log n) time (default mst)",
+			"  -m, --metric <name>      euclidean, euc_2d, squared_euclidean, manhattan, man_2d, geo or haversine",
+			"                           (default edge weight type of TSPLIB problems, otherwise euclidean)",
+			"  -t, --threads <count>    count of instances solved concurrently, threads of MST",
+			"                           if there is only one instance (default count of processors)",
+			"  -i, --improve <ms>       time limit of local search for each instance, 0 to disable (default 0)",
+			"  -o, --output <directory> write tour of each instance to <name>.tour in TSPLIB format",
+			"                           in directory instead of standard output",
+			"  -f, --format <name>      format of output files, tsplib or binary that writes cities,",
+			"                           their MST and tour to <name>.tspb (default tsplib)",
+			"  -c, --costs              write only cost of instances to standard output",
+			"  -s, --start <city>       index of start city (default 0)",
+			"  -v, --metrics            write phase times, distance evaluations, nearest neighbour queries",
+			"                           and allocated bytes of each instance to standard error",
+			"  -k, --cache <directory>  take tours of instances that have been solved with the same options",
+			"                           from cache, and keep new tours in memory and in directory",
+			"  -h, --help               show this help");
+
+	// Algorithm and metric of solving instances, metric is null if it's not specified
+	private Algorithm algorithm = Algorithm.MST;
+	private Metric metric;
+
+	// Count of threads, time limit of improvement in milliseconds, start city
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long improve;
+	private int start;
+
+	// Output directory of tours, or null to write them to standard output, and true for binary output files
+	private Path output;
+	private boolean binary;
+	private boolean costsOnly;
+	private boolean metrics;
+	private boolean help;
+
+	// Directory of cached tours, or null if tours are not cached
+	private Path cache;
+
+	// Files and directories of instances, empty for standard input
+	private final List<String> inputs = new ArrayList<>();
+
+	/**
+	 * Parse arguments of program.
+	 * @param args arguments of program
+	 * @return parsed options
+	 * @throws IllegalArgumentException if an argument is not valid
+	 * */
+	public static Options parse(String[] args) {
+		Options options = new Options();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			switch (arg) {
+			case "-a":
+			case "--algorithm":
+				options.algorithm = Algorithm.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT));
+				break;
+			case "-m":
+			case "--metric":
+				options.metric = Metric.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT).replace('-', '_'));
+				break;
+			case "-t":
+			case "--threads":
+				options.threads = Integer.parseInt(value(args, ++i, arg));
+				if (options.threads < 1)
+					throw new IllegalArgumentException("Count of threads must be positive");
+				break;
+			case "-i":
+			case "--improve":
+				options.improve = Long.parseLong(value(args, ++i, arg));
+				break;
+			case "-o":
+			case "--output":
+				options.output = Paths.get(value(args, ++i, arg));
+				break;
+			case "-f":
+			case "--format":
+				String format = value(args, ++i, arg);
+				if (!format.equals("tsplib") && !format.equals("binary"))
+					throw new IllegalArgumentException("Unknown format " + format);
+				options.binary = format.equals("binary");
+				break;
+			case "-c":
+			case "--costs":
+				options.costsOnly = true;
+				break;
+			case "-v":
+			case "--metrics":
+				options.metrics = true;
+				break;
+			case "-k":
+			case "--cache":
+				options.cache = Paths.get(value(args, ++i, arg));
+				break;
+			case "-s":
+			case "--start":
+				options.start = Integer.parseInt(value(args, ++i, arg));
+				break;
+			case "-h":
+			case "--help":
+				options.help = true;
+				break;
+			default:
+				if (arg.startsWith("-") && !arg.equals("-"))
+					throw new IllegalArgumentException("Unknown option " + arg);
+				options.inputs.add(arg);
+			}
+		}
+		return options;
+	}
+
+	private static String value(String[] args, int i, String option) {
+		if (i >= args.length)
+			throw new IllegalArgumentException("Missing value of option " + option);
+		return args[i];
+	}
+
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	public Metric getMetric() {
+		return metric;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getImprove() {
+		return improve;
+	}
+
+	public int getStart() {
+		return start;
+	}
+
+	public Path getOutput() {
+		return output;
+	}
+
+	public boolean isBinary() {
+		return binary;
+	}
+
+	public boolean isCostsOnly() {
+		return costsOnly;
+	}
+
+	public boolean isMetrics() {
+		return metrics;
+	}
+
+	public Path getCache() {
+		return cache;
+	}
+
+	public boolean isHelp() {
+		return help;
+	}
+
+	public List<String> getInputs() {
+		return inputs;
+	}
+}
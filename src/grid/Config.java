@@ -1,5 +1,7 @@
 package grid;
 
+import solver.Algorithm;
+
 import java.awt.*;
 
 /**
@@ -19,7 +21,37 @@ public class Config {
     public final static String LABEL_FONT_NAME = "Arial";
     public final static int LABEL_FONT_SIZE = 10;
 
+    // Level of detail of graph behind answer, complete graph is drawn up to first limit of vertices,
+    // edges to nearest vertices up to second limit of visible vertices and no edge for more vertices,
+    // lengths of edges are shown only up to label limit of visible vertices
+    // and vertices are drawn as dots when more than dot limit of them are visible
+    public final static int COMPLETE_GRAPH_LIMIT = 200;
+    public final static int NEAREST_GRAPH_LIMIT = 20000;
+    public final static int NEAREST_EDGES = 4;
+    public final static int LABEL_LIMIT = 40;
+    public final static int DOT_LIMIT = 20000;
+
+    // Scale factor of each step of mouse wheel to zoom grid
+    public final static double ZOOM_FACTOR = 1.25;
+
     // Color of MST edges highlight and normal edges highlight
     public final static Color HIGHLIGHT_MST_EDGE_COLOR = new Color(209, 88, 88, 90);
     public final static Color HIGHLIGHT_EDGE_COLOR = Color.decode("#D15858");
+
+    // Algorithm that solves the problem
+    public final static Algorithm ALGORITHM = Algorithm.MST;
+
+    // Improve answer of algorithm with local search and time limit of improvement in milliseconds
+    public final static boolean IMPROVE_TOUR = true;
+    public final static long IMPROVE_TIME_LIMIT = 1000;
+
+    // Count of threads that solve problems in background and time limit of each solve in milliseconds
+    public final static int SOLVE_THREADS = 2;
+    public final static long SOLVE_TIME_LIMIT = 10000;
+
+    // Frames per second of replaying steps of answer automatically, minimum steps per second
+    // and maximum time of replay in milliseconds, replay speeds up for long answers to finish in this time
+    public final static int FRAME_RATE = 30;
+    public final static double REPLAY_SPEED = 2;
+    public final static long MAX_REPLAY_TIME = 10000;
 }
@@ -1,14 +1,20 @@
 package grid;
 
+import solver.SolveListener;
+
 /**
  * Context abstract class to notify grid changes.
+ * Context also listens to phases, costs, metrics and result of each solve of grid,
+ * result is sent after grid has shown the whole tour.
  * @author Majid Feyzi
+ * @see SolveListener
  * */
-public abstract class Context {
+public abstract class Context implements SolveListener {
 
     /**
-     * This method notify result of algorithm after finish.
-     * @param result result of algorithm
+     * This method notify cost of answer before and after improving it with local search.
+     * @param before cost of answer of algorithm
+     * @param after cost of improved answer
      * */
-    public void onSolveComplete(String result) {}
+    public void onTourImproved(double before, double after) {}
 }
@@ -1,5 +1,7 @@
 package grid;
 
+import solver.Metric;
+
 /**
  * One of the elements of TSP problem that user can draw it on grid.
  * Each edge can be displayed on grid only with start point and end point.
@@ -27,7 +29,7 @@ public class Edge {
 	 * Find distance between two points.
 	 * @return distance between start point and end point of edge.
 	 * */
-	public int distance() {
-		return (int)Math.sqrt(Math.pow(end.getX() - start.getX(), 2) + Math.pow(end.getY() - start.getY(), 2));
+	public double distance() {
+		return Metric.EUCLIDEAN.distance(start.getX(), start.getY(), end.getX(), end.getY());
 	}
 }
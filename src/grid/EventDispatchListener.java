@@ -0,0 +1,59 @@
+package grid;
+
+import solver.Phase;
+import solver.SolveListener;
+import solver.SolveMetrics;
+import solver.SolveResult;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Listener that forwards events of a solve that runs on another thread to event dispatch thread,
+ * so listener of user interface can change components safely.
+ * @author Majid Feyzi
+ * @see SolveListener
+ * */
+class EventDispatchListener implements SolveListener {
+
+	// Listener that receives events on event dispatch thread
+	private final SolveListener listener;
+
+	EventDispatchListener(SolveListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public void onPhaseComplete(Phase phase, long nanos) {
+		dispatch(() -> listener.onPhaseComplete(phase, nanos));
+	}
+
+	@Override
+	public void onCostChanged(double cost, long nanos) {
+		dispatch(() -> listener.onCostChanged(cost, nanos));
+	}
+
+	@Override
+	public void onMetricsComplete(SolveMetrics metrics) {
+		dispatch(() -> listener.onMetricsComplete(metrics));
+	}
+
+	@Override
+	public void onSolveComplete(SolveResult result) {
+		dispatch(() -> listener.onSolveComplete(result));
+	}
+
+	@Override
+	public void onSolveFailed(Throwable error) {
+		dispatch(() -> listener.onSolveFailed(error));
+	}
+
+	/*
+	 * Run event on event dispatch thread, directly if it's called on this thread.
+	 * */
+	private static void dispatch(Runnable event) {
+		if (SwingUtilities.isEventDispatchThread())
+			event.run();
+		else
+			SwingUtilities.invokeLater(event);
+	}
+}
@@ -2,6 +2,21 @@ package grid;
 
 import grid.history.Action;
 import grid.history.History;
+import solver.CountingMetric;
+import solver.DelaunayMst;
+import solver.HilbertCurve;
+import solver.ImprovedTourSolver;
+import solver.IncrementalMst;
+import solver.LocalSearch;
+import solver.NearestNeighbours;
+import solver.Metric;
+import solver.PointSet;
+import solver.SolveLog;
+import solver.SolveMetrics;
+import solver.SolveResult;
+import solver.SolveService;
+import solver.TourSolver;
+import solver.spatial.UniformGrid;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
@@ -9,21 +24,23 @@ import java.awt.Cursor;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Line2D;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.AbstractAction;
 import javax.swing.JComponent;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * Grid is a component that user can draw objects such as edge, vertex and etc on it.
@@ -39,44 +56,112 @@ public class Grid extends JComponent {
 	// Context or class that use this class
 	private final Context context;
 
-	// User specified graph vertices in plane
-	private final List<Vertex> vertices = new ArrayList<>();
-	
+	// User specified graph vertices in plane, with world coordinates that are shown through viewport
+	private final PointSet points = new PointSet();
+	private final Viewport viewport = new Viewport();
+
+	// Spatial index of vertices to find vertex under mouse, it keeps the same indices as points.
+	// Cells are sized to vertices after each bulk load, queries far from sparse vertices scan used cells
+	private UniformGrid index = new UniformGrid(Config.VERTEX_RADIUS * 2);
+
 	// Specify first vertex as start and end vertex of algorithm
-	private Vertex start;
-	
-	// List of vertices that picked as MST
-	private final List<Vertex> mst = new ArrayList<>();
+	private final int start = 0;
 	
-	// List of vertices that picked as answer in preorder of mst
-	private final List<Vertex> answer = new ArrayList<>();
+	// MST of vertices that is updated on adding and removing each vertex, so solver doesn't build it again
+	private final IncrementalMst mst = new IncrementalMst(Metric.EUCLIDEAN);
 
-	// Total cost of TSP answer
-	private int cost = 0;
+	// Build of MST in background after it becomes stale, null if there is no running build,
+	// and count of edits of vertices that shows whether vertices have changed while it was running
+	private CompletableFuture<PointSet> loading;
+	private int edits;
 
-	// Timer to solve problem automatically and step by step
+	// Service that solves problem in background, so user interface doesn't freeze while solving
+	private final SolveService service = new SolveService(Config.SOLVE_THREADS);
+
+	// Solve that is running in background, null if there is no running solve
+	private CompletableFuture<SolveResult> pending;
+
+	// Result of problem and replay of it's events that shows it step by step, null if it's not solved yet
+	private SolveResult result;
+	private Replay replay;
+
+	// Timer to replay answer automatically on event dispatch thread
 	private Timer timer;
 
-	// Answer edge counter
-	private int counter;
+	// Start time of automatic replay in nanoseconds and position of replay at that time, start is 0 before first frame
+	private long replayStart;
+	private int replayFrom;
+
+	// Layers of grid plane that are painted in this order, they are null until grid is drawn first time
+	private Layer graph, mstEdges, tourEdges, vertices;
 
-	// Grid plane to draw
-	private Graphics2D graphics;
-	private Image image;
+	// Strokes and font of drawing that are created once
+	private static final BasicStroke EDGE_STROKE = new BasicStroke(Config.EDGE_THICKNESS);
+	private static final BasicStroke HIGHLIGHTED_EDGE_STROKE = new BasicStroke(Config.HIGHLIGHTED_EDGE_THICKNESS);
+	private static final BasicStroke START_VERTEX_STROKE = new BasicStroke(4);
+	private static final BasicStroke DEFAULT_STROKE = new BasicStroke(1);
+	private static final Font LABEL_FONT = new Font(Config.LABEL_FONT_NAME, Font.PLAIN, Config.LABEL_FONT_SIZE);
+
+	// Buffer of nearest vertices query of new vertex
+	private final int[] nearest = new int[Config.NEAREST_EDGES + 1];
+
+	// Vertices that were inside grid on last redraw and their count, level of detail depends on this count
+	private int[] shown = new int[16];
+	private int visible;
+
+	// Mouse position on start of dragging and movement of mouse while dragging, layers are moved until mouse is released
+	private int pressX, pressY;
+	private int dragX, dragY;
+
+	// Largest coordinate of lines on screen that are drawn with integer coordinates
+	private static final double MAX_SCREEN = 1 << 20;
 
 	public Grid(Context context) {
 
 		this.context = context;
 		
-		// Implement mouse click and double click event
-		addMouseListener(new MouseAdapter() {
+		// Implement mouse click and double click event, and dragging to move world under grid
+		MouseAdapter mouse = new MouseAdapter() {
 			
 			@Override
 			public void mouseClicked(MouseEvent e) {
-				Vertex vertex = new Vertex(e.getX(), e.getY());
-				addVertex(vertex);
+
+				// Ignore clicks on an existing vertex to prevent overlapping vertices
+				if (vertexAt(e.getX(), e.getY()) < 0)
+					addVertex(viewport.toWorldX(e.getX()), viewport.toWorldY(e.getY()));
 			}
-		});
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				pressX = e.getX();
+				pressY = e.getY();
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				dragX = e.getX() - pressX;
+				dragY = e.getY() - pressY;
+				repaint();
+			}
+
+			@Override
+			public void mouseReleased(MouseEvent e) {
+				if (dragX != 0 || dragY != 0) {
+					viewport.pan(dragX, dragY);
+					dragX = dragY = 0;
+					redraw();
+				}
+			}
+
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				viewport.zoom(Math.pow(Config.ZOOM_FACTOR, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+				redraw();
+			}
+		};
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+		addMouseWheelListener(mouse);
 
 		// Implement key press event
 		getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "ctrlz");
@@ -86,16 +171,31 @@ public class Grid extends JComponent {
 				undo();
 			}
 		});
+		getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_HOME, 0), "home");
+		getActionMap().put("home", new AbstractAction() {
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				fit();
+			}
+		});
 	}
 
 	@Override
 	protected void paintComponent(Graphics g) {
-		if (image == null) {
-			image = createImage(getSize().width, getSize().height);
-			graphics = (Graphics2D) image.getGraphics();
-			clear();
+		if (graph == null)
+			resize();
+
+		// Layers are moved while dragging, so region that they don't cover is cleared
+		if (dragX != 0 || dragY != 0) {
+			g.setColor(Color.white);
+			g.fillRect(0, 0, getWidth(), getHeight());
 		}
-		g.drawImage(image, 0, 0, null);	
+
+		// Only dirty region of grid is in clip of graphics, so layers are painted only in this region
+		graph.paint(g, dragX, dragY);
+		mstEdges.paint(g, dragX, dragY);
+		tourEdges.paint(g, dragX, dragY);
+		vertices.paint(g, dragX, dragY);
 		setCursor(new Cursor(Cursor.CROSSHAIR_CURSOR));
 	}
 	
@@ -104,223 +204,616 @@ public class Grid extends JComponent {
 	 * */
 	public void clear() {
 		history.clear();
-		vertices.clear();
+		points.clear();
+		index = new UniformGrid(Config.VERTEX_RADIUS * 2);
 		mst.clear();
-		answer.clear();
+		loading = null;
+		forgetAnswer();
+		viewport.reset();
+		visible = 0;
 		
-		graphics.setPaint(Color.white);
-		graphics.fillRect(0, 0, getSize().width, getSize().height);
+		if (graph != null) {
+			graph.clear();
+			vertices.clear();
+		}
 		repaint();
 	}
 	
 	/**
 	 * Add vertices to canvas with specified coordinates on click.
 	 * By adding each new vertex, edges is drawing automatically, because TSP graph is a complete graph.
-	 * @param vertex vertex to show on plane
+	 * For many vertices only edges to nearest vertices or no edge are drawn, depending on level of detail.
+	 * @param vertex vertex to show on plane, with world coordinates
 	 * */
 	public void addVertex(Vertex vertex) {
+		addVertex(vertex.getX(), vertex.getY());
+	}
 
-		// Draw edge between new vertex and exist vertices
-		List<Vertex> temp = new ArrayList<>(vertices);
-		for (Vertex v : temp) {
-			Edge edge = new Edge(vertex, v);
-			drawEdge(edge);
+	/*
+	 * Add vertex with world coordinates and draw it and it's edges.
+	 * */
+	private void addVertex(double x, double y) {
+		add(x, y);
+		mst.addLast(points);
+		loadTree();
+		if (graph == null)
+			return;
+
+		// Level of detail changes at limits, so whole graph is drawn again
+		int n = points.size();
+		boolean inside = isInside(n - 1);
+		if (inside)
+			visible++;
+		if (n == Config.COMPLETE_GRAPH_LIMIT + 1 || inside && (visible == Config.NEAREST_GRAPH_LIMIT + 1 || visible == Config.LABEL_LIMIT + 1 || visible == Config.DOT_LIMIT + 1)) {
+			redrawAllGraphics();
+			return;
 		}
-		
-		graphics.setPaint(Color.black);
-		history.push(Action.AddVertex);
-		vertices.add(vertex);
-		graphics.fillOval(vertex.getX() - (Config.VERTEX_RADIUS / 2), vertex.getY() - (Config.VERTEX_RADIUS / 2), Config.VERTEX_RADIUS, Config.VERTEX_RADIUS);
 
-		if (vertices.size() == 1) {
-
-			// Keep first vertex as start vertex
-			start = vertex;
-		
-			// Highlight start vertex
-			highlightStartVertex(vertex);
+		// Draw edges between new vertex and exist vertices on graph layer, vertices layer is in front of them
+		boolean complete = n <= Config.COMPLETE_GRAPH_LIMIT;
+		int count = 0;
+		if (complete)
+			count = n - 1;
+		else if (visible <= Config.NEAREST_GRAPH_LIMIT)
+			count = index.nearest(x, y, nearest.length, nearest);
+		Graphics2D graphics = graph.getGraphics();
+		graphics.setPaint(Color.lightGray);
+		graphics.setStroke(EDGE_STROKE);
+		Rectangle dirty = bounds(n - 1, n - 1, Config.VERTEX_RADIUS + 5);
+		for (int k = 0; k < count; k++) {
+			int neighbour = complete ? k : nearest[k];
+			if (neighbour != n - 1) {
+				drawLine(graphics, n - 1, neighbour);
+				dirty.add(bounds(n - 1, neighbour, Config.EDGE_THICKNESS));
+			}
 		}
-		
-		repaint();
+		if (complete && visible <= Config.LABEL_LIMIT) {
+			for (int i = 0; i < n - 1; i++)
+				drawLabel(graphics, n - 1, i);
+			dirty.add(new Rectangle(0, 0, getWidth(), getHeight()));
+		}
+
+		drawVertex(vertices.getGraphics(), n - 1);
+		if (n == 1)
+			drawStartVertex(vertices.getGraphics(), points.getX(start), points.getY(start));
+		repaint(dirty);
+	}
+
+	/*
+	 * Add vertex to vertices of grid without drawing it and updating MST, MST becomes stale
+	 * if it's not updated and it's built in background by loadTree.
+	 * */
+	private void add(double x, double y) {
+		history.push(Action.AddVertex);
+		points.add(x, y);
+		index.add(x, y);
+		edits++;
+		forgetAnswer();
+	}
+
+	/*
+	 * Build MST of copy of vertices in background if it's stale, and load it on event dispatch thread
+	 * if vertices have not changed meanwhile, otherwise build it again. Solves that start before that
+	 * build the tree on their own thread.
+	 * */
+	private void loadTree() {
+		if (loading != null || !mst.isStale())
+			return;
+		PointSet copy = points.copy();
+		int version = edits;
+		CompletableFuture<PointSet> future = CompletableFuture.supplyAsync(() -> {
+			new DelaunayMst(Metric.EUCLIDEAN).build(copy, start, new int[copy.size()]);
+			return copy;
+		});
+		loading = future;
+		future.whenComplete((tree, error) -> SwingUtilities.invokeLater(() -> {
+			if (loading != future)
+				return;
+			loading = null;
+			if (error != null)
+				return;
+			if (version == edits)
+				mst.load(tree);
+			else
+				loadTree();
+		}));
 	}
 
 	/**
 	 * Draw edge using start and end vertex.
-	 * @param edge edge of graph to show on plane
+	 * @param edge edge of graph to show on plane, with world coordinates
 	 * */
 	public void drawEdge(Edge edge) {
+		Graphics2D graphics = graph.getGraphics();
 		graphics.setPaint(Color.lightGray);
-		graphics.setStroke(new BasicStroke(Config.EDGE_THICKNESS));
-		graphics.drawLine(edge.getStart().getX(), edge.getStart().getY(), edge.getEnd().getX(), edge.getEnd().getY());
-		
-		// Find middle of edge and show it length
-		int minx = Math.min(edge.getEnd().getX(), edge.getStart().getX());
-		int miny = Math.min(edge.getEnd().getY(), edge.getStart().getY());
-		int x = Math.abs(edge.getEnd().getX() - edge.getStart().getX()) / 2;
-		int y = Math.abs(edge.getEnd().getY() - edge.getStart().getY()) / 2;
+		graphics.setStroke(EDGE_STROKE);
+		drawLine(graphics, edge);
+		Vertex start = edge.getStart(), end = edge.getEnd();
+		drawLabel(graphics, (start.getX() + end.getX()) / 2.0, (start.getY() + end.getY()) / 2.0, edge.distance());
+		repaint();
+	}
+
+	/*
+	 * Show length of edge between two vertices in middle of it.
+	 * */
+	private void drawLabel(Graphics2D graphics, int a, int b) {
+		double distance = Metric.EUCLIDEAN.distance(points.getX(a), points.getY(a), points.getX(b), points.getY(b));
+		drawLabel(graphics, (points.getX(a) + points.getX(b)) / 2, (points.getY(a) + points.getY(b)) / 2, distance);
+	}
+
+	/*
+	 * Show length of edge at it's middle point with world coordinates, labels outside of grid are not drawn.
+	 * */
+	private void drawLabel(Graphics2D graphics, double x, double y, double distance) {
+		double sx = viewport.toScreenX(x), sy = viewport.toScreenY(y);
+		if (sx < 0 || sy < 0 || sx > getWidth() || sy > getHeight())
+			return;
 		graphics.setPaint(Color.gray);
-		graphics.setFont(new Font(Config.LABEL_FONT_NAME, Font.PLAIN, Config.LABEL_FONT_SIZE));
-		graphics.drawString(String.valueOf(edge.distance()), minx + x, miny + y);
-		
-		bringVerticesToFront();
+		graphics.setFont(LABEL_FONT);
+		graphics.drawString(String.valueOf(Math.round(distance)), (int) sx, (int) sy);
+	}
+
+	/*
+	 * Draw line between two vertices with current paint and stroke.
+	 * */
+	private void drawLine(Graphics2D graphics, int a, int b) {
+		drawLine(graphics, viewport.toScreenX(points.getX(a)), viewport.toScreenY(points.getY(a)), viewport.toScreenX(points.getX(b)), viewport.toScreenY(points.getY(b)));
+	}
+
+	/*
+	 * Draw line of edge with world coordinates with current paint and stroke.
+	 * */
+	private void drawLine(Graphics2D graphics, Edge edge) {
+		Vertex start = edge.getStart(), end = edge.getEnd();
+		drawLine(graphics, viewport.toScreenX(start.getX()), viewport.toScreenY(start.getY()), viewport.toScreenX(end.getX()), viewport.toScreenY(end.getY()));
+	}
+
+	/*
+	 * Draw line with screen coordinates, lines outside of grid and lines shorter than a pixel are not drawn.
+	 * */
+	private void drawLine(Graphics2D graphics, double x1, double y1, double x2, double y2) {
+		int margin = Config.HIGHLIGHTED_EDGE_THICKNESS;
+		if (Math.max(x1, x2) < -margin || Math.max(y1, y2) < -margin || Math.min(x1, x2) > getWidth() + margin || Math.min(y1, y2) > getHeight() + margin)
+			return;
+		int ix1 = (int) Math.floor(x1), iy1 = (int) Math.floor(y1), ix2 = (int) Math.floor(x2), iy2 = (int) Math.floor(y2);
+		if (ix1 == ix2 && iy1 == iy2)
+			return;
+
+		// Far end points don't fit in integers, so line is drawn as a shape that graphics clips
+		if (Math.abs(x1) > MAX_SCREEN || Math.abs(y1) > MAX_SCREEN || Math.abs(x2) > MAX_SCREEN || Math.abs(y2) > MAX_SCREEN)
+			graphics.draw(new Line2D.Double(x1, y1, x2, y2));
+		else
+			graphics.drawLine(ix1, iy1, ix2, iy2);
+	}
+
+	/*
+	 * Draw circle of vertex with black color, or a dot if there are many vertices in grid.
+	 * */
+	private void drawVertex(Graphics2D graphics, int i) {
+		int x = (int) Math.floor(viewport.toScreenX(points.getX(i))), y = (int) Math.floor(viewport.toScreenY(points.getY(i)));
+		graphics.setPaint(Color.black);
+		if (visible > Config.DOT_LIMIT)
+			graphics.fillRect(x, y, 2, 2);
+		else
+			graphics.fillOval(x - (Config.VERTEX_RADIUS / 2), y - (Config.VERTEX_RADIUS / 2), Config.VERTEX_RADIUS, Config.VERTEX_RADIUS);
+	}
+
+	/*
+	 * Check that vertex is drawn inside grid.
+	 * */
+	private boolean isInside(int i) {
+		double x = viewport.toScreenX(points.getX(i)), y = viewport.toScreenY(points.getY(i));
+		return x >= -Config.VERTEX_RADIUS && y >= -Config.VERTEX_RADIUS && x <= getWidth() + Config.VERTEX_RADIUS && y <= getHeight() + Config.VERTEX_RADIUS;
+	}
+
+	/*
+	 * Find bounds of line between two vertices with given thickness that must be repainted after drawing it,
+	 * bounds are limited to grid and they are empty if line is outside of grid.
+	 * */
+	private Rectangle bounds(int a, int b, int thickness) {
+		double x1 = viewport.toScreenX(points.getX(a)), y1 = viewport.toScreenY(points.getY(a));
+		double x2 = viewport.toScreenX(points.getX(b)), y2 = viewport.toScreenY(points.getY(b));
+		int minX = (int) Math.max(-thickness, Math.floor(Math.min(x1, x2)) - thickness);
+		int minY = (int) Math.max(-thickness, Math.floor(Math.min(y1, y2)) - thickness);
+		int maxX = (int) Math.min(getWidth() + thickness, Math.floor(Math.max(x1, x2)) + thickness);
+		int maxY = (int) Math.min(getHeight() + thickness, Math.floor(Math.max(y1, y2)) + thickness);
+		return new Rectangle(minX, minY, Math.max(maxX - minX + 1, 0), Math.max(maxY - minY + 1, 0));
 	}
 
 	/**
 	 * Highlight MST edge.
-	 * @param edge edge to be highlight
+	 * @param edge edge to be highlight, with world coordinates
 	 * */
 	public void highlightMstEdge(Edge edge) {
-		graphics.setPaint(Config.HIGHLIGHT_MST_EDGE_COLOR);
-		graphics.setStroke(new BasicStroke(Config.HIGHLIGHTED_EDGE_THICKNESS));
-		graphics.drawLine(edge.getStart().getX(), edge.getStart().getY(), edge.getEnd().getX(), edge.getEnd().getY());
-
-		bringVerticesToFront();
+		drawHighlight(mstEdges.getGraphics(), edge, Config.HIGHLIGHT_MST_EDGE_COLOR);
+		repaint();
 	}
 
 	/**
 	 * Highlight answer edge.
-	 * @param edge edge to be highlight
+	 * @param edge edge to be highlight, with world coordinates
 	 * */
 	public void highlightEdge(Edge edge) {
-		graphics.setPaint(Config.HIGHLIGHT_EDGE_COLOR);
-		graphics.setStroke(new BasicStroke(Config.HIGHLIGHTED_EDGE_THICKNESS));
-		graphics.drawLine(edge.getStart().getX(), edge.getStart().getY(), edge.getEnd().getX(), edge.getEnd().getY());
+		drawHighlight(tourEdges.getGraphics(), edge, Config.HIGHLIGHT_EDGE_COLOR);
+		repaint();
+	}
 
-		bringVerticesToFront();
+	/*
+	 * Draw highlighted edge.
+	 * */
+	private void drawHighlight(Graphics2D graphics, Edge edge, Color color) {
+		graphics.setPaint(color);
+		graphics.setStroke(HIGHLIGHTED_EDGE_STROKE);
+		drawLine(graphics, edge);
 	}
 
 	/**
 	 * Highlight start vertex with a border.
-	 * @param start vertex to be highlight
+	 * @param start vertex to be highlight, with world coordinates
 	 * */
 	public void highlightStartVertex(Vertex start) {
+		drawStartVertex(vertices.getGraphics(), start.getX(), start.getY());
+		repaint();
+	}
+
+	/*
+	 * Draw border of start vertex with world coordinates.
+	 * */
+	private void drawStartVertex(Graphics2D graphics, double x, double y) {
+		int sx = (int) Math.floor(viewport.toScreenX(x)), sy = (int) Math.floor(viewport.toScreenY(y));
 		graphics.setPaint(Config.HIGHLIGHT_EDGE_COLOR);
-		graphics.setStroke(new BasicStroke(4));
-		graphics.drawOval(start.getX() - (Config.VERTEX_RADIUS / 2) - 5, start.getY() - (Config.VERTEX_RADIUS / 2) - 5, Config.VERTEX_RADIUS + 10, Config.VERTEX_RADIUS + 10);
-		graphics.setStroke(new BasicStroke(1));
+		graphics.setStroke(START_VERTEX_STROKE);
+		graphics.drawOval(sx - (Config.VERTEX_RADIUS / 2) - 5, sy - (Config.VERTEX_RADIUS / 2) - 5, Config.VERTEX_RADIUS + 10, Config.VERTEX_RADIUS + 10);
+		graphics.setStroke(DEFAULT_STROKE);
 		graphics.setPaint(Color.black);
 	}
 
 	/*
-	 * Redraw all objects of the grid.
+	 * Redraw graph and vertices layers of the grid.
+	 * Only vertices inside grid and their edges are drawn, vertices are found with spatial index.
+	 * Graph behind answer is drawn with level of detail of count of visible vertices and each edge is drawn once.
 	 * */
 	private void redrawAllGraphics() {
+		if (graph == null)
+			return;
 		
 		// First, clear grid graphics 
-		graphics.setPaint(Color.white);
-		graphics.fillRect(0, 0, getSize().width, getSize().height);
-		
-		for (Vertex vertex : vertices) {
-			
-			// Redraw edges
-			for (Vertex p : vertices) {
-				if (vertex != p) {
-					graphics.setPaint(Color.lightGray);					
-					Edge edge = new Edge(vertex, p);
-					graphics.setStroke(new BasicStroke(Config.EDGE_THICKNESS));
-					graphics.drawLine(edge.getStart().getX(), edge.getStart().getY(), edge.getEnd().getX(), edge.getEnd().getY());
-
-					// Find middle of edge and show it length
-					int minx = Math.min(edge.getEnd().getX(), edge.getStart().getX());
-					int miny = Math.min(edge.getEnd().getY(), edge.getStart().getY());
-					int x = Math.abs(edge.getEnd().getX() - edge.getStart().getX()) / 2;
-					int y = Math.abs(edge.getEnd().getY() - edge.getStart().getY()) / 2;
-					graphics.setPaint(Color.gray);
-					graphics.setFont(new Font(Config.LABEL_FONT_NAME, Font.PLAIN, Config.LABEL_FONT_SIZE));
-					graphics.drawString(String.valueOf(edge.distance()), minx + x, miny + y);
+		graph.clear();
+		Graphics2D graphics = graph.getGraphics();
+		findVisible();
+
+		// Redraw edges
+		int n = points.size();
+		graphics.setPaint(Color.lightGray);
+		graphics.setStroke(EDGE_STROKE);
+		if (n <= Config.COMPLETE_GRAPH_LIMIT) {
+			for (int i = 0; i < n; i++)
+				for (int j = i + 1; j < n; j++)
+					drawLine(graphics, i, j);
+		} else if (visible <= Config.NEAREST_GRAPH_LIMIT) {
+
+			// Edge between two visible vertices that are nearest to each other is drawn only from larger vertex
+			Arrays.sort(shown, 0, visible);
+			int[][] neighbours = new int[visible][];
+			for (int s = 0; s < visible; s++) {
+				int i = shown[s];
+				neighbours[s] = Arrays.copyOf(nearest, index.nearest(points.getX(i), points.getY(i), nearest.length, nearest));
+			}
+			for (int s = 0; s < visible; s++) {
+				int i = shown[s];
+				for (int j : neighbours[s]) {
+					if (j == i)
+						continue;
+					int t = Arrays.binarySearch(shown, 0, visible, j);
+					if (t < 0 || i > j || !contains(neighbours[t], i))
+						drawLine(graphics, i, j);
 				}
 			}
 		}
+
+		// Find middle of each edge and show it length
+		if (n <= Config.COMPLETE_GRAPH_LIMIT && visible <= Config.LABEL_LIMIT)
+			for (int i = 0; i < n; i++)
+				for (int j = i + 1; j < n; j++)
+					drawLabel(graphics, i, j);
 		
 		// Redraw vertices in front of all objects
-		bringVerticesToFront();
+		drawVertices();
+		repaint();
 
 		// Change focus to grid
 		requestFocus();
 	}
 
+	/*
+	 * Find vertices that are drawn inside grid with spatial index.
+	 * */
+	private void findVisible() {
+		visible = 0;
+		double margin = Config.VERTEX_RADIUS / viewport.getScale();
+		index.range(viewport.toWorldX(0) - margin, viewport.toWorldY(0) - margin, viewport.toWorldX(getWidth()) + margin, viewport.toWorldY(getHeight()) + margin, i -> {
+			if (visible == shown.length)
+				shown = Arrays.copyOf(shown, visible * 2);
+			shown[visible++] = i;
+		});
+	}
+
+	/*
+	 * Redraw vertices layer with vertices that are inside grid.
+	 * */
+	private void drawVertices() {
+		vertices.clear();
+		Graphics2D graphics = vertices.getGraphics();
+		for (int s = 0; s < visible; s++)
+			drawVertex(graphics, shown[s]);
+
+		// Redraw and highlight start vertex
+		if (!points.isEmpty())
+			drawStartVertex(graphics, points.getX(start), points.getY(start));
+	}
+
+	private static boolean contains(int[] array, int value) {
+		for (int element : array)
+			if (element == value)
+				return true;
+		return false;
+	}
+
 	/**
 	 * Solve the problem and show result step by step.
+	 * Each step shows an event of solve, first events add MST edges, next events add answer edges
+	 * and last events exchange answer edges to improve it.
 	 * */
 	public void next() {
 
-		// First add start vertex to MST if is not in it
-		if (!mst.contains(start))
-			mst.add(start);
-		
-		// Keep remain vertices in a new list
-		List<Vertex> remains = new ArrayList<>(vertices);
-		remains.removeAll(mst);
-		
-		// If there is no remain vertex so MST has been completed
-		if (remains.size() > 0) {
-
-			// Find the next vertex with minimum distance from MST vertices
-			Edge next = null;
-			int min = 0;
-			for (Vertex mvertex : mst) {
-				for (Vertex vertex : remains) {
-					Edge edge = new Edge(mvertex, vertex);
-					int distance = edge.distance();
-					if (min == 0 || min > distance) {
-						min = distance;
-						next = edge;
-					}
-				}
+		// If there is no vertex there is nothing to solve
+		if (points.isEmpty()) {
+			stopTimer();
+			return;
+		}
+
+		// Solve problem once in background and show it's events in next steps
+		if (replay == null) {
+			solve();
+			return;
+		}
+
+		show(replay.getPosition() + 1);
+	}
+
+	/*
+	 * Show a frame of automatic replay, count of shown events depends on time from start of replay,
+	 * so replay keeps it's speed even if frames are late.
+	 * */
+	private void frame() {
+		if (points.isEmpty()) {
+			stopTimer();
+			return;
+		}
+		if (replay == null) {
+			solve();
+			return;
+		}
+
+		long now = System.nanoTime();
+		if (replayStart == 0) {
+			replayStart = now;
+			replayFrom = replay.getPosition();
+		}
+		int events = replay.getLog().size();
+		double speed = Math.max(Config.REPLAY_SPEED, events * 1000.0 / Config.MAX_REPLAY_TIME);
+		show(replayFrom + (int) Math.min(events, Math.ceil((now - replayStart) / 1e9 * speed)));
+	}
+
+	/*
+	 * Show events of replay until given position.
+	 * Added edges are drawn on their layer and only their bounds are repainted. Exchanged edges are shown by
+	 * clearing answer layer in bounds of changed edges and drawing answer edges that cross these bounds again.
+	 * */
+	private void show(int position) {
+		if (graph == null)
+			resize();
+		SolveLog log = replay.getLog();
+		position = Math.min(position, log.size());
+
+		// Answer edges of previous replay must be cleared when answer is shown again
+		if (replay.getPosition() == replay.getMstEvents() && replay.getPosition() < position) {
+			tourEdges.clear();
+			repaint();
+		}
+
+		Rectangle exchanged = null;
+		while (replay.getPosition() < position) {
+			int event = replay.next();
+			int a = log.getVertex(event, 0), b = log.getVertex(event, 1);
+			byte type = log.getType(event);
+			if (type == SolveLog.EXCHANGE) {
+				int c = log.getVertex(event, 2), d = log.getVertex(event, 3);
+				Rectangle bounds = bounds(a, b, Config.HIGHLIGHTED_EDGE_THICKNESS);
+				bounds.add(bounds(c, d, Config.HIGHLIGHTED_EDGE_THICKNESS));
+				bounds.add(bounds(a, c, Config.HIGHLIGHTED_EDGE_THICKNESS));
+				bounds.add(bounds(b, d, Config.HIGHLIGHTED_EDGE_THICKNESS));
+				if (exchanged == null)
+					exchanged = bounds;
+				else
+					exchanged.add(bounds);
+			} else {
+				Layer layer = type == SolveLog.MST_EDGE ? mstEdges : tourEdges;
+				Graphics2D graphics = layer.getGraphics();
+				graphics.setPaint(type == SolveLog.MST_EDGE ? Config.HIGHLIGHT_MST_EDGE_COLOR : Config.HIGHLIGHT_EDGE_COLOR);
+				graphics.setStroke(HIGHLIGHTED_EDGE_STROKE);
+				drawLine(graphics, a, b);
+				repaint(bounds(a, b, Config.HIGHLIGHTED_EDGE_THICKNESS));
 			}
-			
-			// Add next vertex to mst
-			if (next != null) {
-				mst.add(next.getEnd());
-				highlightMstEdge(next);
-				
-				// Add new vertex as child to his parent
-				List<Vertex> children = next.getStart().getChildren();
-				children.add(next.getEnd());
-				next.getStart().setChildren(children);
+		}
+		if (exchanged != null)
+			redrawTourEdges(exchanged);
+
+		if (replay.isDone()) {
+
+			// Send final result to context
+			if (result.getCost() > 0)
+				context.onSolveComplete(result);
+
+			// Stop timer to auto solve problem after finish solving
+			stopTimer();
+
+			// Keep MST to able user to show answer again
+			replay.rewind();
+		}
+	}
+
+	/*
+	 * Redraw answer edges of replay in a region of answer layer and repaint this region.
+	 * */
+	private void redrawTourEdges(Rectangle region) {
+		region = region.intersection(new Rectangle(0, 0, tourEdges.getWidth(), tourEdges.getHeight()));
+		if (region.isEmpty())
+			return;
+		tourEdges.clear(region);
+		Graphics2D graphics = tourEdges.getGraphics();
+		graphics.setClip(region);
+		graphics.setPaint(Config.HIGHLIGHT_EDGE_COLOR);
+		graphics.setStroke(HIGHLIGHTED_EDGE_STROKE);
+		for (int vertex = 0; vertex < points.size(); vertex++) {
+			for (int k = 0; k < 2; k++) {
+				int neighbour = replay.getNeighbour(vertex, k);
+				if (neighbour != PointSet.NONE && vertex < neighbour && region.intersects(bounds(vertex, neighbour, Config.HIGHLIGHTED_EDGE_THICKNESS)))
+					drawLine(graphics, vertex, neighbour);
 			}
-			
-		} else if (vertices.size() > 0) {
-			
-			// Clear answer 
-			answer.clear();
-			
-			// Get preorder of MST
-			preorder(start);
+		}
+		graphics.setClip(null);
+		repaint(region);
+	}
 
-			if (counter < answer.size() - 1) {
-				Edge edge = new Edge(answer.get(counter), answer.get(counter + 1));
-				cost += edge.distance();
-				highlightEdge(edge);
-				counter++;
-			} else {
-				// Draw vertex from answer finish vertex to start vertex
-				Edge edge = new Edge(answer.get(answer.size() - 1), start);
-				cost += edge.distance();
-				highlightEdge(edge);
-
-				// Send final result to context
-				if (cost > 0) {
-					context.onSolveComplete("Cost: " + cost);
-					cost = 0;
-				}
-				
-				// Stop timer to auto solve problem after finish solving
-				if (timer != null) {
-					timer.cancel();
-					timer = null;
-				}
-				
-				counter = 0;
+	/*
+	 * Redraw MST and answer layers with edges that replay has shown.
+	 * */
+	private void redrawReplay() {
+		mstEdges.clear();
+		tourEdges.clear();
+		if (replay != null) {
+			SolveLog log = replay.getLog();
+			Graphics2D graphics = mstEdges.getGraphics();
+			graphics.setStroke(HIGHLIGHTED_EDGE_STROKE);
+			graphics.setPaint(Config.HIGHLIGHT_MST_EDGE_COLOR);
+			for (int event = 0; event < Math.min(replay.getPosition(), replay.getMstEvents()); event++)
+				drawLine(graphics, log.getVertex(event, 0), log.getVertex(event, 1));
+			redrawTourEdges(new Rectangle(0, 0, tourEdges.getWidth(), tourEdges.getHeight()));
+		}
+		repaint();
+	}
+
+	/*
+	 * Solve copy of vertices of grid in background, improve it's answer and record it's events, then show first
+	 * event if timer is not running. Solve is ignored if vertices change before it's done.
+	 * */
+	private void solve() {
+		if (pending != null)
+			return;
+
+		// Solver of each solve has it's own metric to count distance evaluations of that solve
+		CountingMetric metric = new CountingMetric(Metric.EUCLIDEAN);
+		TourSolver solver = Config.ALGORITHM.create(metric, mst.snapshot());
+		if (Config.IMPROVE_TOUR)
+			solver = new ImprovedTourSolver(solver, new LocalSearch(metric, LocalSearch.DEFAULT_NEIGHBOURS, Config.IMPROVE_TIME_LIMIT, 0));
+
+		SolveMetrics metrics = new SolveMetrics(new EventDispatchListener(context));
+		metrics.watch(metric);
+		metrics.record(new SolveLog());
+		metrics.setDeadline(System.nanoTime() + Config.SOLVE_TIME_LIMIT * 1_000_000);
+		PointSet copy = points.copy();
+		CompletableFuture<SolveResult> future = service.submit(solver, copy, start, metrics);
+		pending = future;
+		future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+			if (pending != future)
+				return;
+			pending = null;
+			if (error != null) {
+				stopTimer();
+				context.onSolveFailed(error);
+				return;
 			}
-			
+			this.result = result;
+			this.replay = new Replay(result.getLog(), copy.size());
+			if (Config.IMPROVE_TOUR)
+				context.onTourImproved(result.getInitialCost(), result.getCost());
+			if (timer == null)
+				next();
+		}));
+	}
+
+	/*
+	 * Forget answer after vertices change and cancel solve that is running.
+	 * Answer is replayed from events of it's solve, so it's not updated by edits but solved again in background,
+	 * and only MST is kept incrementally.
+	 * */
+	private void forgetAnswer() {
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+		if (replay != null && replay.getPosition() > 0) {
+			mstEdges.clear();
+			tourEdges.clear();
+			repaint();
+		}
+		result = null;
+		replay = null;
+		replayStart = 0;
+	}
+
+	/**
+	 * Get result of last solve of vertices of grid.
+	 * @return result of solve, or null if vertices have changed after it or they are not solved yet
+	 * */
+	public SolveResult getResult() {
+		return result;
+	}
+
+	/**
+	 * Find vertex that is drawn under a point of grid.
+	 * @param x x coordinate of point on screen
+	 * @param y y coordinate of point on screen
+	 * @return index of nearest vertex under the point, or -1 if there is no vertex under it
+	 * */
+	public int vertexAt(int x, int y) {
+		double worldX = viewport.toWorldX(x), worldY = viewport.toWorldY(y);
+		int nearest = index.nearest(worldX, worldY);
+		if (nearest < 0)
+			return -1;
+		double dx = (points.getX(nearest) - worldX) * viewport.getScale(), dy = (points.getY(nearest) - worldY) * viewport.getScale();
+		return dx * dx + dy * dy <= Config.VERTEX_RADIUS * Config.VERTEX_RADIUS ? nearest : -1;
+	}
+
+	/**
+	 * Zoom and move world under grid to show all vertices.
+	 * */
+	public void fit() {
+		if (points.isEmpty()) {
+			viewport.reset();
 		} else {
-			
-			// Stop timer to auto solve problem after finish solving
-			if (timer != null) {
-				timer.cancel();
-				timer = null;
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < points.size(); i++) {
+				minX = Math.min(minX, points.getX(i));
+				maxX = Math.max(maxX, points.getX(i));
+				minY = Math.min(minY, points.getY(i));
+				maxY = Math.max(maxY, points.getY(i));
 			}
+			viewport.fit(minX, minY, maxX, maxY, getWidth(), getHeight(), Config.VERTEX_RADIUS * 2);
+		}
+		redraw();
+	}
+
+	/*
+	 * Stop timer to auto solve problem.
+	 * */
+	private void stopTimer() {
+		if (timer != null) {
+			timer.stop();
+			timer = null;
+			replayStart = 0;
 		}
 	}
 
@@ -332,10 +825,14 @@ public class Grid extends JComponent {
 
 			Action action = history.pop();
 			if (action == Action.AddVertex) {
-				if (vertices.size() > 0) {
+				if (points.size() > 0) {
 
 					// First remove vertex from graph
-					vertices.remove(vertices.size() - 1);
+					points.removeLast();
+					index.removeLast();
+					mst.removeLast();
+					edits++;
+					loadTree();
 				}
 			}
 			
@@ -345,8 +842,8 @@ public class Grid extends JComponent {
 			clear();
 		}
 
-		// Clear answer and queue to able user to solve problem after undo
-		mst.clear();
+		// Clear answer to able user to solve problem after undo
+		forgetAnswer();
 	}
 	
 	/**
@@ -354,20 +851,15 @@ public class Grid extends JComponent {
 	 * */
 	public void startAutoSolve() {
 		if (timer == null) {
-			timer = new Timer();
-			timer.schedule(new TimerTask() {
-				
-				@Override
-				public void run() {
-					next();
-				}
-			}, 0, 1000);
+			timer = new Timer(1000 / Config.FRAME_RATE, e -> frame());
+			timer.setInitialDelay(0);
+			timer.start();
 		}
 	}
 
 	/**
 	 * Generate random graph.
-	 * x and y and width and height specifies vertices scale on grid.
+	 * x and y and width and height specifies vertices scale in world, grid is zoomed to show all of them.
 	 * @param count count of vertices that must be generated
 	 * @param x distance from left
 	 * @param y distance from top
@@ -382,57 +874,68 @@ public class Grid extends JComponent {
 		// Second wee need create vertices
 		int counter = 1;
 		Random random = new Random();
+		PointSet generated = new PointSet(count);
+		UniformGrid seen = new UniformGrid(Config.VERTEX_RADIUS * 2);
 		while (counter <= count) {
 			int rx = x + random.nextInt(width - x);
 			int ry = y + random.nextInt(height - y);
-			Vertex vertex = new Vertex(rx, ry);
-			if (!vertices.contains(vertex)) {
-				addVertex(vertex);
+			int nearest = seen.nearest(rx, ry);
+			if (nearest < 0 || generated.getX(nearest) != rx || generated.getY(nearest) != ry) {
+				generated.add(rx, ry);
+				seen.add(rx, ry);
 				counter++;
 			}
 		}
 
+		// Vertices are added in order of Hilbert curve, so close vertices are close in memory of solvers
+		for (int i : HilbertCurve.order(generated))
+			add(generated.getX(i), generated.getY(i));
+
+		// Size cells of spatial index to extent of vertices instead of size of vertices on screen
+		index = new UniformGrid(points.xs(), points.ys(), points.size());
+
+		// Build MST of all vertices at once in background, so next vertex doesn't rebuild it
+		mst.addLast(points);
+		loadTree();
+
+		// Draw all vertices and edges at once
+		fit();
+
 		// Change focus to grid
 		requestFocus();
 	}
 	
-	/**
-	 * Get pre order of vertices in MST and add them into answer list to show on graph.
-	 * @param start start vertex of graph
-	 * */
-	public void preorder(Vertex start) {
-		answer.add(start);
-		for (Vertex child : start.getChildren())
-			preorder(child);
-	}
-	
 	/**
 	 * Bring vertices to front.
 	 * */
 	public void bringVerticesToFront() {
+		if (vertices == null)
+			return;
 
-		// Redraw vertices with black colors after edges to bring vertices to front
-		for (Vertex vertex : vertices) {
-
-			graphics.setPaint(Color.black);
-			graphics.fillOval(vertex.getX() - (Config.VERTEX_RADIUS / 2), vertex.getY() - (Config.VERTEX_RADIUS / 2), Config.VERTEX_RADIUS, Config.VERTEX_RADIUS);
-
-			// Redraw and highlight start vertex
-			if (vertex.equals(start))
-				highlightStartVertex(vertex);
-		}
-		
+		// Redraw vertices layer that is in front of edges
+		findVisible();
+		drawVertices();
 		repaint();
 	}
 
 	/**
-	 * To resize grid and recreate image in frame resize.
+	 * To resize grid and recreate layers in frame resize.
 	 * */
 	public void resize() {
-		image = createImage(getSize().width, getSize().height);
-		graphics = (Graphics2D) image.getGraphics();
-		graphics.drawImage(image, 0, 0, null);	
-		graphics.setStroke(new BasicStroke(Config.EDGE_THICKNESS));
+		graph = new Layer(getWidth(), getHeight(), Color.white);
+		mstEdges = new Layer(getWidth(), getHeight(), null);
+		tourEdges = new Layer(getWidth(), getHeight(), null);
+		vertices = new Layer(getWidth(), getHeight(), null);
+		redraw();
+	}
+
+	/*
+	 * Redraw all layers after grid or viewport changes.
+	 * */
+	private void redraw() {
+		if (graph == null)
+			return;
 		redrawAllGraphics();
+		redrawReplay();
 	}
 }
@@ -0,0 +1,81 @@
+package grid;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Cached image of one layer of grid, such as graph, MST, answer or vertices.
+ * Layers are drawn separately and painted on each other, so changing one layer doesn't redraw the others.
+ * @author Majid Feyzi
+ * */
+class Layer {
+
+	// Image of layer and it's graphics to draw on it
+	private final BufferedImage image;
+	private final Graphics2D graphics;
+
+	// Color of empty layer, or null for a transparent layer
+	private final Color background;
+
+	/**
+	 * Create an empty layer.
+	 * @param width width of layer
+	 * @param height height of layer
+	 * @param background color of empty layer, or null for a transparent layer
+	 * */
+	Layer(int width, int height, Color background) {
+		this.image = new BufferedImage(Math.max(width, 1), Math.max(height, 1), background == null ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		this.graphics = image.createGraphics();
+		this.background = background;
+		clear();
+	}
+
+	Graphics2D getGraphics() {
+		return graphics;
+	}
+
+	int getWidth() {
+		return image.getWidth();
+	}
+
+	int getHeight() {
+		return image.getHeight();
+	}
+
+	/**
+	 * Clear whole layer.
+	 * */
+	void clear() {
+		clear(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+	}
+
+	/**
+	 * Clear a region of layer.
+	 * @param region region to clear
+	 * */
+	void clear(Rectangle region) {
+		Composite composite = graphics.getComposite();
+		if (background == null) {
+			graphics.setComposite(AlphaComposite.Clear);
+		} else {
+			graphics.setPaint(background);
+		}
+		graphics.fillRect(region.x, region.y, region.width, region.height);
+		graphics.setComposite(composite);
+	}
+
+	/**
+	 * Paint layer on a graphics, only clip of graphics is painted.
+	 * @param g graphics to paint layer on it
+	 * @param x x coordinate of top left corner of layer on graphics
+	 * @param y y coordinate of top left corner of layer on graphics
+	 * */
+	void paint(Graphics g, int x, int y) {
+		g.drawImage(image, x, y, null);
+	}
+}
@@ -0,0 +1,116 @@
+package grid;
+
+import solver.PointSet;
+import solver.SolveLog;
+
+import java.util.Arrays;
+
+/**
+ * Replay of log of a solve, that keeps position of replay and tour edges that have been shown until this position.
+ * Grid draws events of replay, so solver runs once at full speed and showing it's steps costs nothing to it.
+ * @author Majid Feyzi
+ * @see SolveLog
+ * */
+class Replay {
+
+	// Log of events of solve
+	private final SolveLog log;
+
+	// Two tour neighbours of each vertex, or PointSet.NONE if they have not been shown yet
+	private final int[] neighbours;
+
+	// Count of MST events at start of log, and index of next event
+	private final int mstEvents;
+	private int position;
+
+	Replay(SolveLog log, int n) {
+		this.log = log;
+		this.neighbours = new int[2 * n];
+		Arrays.fill(neighbours, PointSet.NONE);
+		int m = 0;
+		while (m < log.size() && log.getType(m) == SolveLog.MST_EDGE)
+			m++;
+		this.mstEvents = m;
+	}
+
+	/**
+	 * Apply next event to tour edges.
+	 * @return index of applied event
+	 * */
+	int next() {
+		int event = position++;
+		int a = log.getVertex(event, 0), b = log.getVertex(event, 1);
+		switch (log.getType(event)) {
+		case SolveLog.TOUR_EDGE:
+			link(a, b);
+			break;
+		case SolveLog.EXCHANGE:
+			int c = log.getVertex(event, 2), d = log.getVertex(event, 3);
+			unlink(a, b);
+			unlink(c, d);
+			link(a, c);
+			link(b, d);
+			break;
+		default:
+		}
+		return event;
+	}
+
+	/**
+	 * Go back to end of MST events, so tour can be shown again.
+	 * */
+	void rewind() {
+		position = mstEvents;
+		Arrays.fill(neighbours, PointSet.NONE);
+	}
+
+	boolean isDone() {
+		return position == log.size();
+	}
+
+	int getPosition() {
+		return position;
+	}
+
+	int getMstEvents() {
+		return mstEvents;
+	}
+
+	SolveLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Get a tour neighbour of vertex that has been shown.
+	 * @param vertex index of vertex
+	 * @param k 0 or 1 for first or second neighbour
+	 * @return index of neighbour or PointSet.NONE
+	 * */
+	int getNeighbour(int vertex, int k) {
+		return neighbours[2 * vertex + k];
+	}
+
+	private void link(int a, int b) {
+		put(a, b);
+		put(b, a);
+	}
+
+	private void unlink(int a, int b) {
+		remove(a, b);
+		remove(b, a);
+	}
+
+	private void put(int a, int b) {
+		if (neighbours[2 * a] == PointSet.NONE)
+			neighbours[2 * a] = b;
+		else
+			neighbours[2 * a + 1] = b;
+	}
+
+	private void remove(int a, int b) {
+		if (neighbours[2 * a] == b)
+			neighbours[2 * a] = PointSet.NONE;
+		else if (neighbours[2 * a + 1] == b)
+			neighbours[2 * a + 1] = PointSet.NONE;
+	}
+}
@@ -1,20 +1,14 @@
 package grid;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * One of the elements of TSP problem that user can draw it on grid.
  * Each vertex can be displayed on grid only with x and y coordinates.
- * Each vertex has children too. children is vertex children in MST.
  * @author Majid Feyzi
  * */
 public class Vertex {
 
 	// Coordinate of vertex on grid
 	private final int x, y;
-	
-	private List<Vertex> children = new ArrayList<>();
 
 	public Vertex(int x, int y) {
 		this.x = x;
@@ -29,11 +23,18 @@ public class Vertex {
 		return y;
 	}
 
-	public List<Vertex> getChildren() {
-		return children;
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Vertex))
+			return false;
+		Vertex vertex = (Vertex) o;
+		return x == vertex.x && y == vertex.y;
 	}
 
-	public void setChildren(List<Vertex> children) {
-		this.children = children;
+	@Override
+	public int hashCode() {
+		return 31 * x + y;
 	}
 }
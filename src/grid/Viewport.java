@@ -0,0 +1,86 @@
+package grid;
+
+/**
+ * Transform between world coordinates of vertices and screen coordinates of grid.
+ * Screen point (sx, sy) shows world point (x + sx / scale, y + sy / scale), so zooming changes scale
+ * and panning changes world point at top left corner of grid.
+ * @author Majid Feyzi
+ * */
+class Viewport {
+
+	// Bounds of scale, so coordinates stay finite after zooming many times
+	private static final double MIN_SCALE = 1e-9, MAX_SCALE = 1e9;
+
+	// World point at top left corner of grid and pixels per world unit
+	private double x, y;
+	private double scale = 1;
+
+	double toScreenX(double worldX) {
+		return (worldX - x) * scale;
+	}
+
+	double toScreenY(double worldY) {
+		return (worldY - y) * scale;
+	}
+
+	double toWorldX(double screenX) {
+		return x + screenX / scale;
+	}
+
+	double toWorldY(double screenY) {
+		return y + screenY / scale;
+	}
+
+	double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Zoom in or out around a screen point, so world point under it doesn't move.
+	 * @param factor factor of scale, more than 1 to zoom in
+	 * @param screenX x coordinate of fixed point on screen
+	 * @param screenY y coordinate of fixed point on screen
+	 * */
+	void zoom(double factor, double screenX, double screenY) {
+		double worldX = toWorldX(screenX), worldY = toWorldY(screenY);
+		scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+		x = worldX - screenX / scale;
+		y = worldY - screenY / scale;
+	}
+
+	/**
+	 * Move world under grid with mouse.
+	 * @param dx movement on screen in x direction
+	 * @param dy movement on screen in y direction
+	 * */
+	void pan(double dx, double dy) {
+		x -= dx / scale;
+		y -= dy / scale;
+	}
+
+	/**
+	 * Show a region of world in middle of grid with the largest scale that it fits in.
+	 * @param minX left bound of region
+	 * @param minY top bound of region
+	 * @param maxX right bound of region
+	 * @param maxY bottom bound of region
+	 * @param width width of grid
+	 * @param height height of grid
+	 * @param padding empty space around region on screen
+	 * */
+	void fit(double minX, double minY, double maxX, double maxY, int width, int height, int padding) {
+		double regionWidth = Math.max(maxX - minX, 1), regionHeight = Math.max(maxY - minY, 1);
+		double fit = Math.min((width - 2.0 * padding) / regionWidth, (height - 2.0 * padding) / regionHeight);
+		scale = fit > 0 ? Math.max(MIN_SCALE, Math.min(MAX_SCALE, fit)) : 1;
+		x = (minX + maxX) / 2 - width / 2.0 / scale;
+		y = (minY + maxY) / 2 - height / 2.0 / scale;
+	}
+
+	/**
+	 * Show world without zoom with origin at top left corner of grid.
+	 * */
+	void reset() {
+		x = y = 0;
+		scale = 1;
+	}
+}
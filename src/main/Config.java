@@ -25,6 +25,9 @@ public class Config {
     public final static int BUTTON_WIDTH = 150;
     public final static int BUTTON_HEIGHT = 45;
 
+    // Area around each random vertex in world, region of random vertices grows to keep this area
+    public final static double RANDOM_VERTEX_AREA = 40 * 40;
+
     // Color of theme
     public final static Color THEME_COLOR = Color.decode("#D15858");
 }
@@ -28,6 +28,10 @@ public class Help {
 			"Sets Modifying:<br />" +
 			"If you want change the location of vertecies you can undo your action and change it by Ctrl+Z .<br />" +
 			"<br />" +
+			"<b>Zoom and move</b>:<br />" +
+			"To zoom in or out, scroll the mouse wheel on the plane. To move the plane, drag it with mouse.<br />" +
+			"To show all vertices again, press Home key.<br />" +
+			"<br />" +
 			"<b>Running the algorithm</b>:<br />" +
 			"After drawing graph, you can run algorithm step by step, by clicking on Next step button.<br />" +
 			"To run program automatically, Just click on Run button.<br />" +
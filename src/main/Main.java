@@ -5,6 +5,8 @@ import javax.swing.*;
 
 import grid.Context;
 import grid.Grid;
+import solver.SolveMetrics;
+import solver.SolveResult;
 
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
@@ -30,6 +32,12 @@ public class Main extends Context {
 	private JButton randomButton;
 	private JButton exitButton;
 
+	// Description of improvement of last answer
+	private String improvement = "";
+
+	// Description of metrics of last solve
+	private String metrics = "";
+
 	/**
 	 * Launch the application.
 	 */
@@ -114,9 +122,11 @@ public class Main extends Context {
 			try {
 				int count = Integer.parseInt(JOptionPane.showInputDialog("Please insert number of points"));
 
+				// Region of vertices grows with their count, so vertices don't overlap and grid is zoomed out to show them
 				int padding = 100;
-				int width = grid.getWidth() - padding;
-				int height = grid.getHeight() - padding;
+				double grow = Math.max(1, Math.sqrt(count * Config.RANDOM_VERTEX_AREA / ((double) grid.getWidth() * grid.getHeight())));
+				int width = (int) ((grid.getWidth() - padding) * grow);
+				int height = (int) ((grid.getHeight() - padding) * grow);
 				grid.generateRandomGraph(count, padding, padding, width, height);
 
 			} catch (Exception ignored) {}
@@ -154,8 +164,25 @@ public class Main extends Context {
 	}
 
 	@Override
-	public void onSolveComplete(String result) {
-		JLabel label = new JLabel("<html>" + result.replace("\n", "<br>") + "</html>");
+	public void onTourImproved(double before, double after) {
+		improvement = String.format("\nCost before improvement: %.2f", before);
+	}
+
+	@Override
+	public void onMetricsComplete(SolveMetrics metrics) {
+		this.metrics = "\n" + metrics.toString().replace(", ", "\n");
+	}
+
+	@Override
+	public void onSolveFailed(Throwable error) {
+		JOptionPane.showMessageDialog(null, "Solve failed: " + error.getMessage(), "Result", JOptionPane.ERROR_MESSAGE);
+	}
+
+	@Override
+	public void onSolveComplete(SolveResult result) {
+		String text = String.format("Cost: %.2f\nLower bound: %.2f\nGap: %.1f%%", result.getCost(), result.getLowerBound(), result.getGap() * 100);
+		text += improvement + metrics;
+		JLabel label = new JLabel("<html>" + text.replace("\n", "<br>") + "</html>");
 		label.setFont(new Font(Config.FONT_NAME, Font.PLAIN, Config.FONT_SIZE));
 		JOptionPane.showMessageDialog(null, label, "Result", JOptionPane.INFORMATION_MESSAGE);
 	}
@@ -0,0 +1,55 @@
+package solver;
+
+/**
+ * Algorithms that solve TSP problem.
+ * @author Majid Feyzi
+ * */
+public enum Algorithm {
+
+	/**
+	 * 2-approximation, preorder of MST.
+	 * */
+	MST {
+		@Override
+		public TourSolver create(DistanceMetric metric, MstBuilder builder) {
+			return new MstTourSolver(metric, builder);
+		}
+	},
+
+	/**
+	 * 1.5-approximation of Christofides, MST plus matching of odd vertices.
+	 * */
+	CHRISTOFIDES {
+		@Override
+		public TourSolver create(DistanceMetric metric, MstBuilder builder) {
+			return new ChristofidesSolver(metric, builder, ChristofidesSolver.EXACT_MATCHING_LIMIT);
+		}
+	},
+
+	/**
+	 * Order of Hilbert curve in O(n log n) time without MST, baseline and initial tour of local search.
+	 * */
+	HILBERT {
+		@Override
+		public TourSolver create(DistanceMetric metric, MstBuilder builder) {
+			return new HilbertTourSolver(metric);
+		}
+	};
+
+	/**
+	 * Create solver of algorithm with default builder of MST for metric.
+	 * @param metric metric of distance between cities
+	 * @return solver
+	 * */
+	public TourSolver create(DistanceMetric metric) {
+		return create(metric, metric.isEuclidean() ? new DelaunayMst(metric) : new PrimMst(metric));
+	}
+
+	/**
+	 * Create solver of algorithm.
+	 * @param metric metric of distance between cities
+	 * @param builder builder of MST that algorithm starts from
+	 * @return solver
+	 * */
+	public abstract TourSolver create(DistanceMetric metric, MstBuilder builder);
+}
@@ -0,0 +1,273 @@
+package solver;
+
+import java.util.Arrays;
+
+import solver.spatial.KdTree;
+
+/**
+ * 1.5-approximation solver of TSP problem with Christofides algorithm.
+ * It builds MST of cities, adds minimum weight perfect matching of vertices that have odd degree in MST,
+ * finds Eulerian circuit of this multigraph and shortcuts repeated cities of circuit to get the tour.
+ * Matching is found exactly with blossom algorithm that takes O(m^3) time for m odd vertices, so
+ * for many odd vertices a greedy matching over nearest neighbours is used instead.
+ * @author Majid Feyzi
+ * @see WeightedMatching
+ * */
+public class ChristofidesSolver implements TourSolver {
+
+	// Default maximum count of odd vertices that are matched exactly
+	public static final int EXACT_MATCHING_LIMIT = 300;
+
+	// Count of nearest neighbours of each odd vertex that greedy matching considers
+	private static final int GREEDY_NEIGHBOURS = 10;
+
+	// Largest weight of edges of exact matching, distances are scaled to integers in this range
+	private static final double MATCHING_SCALE = 1L << 31;
+
+	// Metric of distance between cities
+	private final DistanceMetric metric;
+
+	// Builder of MST that tour is built from
+	private final MstBuilder builder;
+
+	// Maximum count of odd vertices that are matched exactly
+	private final int exactMatchingLimit;
+
+	public ChristofidesSolver(DistanceMetric metric) {
+		this(metric, metric.isEuclidean() ? new DelaunayMst(metric) : new PrimMst(metric), EXACT_MATCHING_LIMIT);
+	}
+
+	public ChristofidesSolver(DistanceMetric metric, MstBuilder builder, int exactMatchingLimit) {
+		this.metric = metric;
+		this.builder = builder;
+		this.exactMatchingLimit = exactMatchingLimit;
+	}
+
+	@Override
+	public Tour solve(PointSet points, int start, SolveMetrics metrics) {
+		int n = points.size();
+		if (n == 0)
+			return new Tour(new int[0], new int[0], 0, 0);
+
+		metrics.begin(Phase.MST, n);
+		int[] mstOrder = new int[n];
+		double mstCost = builder.build(points, start, mstOrder);
+		metrics.end(Phase.MST);
+		if (metrics.getLog() != null)
+			metrics.getLog().mst(points, mstOrder);
+
+		// Find vertices with odd degree in MST
+		int[] degree = new int[n];
+		for (int v = 0; v < n; v++) {
+			if (points.getParent(v) != PointSet.NONE) {
+				degree[v]++;
+				degree[points.getParent(v)]++;
+			}
+		}
+		int m = 0;
+		for (int v = 0; v < n; v++)
+			if ((degree[v] & 1) == 1)
+				m++;
+		int[] odd = new int[m];
+		m = 0;
+		for (int v = 0; v < n; v++)
+			if ((degree[v] & 1) == 1)
+				odd[m++] = v;
+
+		metrics.begin(Phase.MATCHING, n);
+		int[] mate = m <= exactMatchingLimit ? exactMatching(points, odd) : greedyMatching(points, odd, metrics);
+		metrics.end(Phase.MATCHING);
+
+		// Multigraph of MST edges and matching edges
+		metrics.begin(Phase.TRAVERSAL, n);
+		int edges = n - 1 + m / 2;
+		int[] from = new int[edges], to = new int[edges];
+		int e = 0;
+		for (int v = 0; v < n; v++) {
+			if (points.getParent(v) != PointSet.NONE) {
+				from[e] = v;
+				to[e++] = points.getParent(v);
+			}
+		}
+		for (int i = 0; i < m; i++) {
+			if (i < mate[i]) {
+				from[e] = odd[i];
+				to[e++] = odd[mate[i]];
+			}
+		}
+
+		int[] order = shortcut(eulerCircuit(n, from, to, start), n);
+		double cost = MstTourSolver.cost(points, order, metric);
+		metrics.end(Phase.TRAVERSAL);
+		metrics.cost(cost);
+		if (metrics.getLog() != null)
+			metrics.getLog().tour(order);
+		return new Tour(order, mstOrder, cost, mstCost);
+	}
+
+	/*
+	 * Find minimum weight perfect matching of odd vertices with blossom algorithm.
+	 * Return index of mate of each odd vertex in odd array.
+	 * */
+	private int[] exactMatching(PointSet points, int[] odd) {
+		int m = odd.length;
+		double[] x = points.xs(), y = points.ys();
+		double max = 0;
+		for (int i = 0; i < m; i++)
+			for (int j = i + 1; j < m; j++)
+				max = Math.max(max, distance(x, y, odd[i], odd[j]));
+		double scale = max > 0 ? MATCHING_SCALE / max : 1;
+		return WeightedMatching.minimumPerfect(m, (i, j) -> Math.round(distance(x, y, odd[i], odd[j]) * scale));
+	}
+
+	/*
+	 * Find a perfect matching of odd vertices greedily by picking shortest edges between nearest neighbours first,
+	 * and match remaining vertices to their nearest remaining vertex.
+	 * Return index of mate of each odd vertex in odd array.
+	 * */
+	private int[] greedyMatching(PointSet points, int[] odd, SolveMetrics metrics) {
+		int m = odd.length;
+		double[] x = new double[m], y = new double[m];
+		for (int i = 0; i < m; i++) {
+			x[i] = points.getX(odd[i]);
+			y[i] = points.getY(odd[i]);
+		}
+
+		// Sort candidate edges between nearest neighbours by their length
+		int[][] neighbours = NearestNeighbours.find(x, y, m, GREEDY_NEIGHBOURS, metric);
+		metrics.countQueries(m);
+		int k = m > 1 ? neighbours[0].length : 0;
+		int[] from = new int[m * k], to = new int[m * k];
+		double[] keys = new double[m * k];
+		int[] edges = new int[m * k];
+		for (int i = 0, e = 0; i < m; i++) {
+			for (int j : neighbours[i]) {
+				from[e] = i;
+				to[e] = j;
+				keys[e] = metric.key(x[i], y[i], x[j], y[j]);
+				edges[e] = e;
+				e++;
+			}
+		}
+		IndexSort.sort(edges, keys, 0, edges.length - 1);
+
+		int[] mate = new int[m];
+		Arrays.fill(mate, -1);
+		for (int e : edges) {
+			if (mate[from[e]] == -1 && mate[to[e]] == -1) {
+				mate[from[e]] = to[e];
+				mate[to[e]] = from[e];
+			}
+		}
+
+		// Match remaining vertices to nearest remaining vertex
+		int remain = 0;
+		int[] remaining = new int[m];
+		for (int i = 0; i < m; i++)
+			if (mate[i] == -1)
+				remaining[remain++] = i;
+		if (metric.isEuclidean()) {
+
+			// Find nearest remaining vertex with a k-d tree that matched vertices are removed from
+			KdTree tree = new KdTree(x, y, m);
+			for (int i = 0; i < m; i++)
+				if (mate[i] != -1)
+					tree.remove(i);
+			for (int r = 0; r < remain; r++) {
+				int a = remaining[r];
+				if (tree.isRemoved(a))
+					continue;
+				tree.remove(a);
+				int b = tree.nearest(x[a], y[a]);
+				metrics.countQueries(1);
+				tree.remove(b);
+				mate[a] = b;
+				mate[b] = a;
+			}
+			return mate;
+		}
+		boolean[] matched = new boolean[remain];
+		for (int a = 0; a < remain; a++) {
+			if (matched[a])
+				continue;
+			int best = -1;
+			double min = Double.POSITIVE_INFINITY;
+			for (int b = a + 1; b < remain; b++) {
+				if (matched[b])
+					continue;
+				double key = metric.key(x[remaining[a]], y[remaining[a]], x[remaining[b]], y[remaining[b]]);
+				if (key < min) {
+					min = key;
+					best = b;
+				}
+			}
+			matched[a] = matched[best] = true;
+			mate[remaining[a]] = remaining[best];
+			mate[remaining[best]] = remaining[a];
+		}
+		return mate;
+	}
+
+	/*
+	 * Find Eulerian circuit of connected multigraph with even degrees using iterative Hierholzer algorithm.
+	 * */
+	private int[] eulerCircuit(int n, int[] from, int[] to, int start) {
+		int edges = from.length;
+
+		// Edges of each vertex are in range first[v] to first[v + 1] of adjacency array
+		int[] first = new int[n + 1];
+		for (int e = 0; e < edges; e++) {
+			first[from[e] + 1]++;
+			first[to[e] + 1]++;
+		}
+		for (int v = 0; v < n; v++)
+			first[v + 1] += first[v];
+		int[] adjacency = new int[2 * edges];
+		int[] next = new int[n];
+		for (int e = 0; e < edges; e++) {
+			adjacency[first[from[e]] + next[from[e]]++] = e;
+			adjacency[first[to[e]] + next[to[e]]++] = e;
+		}
+		System.arraycopy(first, 0, next, 0, n);
+
+		boolean[] used = new boolean[edges];
+		int[] stack = new int[edges + 1];
+		int[] circuit = new int[edges + 1];
+		int top = 0, size = 0;
+		stack[top++] = start;
+		while (top > 0) {
+			int v = stack[top - 1];
+			while (next[v] < first[v + 1] && used[adjacency[next[v]]])
+				next[v]++;
+			if (next[v] == first[v + 1]) {
+				circuit[size++] = v;
+				top--;
+			} else {
+				int e = adjacency[next[v]++];
+				used[e] = true;
+				stack[top++] = from[e] == v ? to[e] : from[e];
+			}
+		}
+		return Arrays.copyOf(circuit, size);
+	}
+
+	/*
+	 * Skip repeated cities of circuit.
+	 * */
+	private int[] shortcut(int[] circuit, int n) {
+		boolean[] visited = new boolean[n];
+		int[] order = new int[n];
+		int size = 0;
+		for (int v : circuit) {
+			if (!visited[v]) {
+				visited[v] = true;
+				order[size++] = v;
+			}
+		}
+		return order;
+	}
+
+	private double distance(double[] x, double[] y, int a, int b) {
+		return metric.distance(x[a], y[a], x[b], y[b]);
+	}
+}
@@ -0,0 +1,69 @@
+package solver;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metric that counts evaluations of another metric.
+ * Each distance or key is one evaluation and bulk methods count one evaluation for each point.
+ * Counting is thread safe, so it can be used by parallel builders, but it adds a little cost to each evaluation.
+ * @author Majid Feyzi
+ * @see SolveMetrics
+ * */
+public class CountingMetric implements DistanceMetric {
+
+	// Metric that evaluations are delegated to
+	private final DistanceMetric metric;
+
+	// Count of evaluations
+	private final LongAdder count = new LongAdder();
+
+	public CountingMetric(DistanceMetric metric) {
+		this.metric = metric;
+	}
+
+	@Override
+	public double distance(double x1, double y1, double x2, double y2) {
+		count.increment();
+		return metric.distance(x1, y1, x2, y2);
+	}
+
+	@Override
+	public double key(double x1, double y1, double x2, double y2) {
+		count.increment();
+		return metric.key(x1, y1, x2, y2);
+	}
+
+	@Override
+	public double toDistance(double key) {
+		return metric.toDistance(key);
+	}
+
+	@Override
+	public void distances(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+		count.add(to - from);
+		metric.distances(x, y, xs, ys, from, to, out);
+	}
+
+	@Override
+	public void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+		count.add(to - from);
+		metric.keys(x, y, xs, ys, from, to, out);
+	}
+
+	@Override
+	public boolean isEuclidean() {
+		return metric.isEuclidean();
+	}
+
+	/**
+	 * Get count of evaluations from creation of metric.
+	 * @return count of evaluations
+	 * */
+	public long getCount() {
+		return count.sum();
+	}
+
+	public DistanceMetric getMetric() {
+		return metric;
+	}
+}
@@ -0,0 +1,480 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Delaunay triangulation of points in plane.
+ * It uses sweep hull algorithm: points are added in order of distance from center of a seed triangle,
+ * each new point is connected to visible edges of convex hull and then triangles are legalized by flipping edges.
+ * Convex hull is searched with a hash of angles, so triangulation takes O(n log n) time in practice.
+ * Triangles are kept as half edges: half edge e belongs to triangle e / 3, starts from point triangles[e]
+ * and it's twin half edge in adjacent triangle is halfedges[e], or -1 if e is on convex hull.
+ * @author Majid Feyzi
+ * */
+public class Delaunay {
+
+	// Tolerance to detect near duplicate points
+	private static final double EPSILON = Math.ulp(1.0);
+
+	// Distance from line relative to length of line that points within it are taken as collinear
+	private static final double COLLINEAR_TOLERANCE = 1e-12;
+
+	// Points of triangulation
+	private final double[] x, y;
+	private final int n;
+
+	// Half edges of triangles
+	private final int[] triangles;
+	private final int[] halfedges;
+	private int trianglesLength;
+
+	// Convex hull as a linked list of points and hash of it's points by angle from center
+	private final int[] hullPrev, hullNext, hullTri, hullHash;
+	private final int hashSize;
+	private int hullStart;
+	private double centerX, centerY;
+
+	// Points that have been skipped as duplicate of another point, or -1
+	private final int[] duplicateOf;
+
+	// Points in order of sweep, it's order of points on the line if all points are collinear
+	private final int[] ids;
+	private boolean collinear;
+
+	// Stack of edges to legalize
+	private final int[] edgeStack = new int[512];
+
+	/**
+	 * Triangulate first n points of coordinates arrays.
+	 * @param x x coordinates of points
+	 * @param y y coordinates of points
+	 * @param n count of points
+	 * */
+	public Delaunay(double[] x, double[] y, int n) {
+		this.x = x;
+		this.y = y;
+		this.n = n;
+
+		int maxTriangles = Math.max(2 * n - 5, 0);
+		triangles = new int[maxTriangles * 3];
+		halfedges = new int[maxTriangles * 3];
+
+		hashSize = (int) Math.ceil(Math.sqrt(n));
+		hullPrev = new int[n];
+		hullNext = new int[n];
+		hullTri = new int[n];
+		hullHash = new int[Math.max(hashSize, 1)];
+		duplicateOf = new int[n];
+		ids = new int[n];
+
+		Arrays.fill(duplicateOf, -1);
+		if (n > 0)
+			triangulate();
+	}
+
+	/*
+	 * Build triangulation of points.
+	 * */
+	private void triangulate() {
+		double[] distances = new double[n];
+
+		// Find bounding box of points
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+			ids[i] = i;
+		}
+		double cx = (minX + maxX) / 2, cy = (minY + maxY) / 2;
+
+		// Pick seed point close to the center, nearest point to it and the point that makes smallest circumcircle
+		int i0 = 0, i1 = 0, i2 = 0;
+		double minDistance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double d = squaredDistance(cx, cy, x[i], y[i]);
+			if (d < minDistance) {
+				i0 = i;
+				minDistance = d;
+			}
+		}
+		minDistance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			if (i == i0)
+				continue;
+			double d = squaredDistance(x[i0], y[i0], x[i], y[i]);
+			if (d < minDistance && d > 0) {
+				i1 = i;
+				minDistance = d;
+			}
+		}
+		double minRadius = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			if (i == i0 || i == i1)
+				continue;
+			double r = circumradius(x[i0], y[i0], x[i1], y[i1], x[i], y[i]);
+			if (r < minRadius) {
+				i2 = i;
+				minRadius = r;
+			}
+		}
+
+		// If there is no triangle, or points are on a line within rounding errors, keep order of points on the line.
+		// Points are sorted by their projection on direction of the line from seed to the farthest point
+		if (minRadius == Double.POSITIVE_INFINITY || isNearlyCollinear(i0)) {
+			int far = farthest(i0);
+			double dx = x[far] - x[i0], dy = y[far] - y[i0];
+			for (int i = 0; i < n; i++)
+				distances[i] = (x[i] - x[i0]) * dx + (y[i] - y[i0]) * dy;
+			IndexSort.sort(ids, distances, 0, n - 1);
+			collinear = true;
+			return;
+		}
+
+		// Make seed triangle counter clockwise
+		if (orient(x[i0], y[i0], x[i1], y[i1], x[i2], y[i2])) {
+			int i = i1;
+			i1 = i2;
+			i2 = i;
+		}
+
+		// Sort points by distance from circumcenter of seed triangle
+		double[] center = circumcenter(x[i0], y[i0], x[i1], y[i1], x[i2], y[i2]);
+		centerX = center[0];
+		centerY = center[1];
+		for (int i = 0; i < n; i++)
+			distances[i] = squaredDistance(x[i], y[i], centerX, centerY);
+		IndexSort.sort(ids, distances, 0, n - 1);
+
+		// Seed triangle is the initial convex hull
+		hullStart = i0;
+		hullNext[i0] = hullPrev[i2] = i1;
+		hullNext[i1] = hullPrev[i0] = i2;
+		hullNext[i2] = hullPrev[i1] = i0;
+		hullTri[i0] = 0;
+		hullTri[i1] = 1;
+		hullTri[i2] = 2;
+		Arrays.fill(hullHash, -1);
+		hullHash[hashKey(x[i0], y[i0])] = i0;
+		hullHash[hashKey(x[i1], y[i1])] = i1;
+		hullHash[hashKey(x[i2], y[i2])] = i2;
+		addTriangle(i0, i1, i2, -1, -1, -1);
+
+		double xp = 0, yp = 0;
+		for (int k = 0; k < n; k++) {
+			int i = ids[k];
+			double px = x[i], py = y[i];
+
+			// Skip near duplicate points
+			if (k > 0 && Math.abs(px - xp) <= EPSILON && Math.abs(py - yp) <= EPSILON) {
+				duplicateOf[i] = ids[k - 1];
+				continue;
+			}
+			xp = px;
+			yp = py;
+
+			// Skip seed triangle points
+			if (i == i0 || i == i1 || i == i2)
+				continue;
+
+			// Find a visible edge on convex hull using hash of angles
+			int start = 0;
+			for (int j = 0, key = hashKey(px, py); j < hashSize; j++) {
+				start = hullHash[(key + j) % hashSize];
+				if (start != -1 && start != hullNext[start])
+					break;
+			}
+			start = hullPrev[start];
+			int e = start, q;
+			while (!orient(px, py, x[e], y[e], x[q = hullNext[e]], y[q])) {
+				e = q;
+				if (e == start) {
+					e = -1;
+					break;
+				}
+			}
+
+			// Point is too close to convex hull to find visible edge because of rounding errors,
+			// so it's connected to the hull point that search has been started from
+			if (e == -1) {
+				duplicateOf[i] = start;
+				continue;
+			}
+
+			// Add the first triangle from the point
+			int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+			hullTri[i] = legalize(t + 2);
+			hullTri[e] = t;
+
+			// Walk forward through the hull and add more triangles
+			int next = hullNext[e];
+			while (orient(px, py, x[next], y[next], x[q = hullNext[next]], y[q])) {
+				t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+				hullTri[i] = legalize(t + 2);
+				hullNext[next] = next;
+				next = q;
+			}
+
+			// Walk backward from the other side and add more triangles
+			if (e == start) {
+				while (orient(px, py, x[q = hullPrev[e]], y[q], x[e], y[e])) {
+					t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+					legalize(t + 2);
+					hullTri[q] = t;
+					hullNext[e] = e;
+					e = q;
+				}
+			}
+
+			// Update convex hull
+			hullStart = hullPrev[i] = e;
+			hullNext[e] = hullPrev[next] = i;
+			hullNext[i] = next;
+			hullHash[hashKey(px, py)] = i;
+			hullHash[hashKey(x[e], y[e])] = e;
+		}
+	}
+
+	/*
+	 * Flip edges of triangles that are not Delaunay, starting from half edge a.
+	 * */
+	private int legalize(int a) {
+		int i = 0;
+		int ar;
+		while (true) {
+			int b = halfedges[a];
+			int a0 = a - a % 3;
+			ar = a0 + (a + 2) % 3;
+
+			// Edges on convex hull can not be flipped
+			if (b == -1) {
+				if (i == 0)
+					break;
+				a = edgeStack[--i];
+				continue;
+			}
+
+			int b0 = b - b % 3;
+			int al = a0 + (a + 1) % 3;
+			int bl = b0 + (b + 2) % 3;
+			int p0 = triangles[ar];
+			int pr = triangles[a];
+			int pl = triangles[al];
+			int p1 = triangles[bl];
+
+			if (inCircle(x[p0], y[p0], x[pr], y[pr], x[pl], y[pl], x[p1], y[p1])) {
+				triangles[a] = p1;
+				triangles[b] = p0;
+
+				// Edge swapped on the other side of the hull, fix the half edge reference of hull
+				int hbl = halfedges[bl];
+				if (hbl == -1) {
+					int e = hullStart;
+					do {
+						if (hullTri[e] == bl) {
+							hullTri[e] = a;
+							break;
+						}
+						e = hullPrev[e];
+					} while (e != hullStart);
+				}
+				link(a, hbl);
+				link(b, halfedges[ar]);
+				link(ar, bl);
+
+				int br = b0 + (b + 1) % 3;
+				if (i < edgeStack.length)
+					edgeStack[i++] = br;
+			} else {
+				if (i == 0)
+					break;
+				a = edgeStack[--i];
+			}
+		}
+		return ar;
+	}
+
+	private void link(int a, int b) {
+		halfedges[a] = b;
+		if (b != -1)
+			halfedges[b] = a;
+	}
+
+	private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+		int t = trianglesLength;
+		triangles[t] = i0;
+		triangles[t + 1] = i1;
+		triangles[t + 2] = i2;
+		link(t, a);
+		link(t + 1, b);
+		link(t + 2, c);
+		trianglesLength += 3;
+		return t;
+	}
+
+	private int hashKey(double px, double py) {
+		return (int) Math.floor(pseudoAngle(px - centerX, py - centerY) * hashSize) % hashSize;
+	}
+
+	/*
+	 * Find the point that is farthest from point i.
+	 * */
+	private int farthest(int i) {
+		int far = i;
+		double maxDistance = 0;
+		for (int k = 0; k < n; k++) {
+			double d = squaredDistance(x[i], y[i], x[k], y[k]);
+			if (d > maxDistance) {
+				far = k;
+				maxDistance = d;
+			}
+		}
+		return far;
+	}
+
+	/*
+	 * Check that all points are on the line from point i to the farthest point from it, within rounding errors
+	 * relative to length of the line. Such points make triangles so thin that sweep skips most of them.
+	 * */
+	private boolean isNearlyCollinear(int i) {
+		int far = farthest(i);
+		double dx = x[far] - x[i], dy = y[far] - y[i];
+		double length = Math.sqrt(dx * dx + dy * dy);
+		if (length == 0)
+			return true;
+		double tolerance = COLLINEAR_TOLERANCE * length * length;
+		for (int k = 0; k < n; k++)
+			if (Math.abs((x[k] - x[i]) * dy - (y[k] - y[i]) * dx) > tolerance)
+				return false;
+		return true;
+	}
+
+	/*
+	 * Monotonic replacement of angle of vector in range [0, 1).
+	 * */
+	private static double pseudoAngle(double dx, double dy) {
+		double p = dx / (Math.abs(dx) + Math.abs(dy));
+		return (dy > 0 ? 3 - p : 1 + p) / 4;
+	}
+
+	private static double squaredDistance(double ax, double ay, double bx, double by) {
+		double dx = ax - bx, dy = ay - by;
+		return dx * dx + dy * dy;
+	}
+
+	/*
+	 * Check that points p, q and r are in clockwise order.
+	 * */
+	private static boolean orient(double px, double py, double qx, double qy, double rx, double ry) {
+		return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+	}
+
+	/*
+	 * Check that point p is inside circumcircle of triangle a, b and c.
+	 * */
+	private static boolean inCircle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+		double dx = ax - px, dy = ay - py;
+		double ex = bx - px, ey = by - py;
+		double fx = cx - px, fy = cy - py;
+		double ap = dx * dx + dy * dy;
+		double bp = ex * ex + ey * ey;
+		double cp = fx * fx + fy * fy;
+		return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+	}
+
+	private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax, dy = by - ay;
+		double ex = cx - ax, ey = cy - ay;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+		double rx = (ey * bl - dy * cl) * d;
+		double ry = (dx * cl - ex * bl) * d;
+		double r = rx * rx + ry * ry;
+		return Double.isNaN(r) ? Double.POSITIVE_INFINITY : r;
+	}
+
+	private static double[] circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax, dy = by - ay;
+		double ex = cx - ax, ey = cy - ay;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+		return new double[] { ax + (ey * bl - dy * cl) * d, ay + (dx * cl - ex * bl) * d };
+	}
+
+	/**
+	 * Get edges of triangulation, each edge is reported once.
+	 * Points that have been skipped as duplicate are connected to the point they duplicate,
+	 * so edges connect all points.
+	 * @param from output array to keep first point of edges
+	 * @param to output array to keep second point of edges
+	 * @return count of edges
+	 * */
+	public int edges(int[] from, int[] to) {
+		int count = 0;
+		if (collinear) {
+
+			// Points on a line are connected to their neighbours on the line
+			for (int k = 1; k < n; k++) {
+				from[count] = ids[k - 1];
+				to[count++] = ids[k];
+			}
+			return count;
+		}
+
+		for (int e = 0; e < trianglesLength; e++) {
+			if (e > halfedges[e]) {
+				from[count] = triangles[e];
+				to[count++] = triangles[e % 3 == 2 ? e - 2 : e + 1];
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			if (duplicateOf[i] != -1) {
+				from[count] = duplicateOf[i];
+				to[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Check that point has been skipped in triangulation, skipped points are only connected
+	 * to the point they duplicate or to a point of convex hull by edges method.
+	 * @param i index of point
+	 * @return true if point has been skipped
+	 * */
+	public boolean isSkipped(int i) {
+		return duplicateOf[i] != -1;
+	}
+
+	/**
+	 * Get maximum count of edges that edges method may return.
+	 * @return maximum count of edges
+	 * */
+	public int maxEdges() {
+		return collinear ? n : trianglesLength + n;
+	}
+
+	/**
+	 * Get half edges of triangles, each three items are points of a triangle.
+	 * @return half edges array, only first triangleCount() * 3 items are valid
+	 * */
+	public int[] getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Get twin of half edges, -1 for edges on convex hull.
+	 * @return twin half edges array, only first triangleCount() * 3 items are valid
+	 * */
+	public int[] getHalfedges() {
+		return halfedges;
+	}
+
+	public int triangleCount() {
+		return trianglesLength / 3;
+	}
+}
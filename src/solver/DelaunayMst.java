@@ -0,0 +1,183 @@
+package solver;
+
+import java.util.Arrays;
+
+import solver.spatial.KdTree;
+
+/**
+ * Builder of MST of cities for euclidean metrics using Delaunay triangulation.
+ * Euclidean MST is a subgraph of Delaunay triangulation, so instead of complete graph
+ * it runs Kruskal algorithm over about 3n edges of triangulation with a union find.
+ * Duplicate cities are removed before triangulation and connected to their twin with zero length edges.
+ * Cities that triangulation skips because of rounding errors are connected to their nearest cities and to their nearest triangulated cities.
+ * Building MST takes O(n log n) time and O(n) memory.
+ * If metric is not euclidean or triangulation fails to connect all cities, it falls back to Prim algorithm.
+ * @author Majid Feyzi
+ * @see Delaunay
+ * */
+public class DelaunayMst implements MstBuilder {
+
+	// Count of nearest triangulated cities that each skipped city is connected to
+	private static final int SKIPPED_NEIGHBOURS = 4;
+
+	// Metric of distance between cities
+	private final DistanceMetric metric;
+
+	public DelaunayMst(DistanceMetric metric) {
+		this.metric = metric;
+	}
+
+	@Override
+	public double build(PointSet points, int root, int[] mstOrder) {
+		int n = points.size();
+		if (n < 3 || !metric.isEuclidean())
+			return new PrimMst(metric).build(points, root, mstOrder);
+
+		double[] x = points.xs(), y = points.ys();
+
+		// Sort cities by x and then by y to find duplicate cities
+		int[] sorted = new int[n];
+		for (int i = 0; i < n; i++)
+			sorted[i] = i;
+		IndexSort.sort(sorted, x, 0, n - 1);
+		for (int i = 0, j; i < n; i = j) {
+			for (j = i + 1; j < n && x[sorted[j]] == x[sorted[i]]; j++);
+			if (j - i > 1)
+				IndexSort.sort(sorted, y, i, j - 1);
+		}
+
+		// Triangulate only unique cities, duplicate cities are connected to the first one with same coordinates
+		int[] unique = new int[n];
+		double[] ux = new double[n], uy = new double[n];
+		int[] from = new int[3 * n];
+		int[] to = new int[from.length];
+		int uniques = 0, count = 0;
+		for (int k = 0; k < n; k++) {
+			int v = sorted[k];
+			if (k > 0 && x[v] == ux[uniques - 1] && y[v] == uy[uniques - 1]) {
+				from[count] = unique[uniques - 1];
+				to[count++] = v;
+			} else {
+				unique[uniques] = v;
+				ux[uniques] = x[v];
+				uy[uniques++] = y[v];
+			}
+		}
+
+		// Find edges of triangulation
+		Delaunay delaunay = new Delaunay(ux, uy, uniques);
+		int skipped = 0;
+		for (int i = 0; i < uniques; i++)
+			if (delaunay.isSkipped(i))
+				skipped++;
+		int[] uniqueFrom = new int[delaunay.maxEdges() + skipped * 2 * SKIPPED_NEIGHBOURS];
+		int[] uniqueTo = new int[uniqueFrom.length];
+		int edgesCount = delaunay.edges(uniqueFrom, uniqueTo);
+		if (skipped > 0)
+			edgesCount = connectSkipped(delaunay, ux, uy, uniques, uniqueFrom, uniqueTo, edgesCount);
+		if (count + edgesCount > from.length) {
+			from = Arrays.copyOf(from, count + edgesCount);
+			to = Arrays.copyOf(to, count + edgesCount);
+		}
+		for (int e = 0; e < edgesCount; e++) {
+			from[count] = unique[uniqueFrom[e]];
+			to[count++] = unique[uniqueTo[e]];
+		}
+
+		// Sort edges by their length
+		double[] keys = new double[count];
+		int[] edges = new int[count];
+		for (int e = 0; e < count; e++) {
+			keys[e] = metric.key(x[from[e]], y[from[e]], x[to[e]], y[to[e]]);
+			edges[e] = e;
+		}
+		IndexSort.sort(edges, keys, 0, count - 1);
+
+		// Kruskal, pick shortest edges that connect different components
+		DisjointSet components = new DisjointSet(n);
+		int[] adjacency = new int[2 * (n - 1)];
+		int[] degree = new int[n + 1];
+		int picked = 0;
+		double weight = 0;
+		for (int k = 0; k < count && picked < n - 1; k++) {
+			int e = edges[k];
+			if (components.union(from[e], to[e])) {
+				edges[picked++] = e;
+				weight += metric.toDistance(keys[e]);
+				degree[from[e] + 1]++;
+				degree[to[e] + 1]++;
+			}
+		}
+		if (picked < n - 1)
+			return new PrimMst(metric).build(points, root, mstOrder);
+
+		// Keep neighbours of each vertex in tree, neighbours of v are in range degree[v] to degree[v + 1]
+		for (int v = 0; v < n; v++)
+			degree[v + 1] += degree[v];
+		int[] fill = new int[n];
+		for (int k = 0; k < picked; k++) {
+			int a = from[edges[k]], b = to[edges[k]];
+			adjacency[degree[a] + fill[a]++] = b;
+			adjacency[degree[b] + fill[b]++] = a;
+		}
+
+		// Walk tree from root in breadth first order to find parent of each vertex
+		int[] parents = fill;
+		parents[root] = PointSet.NONE;
+		mstOrder[0] = root;
+		for (int head = 0, tail = 1; head < tail; head++) {
+			int v = mstOrder[head];
+			for (int i = degree[v]; i < degree[v + 1]; i++) {
+				int u = adjacency[i];
+				if (u != parents[v]) {
+					parents[u] = v;
+					mstOrder[tail++] = u;
+				}
+			}
+		}
+
+		// Attach vertices in reverse order, so children of each vertex keep the order of adding to MST
+		points.clearTree();
+		for (int k = n - 1; k > 0; k--)
+			points.attach(mstOrder[k], parents[mstOrder[k]]);
+
+		return weight;
+	}
+
+	/*
+	 * Add edges from cities that triangulation has skipped to their nearest cities and to their nearest triangulated cities.
+	 * Nearly collinear cities may be skipped all together but one triangle, so skipped cities are linked to each other too,
+	 * and chains of skipped cities keep their short edges instead of each one going to a far triangulated city.
+	 * Return count of edges.
+	 * */
+	private static int connectSkipped(Delaunay delaunay, double[] x, double[] y, int n, int[] from, int[] to, int count) {
+		KdTree tree = new KdTree(x, y, n);
+		int[] nearest = new int[SKIPPED_NEIGHBOURS + 1];
+		for (int i = 0; i < n; i++) {
+			if (!delaunay.isSkipped(i))
+				continue;
+			int found = tree.nearest(x[i], y[i], SKIPPED_NEIGHBOURS + 1, nearest);
+			for (int k = 0; k < found; k++) {
+				if (nearest[k] != i) {
+					from[count] = i;
+					to[count++] = nearest[k];
+				}
+			}
+		}
+
+		// Connect skipped cities to triangulated ones, so every city reaches triangulation
+		for (int i = 0; i < n; i++)
+			if (delaunay.isSkipped(i))
+				tree.remove(i);
+		for (int i = 0; i < n; i++) {
+			if (!delaunay.isSkipped(i))
+				continue;
+			int found = tree.nearest(x[i], y[i], SKIPPED_NEIGHBOURS, nearest);
+			for (int k = 0; k < found; k++) {
+				from[count] = i;
+				to[count++] = nearest[k];
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,68 @@
+package solver;
+
+/**
+ * Union find of vertices with union by size and path halving.
+ * @author Majid Feyzi
+ * */
+public class DisjointSet {
+
+	// Parent of each vertex in it's set tree, root of each set is parent of itself
+	private final int[] parent;
+
+	// Size of each set, only valid for roots
+	private final int[] size;
+
+	// Count of disjoint sets
+	private int count;
+
+	public DisjointSet(int n) {
+		parent = new int[n];
+		size = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+			size[i] = 1;
+		}
+		count = n;
+	}
+
+	/**
+	 * Find root of set that vertex belongs to.
+	 * @param v vertex
+	 * @return root of set of vertex
+	 * */
+	public int find(int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Merge sets of two vertices.
+	 * @return true if vertices were in different sets
+	 * */
+	public boolean union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		if (a == b)
+			return false;
+		if (size[a] < size[b]) {
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		parent[b] = a;
+		size[a] += size[b];
+		count--;
+		return true;
+	}
+
+	/**
+	 * Get count of disjoint sets.
+	 * @return count of sets
+	 * */
+	public int count() {
+		return count;
+	}
+}
@@ -0,0 +1,131 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Precomputed distances of all pairs of cities as floats in direct memory out of heap,
+ * so a large matrix doesn't make heap bigger or garbage collection pauses longer.
+ * Only upper triangle is kept and it's split into square tiles of TILE cities, tile (i, j) for i <= j keeps
+ * distances of cities of i-th block to cities of j-th block and tiles are kept row by row, so distances of
+ * near indices are near in memory. Matrix takes about 2n^2 bytes and it's built in parallel on common pool.
+ * @author Majid Feyzi
+ * @see Distances
+ * */
+public class DistanceMatrix implements Distances {
+
+	// Default memory budget of matrices, that is enough for about 11k cities
+	public static final long DEFAULT_BUDGET = 256L << 20;
+
+	// Side of tiles and it's logarithm
+	private static final int SHIFT = 6;
+	private static final int TILE = 1 << SHIFT;
+
+	// Count of cities and count of tiles in each row
+	private final int n, tiles;
+
+	// Tiles of upper triangle
+	private final FloatBuffer matrix;
+
+	/**
+	 * Build matrix of distances of cities.
+	 * @param points cities of problem
+	 * @param metric metric of distance between cities
+	 * @throws IllegalArgumentException if matrix is larger than a direct buffer
+	 * @throws OutOfMemoryError if there is not enough direct memory
+	 * */
+	public DistanceMatrix(PointSet points, DistanceMetric metric) {
+		this.n = points.size();
+		this.tiles = (n + TILE - 1) >>> SHIFT;
+		long bytes = bytes(n);
+		if (bytes > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Matrix of " + n + " cities is larger than a direct buffer");
+		matrix = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		ForkJoinPool.commonPool().invoke(new Build(points.xs(), points.ys(), metric, 0, tiles));
+	}
+
+	/**
+	 * Find size of matrix of cities.
+	 * @param n count of cities
+	 * @return size of matrix in bytes
+	 * */
+	public static long bytes(int n) {
+		long tiles = (n + TILE - 1) >>> SHIFT;
+		return tiles * (tiles + 1) / 2 * TILE * TILE * Float.BYTES;
+	}
+
+	@Override
+	public double distance(int a, int b) {
+		if (a > b) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		return matrix.get(offset(a >>> SHIFT, b >>> SHIFT) | (a & (TILE - 1)) << SHIFT | b & (TILE - 1));
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	/*
+	 * Find offset of tile (i, j) for i <= j, tiles before row i are (i * tiles - i * (i - 1) / 2).
+	 * */
+	private int offset(int i, int j) {
+		return (i * tiles - (i * (i - 1) >> 1) + j - i) << (2 * SHIFT);
+	}
+
+	/*
+	 * Task that computes rows of tiles in a range, rows are split so that each part has about the same count of tiles.
+	 * */
+	@SuppressWarnings("serial")
+	private class Build extends RecursiveAction {
+
+		private final double[] x, y;
+		private final DistanceMetric metric;
+		private final int from, to;
+
+		Build(double[] x, double[] y, DistanceMetric metric, int from, int to) {
+			this.x = x;
+			this.y = y;
+			this.metric = metric;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+
+				// Rows are shorter at bottom of triangle, so split point has half of tiles of range above it
+				long total = cells(from, to);
+				int middle = from + 1;
+				while (middle < to - 1 && cells(from, middle + 1) * 2 <= total)
+					middle++;
+				invokeAll(new Build(x, y, metric, from, middle), new Build(x, y, metric, middle, to));
+				return;
+			}
+			double[] row = new double[n];
+			for (int a = from << SHIFT; a < Math.min(n, to << SHIFT); a++) {
+				metric.distances(x[a], y[a], x, y, from << SHIFT, n, row);
+				for (int j = from; j < tiles; j++) {
+					int base = offset(from, j) | (a & (TILE - 1)) << SHIFT;
+					int last = Math.min(n, (j + 1) << SHIFT);
+					for (int b = j << SHIFT; b < last; b++)
+						matrix.put(base | b & (TILE - 1), (float) row[b]);
+				}
+			}
+		}
+
+		private long cells(int from, int to) {
+			long cells = 0;
+			for (int i = from; i < to; i++)
+				cells += tiles - i;
+			return cells;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package solver;
+
+/**
+ * Distance function between two cities.
+ * Besides the distance itself, each metric has a comparison key that keeps order of distances
+ * but may be cheaper to compute, for example squared distance for euclidean metric.
+ * Algorithms that only need to compare distances use keys and convert key to distance only
+ * for edges that they pick.
+ * @author Majid Feyzi
+ * @see Metric
+ * */
+public interface DistanceMetric {
+
+	/**
+	 * Find distance between two points.
+	 * @return distance between (x1, y1) and (x2, y2)
+	 * */
+	double distance(double x1, double y1, double x2, double y2);
+
+	/**
+	 * Find comparison key of distance between two points.
+	 * Keys of two distances have the same order as distances.
+	 * @return comparison key of distance between (x1, y1) and (x2, y2)
+	 * */
+	default double key(double x1, double y1, double x2, double y2) {
+		return distance(x1, y1, x2, y2);
+	}
+
+	/**
+	 * Convert comparison key to distance.
+	 * @param key comparison key returned by key method
+	 * @return distance that key belongs to
+	 * */
+	default double toDistance(double key) {
+		return key;
+	}
+
+	/**
+	 * Find distance of one point to many points.
+	 * @param x x coordinate of point
+	 * @param y y coordinate of point
+	 * @param xs x coordinates of other points
+	 * @param ys y coordinates of other points
+	 * @param from index of first other point, inclusive
+	 * @param to index of last other point, exclusive
+	 * @param out output array, distance of point i is kept in out[i]
+	 * */
+	default void distances(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+		for (int i = from; i < to; i++)
+			out[i] = distance(x, y, xs[i], ys[i]);
+	}
+
+	/**
+	 * Find comparison keys of distance of one point to many points.
+	 * Parameters are like distances method.
+	 * */
+	default void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+		for (int i = from; i < to; i++)
+			out[i] = key(x, y, xs[i], ys[i]);
+	}
+
+	/**
+	 * Check that metric is distance in euclidean plane.
+	 * Geometric algorithms such as triangulation are valid only for euclidean metrics.
+	 * @return true if MST of metric is MST of euclidean distances
+	 * */
+	default boolean isEuclidean() {
+		return false;
+	}
+}
@@ -0,0 +1,44 @@
+package solver;
+
+/**
+ * Distances between cities of a problem by their indices.
+ * Distances are either kept in a precomputed matrix or computed from coordinates on each call,
+ * so algorithms that evaluate the same pairs many times use matrix when it fits in memory budget.
+ * @author Majid Feyzi
+ * @see DistanceMatrix
+ * */
+public interface Distances {
+
+	/**
+	 * Find distance between two cities.
+	 * @param a index of first city
+	 * @param b index of second city
+	 * @return distance between cities
+	 * */
+	double distance(int a, int b);
+
+	/**
+	 * Get count of cities.
+	 * @return count of cities
+	 * */
+	int size();
+
+	/**
+	 * Get distances of cities, they are precomputed in a matrix if it fits in memory budget,
+	 * otherwise they are computed from coordinates on each call.
+	 * @param points cities of problem
+	 * @param metric metric of distance between cities
+	 * @param budget maximum size of matrix in bytes, 0 to never build a matrix
+	 * @return distances of cities
+	 * */
+	static Distances of(PointSet points, DistanceMetric metric, long budget) {
+		if (DistanceMatrix.bytes(points.size()) <= budget) {
+			try {
+				return new DistanceMatrix(points, metric);
+			} catch (OutOfMemoryError e) {
+				// Direct memory is more limited than budget, so distances are computed on each call
+			}
+		}
+		return new MetricDistances(points, metric);
+	}
+}
@@ -0,0 +1,231 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Weighted directed graph of cities in compressed sparse row arrays, for problems that have explicit costs
+ * between cities instead of coordinates, such as matrices of TSPLIB or road networks.
+ * Arcs of city v are in range offsets[v] to offsets[v + 1] of targets and weights arrays, sorted by their targets.
+ * Adjacency is kept structurally symmetric, so if only one direction of an arc is given the other direction
+ * is kept with infinite weight, and walks over adjacency see every neighbour of a city.
+ * Cost of missing arcs is infinite.
+ * @author Majid Feyzi
+ * @see GraphTourSolver
+ * */
+public class Graph implements Distances {
+
+	// Count of cities
+	private final int n;
+
+	// Arcs of each city in compressed sparse row format
+	private final int[] offsets, targets;
+	private final double[] weights;
+
+	// True if weight of each arc is equal to weight of it's reverse arc
+	private final boolean symmetric;
+
+	private Graph(int n, int[] offsets, int[] targets, double[] weights) {
+		this.n = n;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.symmetric = checkSymmetric();
+	}
+
+	/**
+	 * Create complete graph of a full matrix, matrix is used directly as weights array without copy.
+	 * Diagonal of matrix is kept as loops that solvers ignore.
+	 * @param n count of cities
+	 * @param matrix weights of arcs row by row, weight of arc from a to b is matrix[a * n + b]
+	 * @return graph of matrix
+	 * @throws IllegalArgumentException if matrix doesn't have n * n items or has negative weights
+	 * */
+	public static Graph complete(int n, double[] matrix) {
+		if ((long) n * n != matrix.length)
+			throw new IllegalArgumentException("Matrix of " + n + " cities must have " + (long) n * n + " weights");
+		for (int a = 0; a < n; a++)
+			for (int b = 0; b < n; b++)
+				check(matrix[a * n + b], a, b);
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[n * n];
+		for (int a = 0; a < n; a++) {
+			offsets[a + 1] = (a + 1) * n;
+			for (int b = 0; b < n; b++)
+				targets[a * n + b] = b;
+		}
+		return new Graph(n, offsets, targets, matrix);
+	}
+
+	/**
+	 * Create graph of a list of arcs. Loops are ignored and the lightest one of repeated arcs is kept.
+	 * Arcs are sorted into adjacency with two counting sorts in O(n + m) time.
+	 * @param n count of cities
+	 * @param from source of each arc
+	 * @param to target of each arc
+	 * @param weight weight of each arc
+	 * @param m count of arcs, only first m items of arrays are used
+	 * @return graph of arcs
+	 * @throws IllegalArgumentException if an arc has an invalid city or a negative weight
+	 * */
+	public static Graph of(int n, int[] from, int[] to, double[] weight, int m) {
+		for (int e = 0; e < m; e++) {
+			if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n)
+				throw new IllegalArgumentException("Arc " + from[e] + " -> " + to[e] + " has an invalid city");
+			check(weight[e], from[e], to[e]);
+		}
+		if (2L * m > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Graph has too many arcs " + m);
+
+		// Each arc is added in both directions, reverse direction with infinite weight,
+		// arcs are sorted by target and then stably by source, so arcs of each source are sorted by their targets
+		int slots = 0;
+		int[] count = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			if (from[e] != to[e]) {
+				count[from[e] + 1]++;
+				count[to[e] + 1]++;
+				slots += 2;
+			}
+		}
+		int[] byTarget = new int[slots];
+		int[] next = new int[n];
+		for (int v = 0; v < n; v++)
+			count[v + 1] += count[v];
+		System.arraycopy(count, 0, next, 0, n);
+
+		// Slot s of arc e is 2e for forward and 2e + 1 for reverse direction
+		for (int e = 0; e < m; e++) {
+			if (from[e] != to[e]) {
+				byTarget[next[to[e]]++] = 2 * e;
+				byTarget[next[from[e]]++] = 2 * e + 1;
+			}
+		}
+		int[] offsets = count;
+		int[] targets = new int[slots];
+		double[] weights = new double[slots];
+		System.arraycopy(offsets, 0, next, 0, n);
+		for (int i = 0; i < slots; i++) {
+			int s = byTarget[i], e = s >>> 1;
+			boolean forward = (s & 1) == 0;
+			int source = forward ? from[e] : to[e];
+			int position = next[source]++;
+			targets[position] = forward ? to[e] : from[e];
+			weights[position] = forward ? weight[e] : Double.POSITIVE_INFINITY;
+		}
+
+		// Merge repeated targets of each city and keep the lightest weight
+		int size = 0;
+		for (int v = 0, first = 0; v < n; v++) {
+			int last = offsets[v + 1];
+			offsets[v] = size;
+			for (int i = first; i < last; i++) {
+				if (size > offsets[v] && targets[size - 1] == targets[i]) {
+					weights[size - 1] = Math.min(weights[size - 1], weights[i]);
+				} else {
+					targets[size] = targets[i];
+					weights[size++] = weights[i];
+				}
+			}
+			first = last;
+		}
+		offsets[n] = size;
+		if (size < slots) {
+			targets = Arrays.copyOf(targets, size);
+			weights = Arrays.copyOf(weights, size);
+		}
+		return new Graph(n, offsets, targets, weights);
+	}
+
+	private static void check(double weight, int a, int b) {
+		if (!(weight >= 0))
+			throw new IllegalArgumentException("Arc " + a + " -> " + b + " has invalid weight " + weight);
+	}
+
+	/*
+	 * Check that weight of each arc is equal to weight of it's reverse arc.
+	 * */
+	private boolean checkSymmetric() {
+		for (int a = 0; a < n; a++)
+			for (int i = offsets[a]; i < offsets[a + 1]; i++)
+				if (targets[i] > a && weights[i] != weight(targets[i], a))
+					return false;
+		return true;
+	}
+
+	/**
+	 * Get count of cities.
+	 * @return count of cities
+	 * */
+	@Override
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Get count of arcs in adjacency, including reverse arcs with infinite weight and loops.
+	 * @return count of arcs
+	 * */
+	public int arcs() {
+		return offsets[n];
+	}
+
+	/**
+	 * Check that weight of each arc is equal to weight of it's reverse arc.
+	 * @return true if graph is symmetric
+	 * */
+	public boolean isSymmetric() {
+		return symmetric;
+	}
+
+	/**
+	 * Find weight of arc between two cities with binary search over targets of first city.
+	 * @param a source of arc
+	 * @param b target of arc
+	 * @return weight of arc, or positive infinity if there is no such arc
+	 * */
+	public double weight(int a, int b) {
+		int low = offsets[a], high = offsets[a + 1] - 1;
+		if (high - low + 1 == n)
+			return weights[low + b];
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int target = targets[middle];
+			if (target < b)
+				low = middle + 1;
+			else if (target > b)
+				high = middle - 1;
+			else
+				return weights[middle];
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public double distance(int a, int b) {
+		return weight(a, b);
+	}
+
+	/**
+	 * Get offsets of arcs of cities, arcs of city v are in range offsets[v] to offsets[v + 1], array is not copied.
+	 * @return offsets array
+	 * */
+	public int[] offsets() {
+		return offsets;
+	}
+
+	/**
+	 * Get targets of arcs, array is not copied.
+	 * @return targets array
+	 * */
+	public int[] targets() {
+		return targets;
+	}
+
+	/**
+	 * Get weights of arcs, array is not copied.
+	 * @return weights array
+	 * */
+	public double[] weights() {
+		return weights;
+	}
+}
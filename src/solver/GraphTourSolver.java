@@ -0,0 +1,249 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * 2-approximation solver of TSP problems that are given as weighted graphs instead of cities with coordinates.
+ * It builds MST of graph with Prim algorithm and a binary heap over adjacency arrays in O(m log n) time,
+ * so sparse graphs such as road networks with millions of cities are solved without any n^2 step,
+ * and returns preorder of MST as tour.
+ * Each step of tour takes the arc between consecutive cities, so cost of tours of complete graphs is the usual cost.
+ * Sparse graphs have no arc between most consecutive cities, so those steps take path through MST,
+ * that is found in O(1) time by weights of paths from root.
+ * Cost of tour is at most twice the weight of MST for symmetric graphs whose arcs are not heavier than other paths
+ * between their cities, as tour walks each MST edge at most twice.
+ * Weight of an MST edge of an asymmetric graph is the lighter direction of it, and tour is taken in the direction
+ * that costs less. If a step has no direct arc and no path through MST, it takes the shortest path with Dijkstra algorithm.
+ * @author Majid Feyzi
+ * @see Graph
+ * */
+public class GraphTourSolver {
+
+	// Graph of current solve and it's arrays
+	private Graph graph;
+	private int[] offsets, targets;
+	private double[] weights;
+
+	// MST of graph, parent of each city and it's rank in preorder
+	private int[] parent, rank;
+	private int root;
+
+	// Weights of paths from root to each city and from each city to root through MST,
+	// with count of missing arcs on each path, paths that miss an arc are not used
+	private double[] down, up;
+	private int[] downMissing, upMissing;
+
+	// Distances of Dijkstra algorithm, cities that have a distance and heap, allocated on first use
+	private double[] distance;
+	private int[] touched;
+	private IndexHeap heap;
+
+	/**
+	 * Solve problem of a graph.
+	 * @param graph graph of problem
+	 * @param start index of start city
+	 * @param metrics metrics of solve
+	 * @return tour of cities
+	 * @throws IllegalArgumentException if a city can't be reached from start city
+	 * */
+	public synchronized Tour solve(Graph graph, int start, SolveMetrics metrics) {
+		int n = graph.size();
+		if (n == 0)
+			return new Tour(new int[0], new int[0], 0, 0);
+		if (start < 0 || start >= n)
+			throw new IllegalArgumentException("Start city " + start + " doesn't exist");
+		this.graph = graph;
+		offsets = graph.offsets();
+		targets = graph.targets();
+		weights = graph.weights();
+		root = start;
+		try {
+			metrics.begin(Phase.MST, n);
+			parent = new int[n];
+			int[] mstOrder = new int[n];
+			double mstCost = mst(mstOrder);
+			metrics.end(Phase.MST);
+
+			// Tour is preorder of MST, asymmetric graphs take the direction that costs less
+			metrics.begin(Phase.TRAVERSAL, n);
+			int[] order = preorder(mstOrder);
+			paths(mstOrder);
+			double cost = cost(order);
+			if (!graph.isSymmetric()) {
+				int[] reversed = new int[n];
+				reversed[0] = start;
+				for (int i = 1; i < n; i++)
+					reversed[i] = order[n - i];
+				double reversedCost = cost(reversed);
+				if (reversedCost < cost) {
+					order = reversed;
+					cost = reversedCost;
+				}
+			}
+			metrics.end(Phase.TRAVERSAL);
+			metrics.cost(cost);
+			return new Tour(order, mstOrder, cost, mstCost);
+		} finally {
+			this.graph = null;
+			offsets = targets = parent = rank = downMissing = upMissing = touched = null;
+			weights = down = up = distance = null;
+			heap = null;
+		}
+	}
+
+	/*
+	 * Build MST from root with Prim algorithm and keep cities in order they are added to MST.
+	 * Return total weight of MST.
+	 * */
+	private double mst(int[] mstOrder) {
+		int n = graph.size();
+		boolean symmetric = graph.isSymmetric();
+		double[] key = new double[n];
+		boolean[] added = new boolean[n];
+		Arrays.fill(key, Double.POSITIVE_INFINITY);
+		Arrays.fill(parent, PointSet.NONE);
+		IndexHeap heap = new IndexHeap(n);
+		key[root] = 0;
+		heap.offer(root, 0);
+		int count = 0;
+		double cost = 0;
+		while (!heap.isEmpty()) {
+			int v = heap.poll();
+			added[v] = true;
+			mstOrder[count++] = v;
+			cost += key[v];
+			for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) {
+				int t = targets[i];
+				if (added[t])
+					continue;
+				double weight = symmetric ? weights[i] : Math.min(weights[i], graph.weight(t, v));
+				if (weight < key[t]) {
+					key[t] = weight;
+					parent[t] = v;
+					heap.offer(t, weight);
+				}
+			}
+		}
+		if (count < n)
+			throw new IllegalArgumentException("Graph is not connected, " + (n - count) + " cities can't be reached from city " + root);
+		return cost;
+	}
+
+	/*
+	 * Find preorder of MST without recursion, children are linked in order they have been added to MST.
+	 * */
+	private int[] preorder(int[] mstOrder) {
+		int n = mstOrder.length;
+		int[] firstChild = new int[n], nextSibling = new int[n];
+		Arrays.fill(firstChild, PointSet.NONE);
+		for (int i = n - 1; i > 0; i--) {
+			int v = mstOrder[i];
+			nextSibling[v] = firstChild[parent[v]];
+			firstChild[parent[v]] = v;
+		}
+		int[] order = new int[n];
+		rank = new int[n];
+		int position = 0, vertex = root;
+		while (true) {
+			rank[vertex] = position;
+			order[position++] = vertex;
+			if (firstChild[vertex] != PointSet.NONE) {
+				vertex = firstChild[vertex];
+				continue;
+			}
+			while (vertex != root && nextSibling[vertex] == PointSet.NONE)
+				vertex = parent[vertex];
+			if (vertex == root)
+				return order;
+			vertex = nextSibling[vertex];
+		}
+	}
+
+	/*
+	 * Find weights of paths between root and each city through MST in both directions.
+	 * */
+	private void paths(int[] mstOrder) {
+		int n = mstOrder.length;
+		down = new double[n];
+		up = new double[n];
+		downMissing = new int[n];
+		upMissing = new int[n];
+		for (int i = 1; i < n; i++) {
+			int v = mstOrder[i], p = parent[v];
+			double toChild = graph.weight(p, v), toParent = graph.weight(v, p);
+			down[v] = down[p] + (toChild == Double.POSITIVE_INFINITY ? 0 : toChild);
+			downMissing[v] = downMissing[p] + (toChild == Double.POSITIVE_INFINITY ? 1 : 0);
+			up[v] = up[p] + (toParent == Double.POSITIVE_INFINITY ? 0 : toParent);
+			upMissing[v] = upMissing[p] + (toParent == Double.POSITIVE_INFINITY ? 1 : 0);
+		}
+	}
+
+	/*
+	 * Find cost of tour that visits cities in order and returns to first city,
+	 * consecutive cities of order must be consecutive in preorder of MST in either direction.
+	 * */
+	private double cost(int[] order) {
+		int n = order.length;
+		double cost = 0;
+		for (int i = 0; i < n; i++)
+			cost += step(order[i], order[i + 1 == n ? 0 : i + 1]);
+		return cost;
+	}
+
+	/*
+	 * Find cost of going from city a to city b that are consecutive in preorder of MST, it's weight of arc between them
+	 * if there is one, otherwise weight of path through MST that goes up from a to their lowest common ancestor
+	 * and down to b. That ancestor is root if one of them is root, otherwise it's parent of the city that comes later in preorder.
+	 * */
+	private double step(int a, int b) {
+		if (a == b)
+			return 0;
+		double arc = graph.weight(a, b);
+		if (arc < Double.POSITIVE_INFINITY)
+			return arc;
+		int ancestor = a == root || b == root ? root : parent[rank[a] < rank[b] ? b : a];
+		if (upMissing[a] == upMissing[ancestor] && downMissing[b] == downMissing[ancestor])
+			return up[a] - up[ancestor] + down[b] - down[ancestor];
+		return shortestPath(a, b);
+	}
+
+	/*
+	 * Find weight of shortest path between two cities with Dijkstra algorithm that stops at target.
+	 * Arrays are reused between searches and only distances of touched cities are reset.
+	 * */
+	private double shortestPath(int source, int target) {
+		int n = graph.size();
+		if (distance == null) {
+			distance = new double[n];
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			touched = new int[n];
+			heap = new IndexHeap(n);
+		}
+		int count = 0;
+		distance[source] = 0;
+		touched[count++] = source;
+		heap.offer(source, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.poll();
+			if (v == target)
+				break;
+			for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) {
+				int t = targets[i];
+				double d = distance[v] + weights[i];
+				if (d < distance[t]) {
+					if (distance[t] == Double.POSITIVE_INFINITY)
+						touched[count++] = t;
+					distance[t] = d;
+					heap.offer(t, d);
+				}
+			}
+		}
+		double result = distance[target];
+		heap.clear();
+		for (int i = 0; i < count; i++)
+			distance[touched[i]] = Double.POSITIVE_INFINITY;
+		if (result == Double.POSITIVE_INFINITY)
+			throw new IllegalArgumentException("City " + target + " can't be reached from city " + source);
+		return result;
+	}
+}
@@ -0,0 +1,84 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Hilbert curve that visits cells of a square grid so each cell is next to the previous one.
+ * Cities that are close on the curve are close in plane, so order of cities along the curve is a tour that is found
+ * in O(n log n) time, and a locality preserving order of cities in memory.
+ * Bounding box of cities is divided into 2^ORDER by 2^ORDER cells and cities are sorted by index of their cells on the curve.
+ * @author Majid Feyzi
+ * @see HilbertTourSolver
+ * @see PointSet#reorder(int[])
+ * */
+public class HilbertCurve {
+
+	// Count of levels of curve, index of a cell fits in 32 bits and is sorted together with index of city in a long
+	public static final int ORDER = 16;
+
+	// Largest coordinate of cells in each direction
+	private static final int SIDE = (1 << ORDER) - 1;
+
+	private HilbertCurve() {}
+
+	/**
+	 * Find index of a cell on Hilbert curve of given order.
+	 * @param x column of cell from 0 to 2^order - 1
+	 * @param y row of cell from 0 to 2^order - 1
+	 * @param order count of levels of curve, at most 31
+	 * @return index of cell from 0 to 4^order - 1
+	 * */
+	public static long index(int x, int y, int order) {
+		long index = 0;
+		for (int s = 1 << (order - 1); s > 0; s >>>= 1) {
+			int rx = (x & s) != 0 ? 1 : 0, ry = (y & s) != 0 ? 1 : 0;
+			index += (long) s * s * ((3 * rx) ^ ry);
+
+			// Rotate quadrant so the curve inside it has the same orientation as the whole curve
+			if (ry == 0) {
+				if (rx == 1) {
+					x = ~x;
+					y = ~y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Find order of cities along Hilbert curve over their bounding box.
+	 * Both directions are scaled by the same factor, so curve doesn't stretch with shape of bounding box.
+	 * @param points cities
+	 * @return indices of cities in order of curve
+	 * */
+	public static int[] order(PointSet points) {
+		int n = points.size();
+		double[] x = points.xs(), y = points.ys();
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double extent = Math.max(maxX - minX, maxY - minY);
+		double scale = extent > 0 ? SIDE / extent : 0;
+
+		// Index of cell is kept in high bits and index of city in low bits. Indices of the second half of curve
+		// set the sign bit, so it's flipped to sort keys as unsigned numbers, low bits keep index of city
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			int cx = (int) ((x[i] - minX) * scale), cy = (int) ((y[i] - minY) * scale);
+			keys[i] = (index(cx, cy, ORDER) << 32 | i) ^ Long.MIN_VALUE;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++)
+			order[i] = (int) keys[i];
+		return order;
+	}
+}
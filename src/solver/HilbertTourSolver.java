@@ -0,0 +1,46 @@
+package solver;
+
+/**
+ * Solver of TSP problem that visits cities in order of Hilbert curve over their bounding box.
+ * It doesn't build MST and finds tour in O(n log n) time of sorting cities by their index on the curve,
+ * that is much faster than other solvers, so it's a baseline for tight time limits and an initial tour for local search.
+ * Tour is about 40% longer than optimal tour for uniform cities, but it has no approximation bound.
+ * @author Majid Feyzi
+ * @see HilbertCurve
+ * */
+public class HilbertTourSolver implements TourSolver {
+
+	// Metric of distance between cities
+	private final DistanceMetric metric;
+
+	public HilbertTourSolver(DistanceMetric metric) {
+		this.metric = metric;
+	}
+
+	@Override
+	public Tour solve(PointSet points, int start, SolveMetrics metrics) {
+		int n = points.size();
+		if (n == 0)
+			return new Tour(new int[0], new int[0], 0, 0);
+
+		// Tour doesn't come from an MST, so previous MST of cities is removed
+		points.clearTree();
+
+		// Order of curve is rotated so tour begins at start city
+		metrics.begin(Phase.TRAVERSAL, n);
+		int[] curve = HilbertCurve.order(points);
+		int offset = 0;
+		while (curve[offset] != start)
+			offset++;
+		int[] order = new int[n];
+		System.arraycopy(curve, offset, order, 0, n - offset);
+		System.arraycopy(curve, 0, order, n - offset, offset);
+		double cost = MstTourSolver.cost(points, order, metric);
+		metrics.end(Phase.TRAVERSAL);
+		metrics.cost(cost);
+		if (metrics.getLog() != null)
+			metrics.getLog().tour(order);
+
+		return new Tour(order, new int[0], cost, 0);
+	}
+}
@@ -0,0 +1,25 @@
+package solver;
+
+/**
+ * Solver that improves tour of another solver with local search.
+ * @author Majid Feyzi
+ * @see LocalSearch
+ * */
+public class ImprovedTourSolver implements TourSolver {
+
+	// Solver that finds initial tour
+	private final TourSolver solver;
+
+	// Local search that improves initial tour
+	private final LocalSearch search;
+
+	public ImprovedTourSolver(TourSolver solver, LocalSearch search) {
+		this.solver = solver;
+		this.search = search;
+	}
+
+	@Override
+	public Tour solve(PointSet points, int start, SolveMetrics metrics) {
+		return search.improve(points, solver.solve(points, start, metrics), metrics);
+	}
+}
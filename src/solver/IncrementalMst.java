@@ -0,0 +1,397 @@
+package solver;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Builder of MST that keeps the tree while cities are added and removed one by one.
+ * Adding a city updates the tree in O(n) time: new MST is in the old tree plus edges from the new city,
+ * so in a bottom up walk of the tree each cycle that the new edges make is broken by removing it's heaviest edge.
+ * Removing the last added city restores the previous tree from changes that have been stored on adding it.
+ * Building MST of the same cities returns the kept tree without computing distances,
+ * and building MST of other cities rebuilds the tree from scratch.
+ * If changes of tree are not known, such as after a bulk load, tree becomes stale and is not rebuilt until next build,
+ * so user interface can rebuild it in background with a snapshot and load the result.
+ * Tree is kept rooted at the first city.
+ * @author Majid Feyzi
+ * */
+public class IncrementalMst implements MstBuilder {
+
+	// Metric of distance between cities
+	private final DistanceMetric metric;
+
+	// Builder of MST that rebuilds the tree from scratch
+	private final MstBuilder builder;
+
+	// Count of cities in tree, parent of each city and key of metric for it's edge to parent
+	private int size;
+	private int[] parents = new int[16];
+	private double[] keys = new double[16];
+	private double weight;
+
+	// Breadth first order of tree from the first city, it's valid only if ordered is true
+	private int[] order = new int[16];
+	private boolean ordered;
+
+	// Changes of tree on adding each city, and true if tree must be rebuilt because changes are not known
+	private final ArrayDeque<Change> changes = new ArrayDeque<>();
+	private boolean stale;
+
+	// Edge that connects each vertex to the new city with the largest key on it's path
+	private int[] heaviest = new int[16];
+	private double[] newKeys = new double[16];
+	private boolean[] removedNew = new boolean[16], removedTree = new boolean[16];
+
+	/*
+	 * Parents and keys of vertices before adding a city, and weight of tree before it.
+	 * */
+	private static class Change {
+		private final int[] vertices, parents;
+		private final double[] keys;
+		private final double weight;
+
+		private Change(int[] vertices, int[] parents, double[] keys, double weight) {
+			this.vertices = vertices;
+			this.parents = parents;
+			this.keys = keys;
+			this.weight = weight;
+		}
+	}
+
+	public IncrementalMst(DistanceMetric metric) {
+		this(metric, metric.isEuclidean() ? new DelaunayMst(metric) : new PrimMst(metric));
+	}
+
+	public IncrementalMst(DistanceMetric metric, MstBuilder builder) {
+		this.metric = metric;
+		this.builder = builder;
+	}
+
+	/**
+	 * Add the last city of point set to tree.
+	 * If tree isn't tree of the other cities of point set, tree becomes stale and is rebuilt on next build.
+	 * @param points cities of problem that last city has just been added to
+	 * */
+	public synchronized void addLast(PointSet points) {
+		int n = points.size();
+		if (stale || n != size + 1) {
+			markStale(n);
+			return;
+		}
+		ensureCapacity(n);
+		int v = size;
+		if (v == 0) {
+			parents[0] = PointSet.NONE;
+			order[0] = 0;
+			ordered = true;
+			size = 1;
+			changes.push(new Change(new int[0], new int[0], new double[0], 0));
+			return;
+		}
+
+		// Keys of new edges from each vertex to the new city
+		double[] x = points.xs(), y = points.ys();
+		metric.keys(x[v], y[v], x, y, 0, v, newKeys);
+		order();
+
+		// Edges are identified by vertex u for new edge (u, v) and by -(c + 1) for tree edge from c to it's parent.
+		// Walk tree from leaves, path of a vertex to new city is either it's new edge or it's path through a child,
+		// so each child makes a cycle with it's parent and new city that it's heaviest edge is removed.
+		for (int u = 0; u < v; u++) {
+			heaviest[u] = u;
+			removedNew[u] = removedTree[u] = false;
+		}
+		for (int k = v - 1; k > 0; k--) {
+			int c = order[k], p = parents[c];
+			int childPath = heaviest[c], parentPath = heaviest[p], edge = -(c + 1);
+			double childKey = key(childPath), parentKey = key(parentPath), edgeKey = keys[c];
+			if (parentKey >= childKey && parentKey >= edgeKey) {
+				remove(parentPath);
+				heaviest[p] = childKey >= edgeKey ? childPath : edge;
+			} else if (edgeKey >= childKey) {
+				remove(edge);
+			} else {
+				remove(childPath);
+			}
+		}
+
+		// Collect kept edges and update weight of tree
+		int[] from = new int[n - 1], to = new int[n - 1];
+		int count = 0;
+		double change = 0;
+		for (int u = 0; u < v; u++) {
+			if (!removedNew[u]) {
+				from[count] = u;
+				to[count++] = v;
+				change += metric.toDistance(newKeys[u]);
+			}
+			if (u != 0) {
+				if (!removedTree[u]) {
+					from[count] = u;
+					to[count++] = parents[u];
+				} else {
+					change -= metric.toDistance(keys[u]);
+				}
+			}
+		}
+
+		// Find new parents from the first city and keep parents of vertices that have been changed
+		int[] newParents = new int[n];
+		bfs(n, from, to, count, 0, order, newParents);
+		int changed = 0;
+		for (int u = 1; u < v; u++)
+			if (newParents[u] != parents[u])
+				changed++;
+		int[] vertices = new int[changed], oldParents = new int[changed];
+		double[] oldKeys = new double[changed];
+		for (int u = 1, i = 0; u < v; u++) {
+			if (newParents[u] != parents[u]) {
+				vertices[i] = u;
+				oldParents[i] = parents[u];
+				oldKeys[i++] = keys[u];
+				parents[u] = newParents[u];
+				keys[u] = newParents[u] == v ? newKeys[u] : metric.key(x[u], y[u], x[parents[u]], y[parents[u]]);
+			}
+		}
+		changes.push(new Change(vertices, oldParents, oldKeys, weight));
+		parents[v] = newParents[v];
+		keys[v] = newKeys[parents[v]];
+		weight += change;
+		size = n;
+		ordered = true;
+	}
+
+	/**
+	 * Remove the last added city from tree and restore tree of other cities.
+	 * */
+	public synchronized void removeLast() {
+		if (size == 0)
+			return;
+		size--;
+		ordered = false;
+		if (changes.isEmpty()) {
+
+			// Tree has been rebuilt or loaded, so changes of adding the city are not known
+			stale = true;
+			return;
+		}
+		Change change = changes.pop();
+		for (int i = 0; i < change.vertices.length; i++) {
+			parents[change.vertices[i]] = change.parents[i];
+			keys[change.vertices[i]] = change.keys[i];
+		}
+		weight = change.weight;
+	}
+
+	/**
+	 * Remove all cities from tree.
+	 * */
+	public synchronized void clear() {
+		size = 0;
+		weight = 0;
+		ordered = false;
+		stale = false;
+		changes.clear();
+	}
+
+	/**
+	 * Check that tree is stale, so next build rebuilds it from scratch.
+	 * @return true if tree is stale
+	 * */
+	public synchronized boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Keep tree of point set as tree of it's cities, such as a tree that has been built in background.
+	 * Changes of previous cities are lost, so removing a city after it makes tree stale.
+	 * @param points cities with their MST rooted at the first city
+	 * */
+	public synchronized void load(PointSet points) {
+		int n = points.size();
+		ensureCapacity(n);
+		changes.clear();
+		stale = false;
+		size = n;
+		ordered = false;
+		weight = 0;
+		double[] x = points.xs(), y = points.ys();
+		for (int u = 0; u < n; u++) {
+			parents[u] = points.getParent(u);
+			if (u != 0) {
+				keys[u] = metric.key(x[u], y[u], x[parents[u]], y[parents[u]]);
+				weight += metric.toDistance(keys[u]);
+			}
+		}
+	}
+
+	/**
+	 * Get builder that keeps a copy of current tree, so a solver in background builds MST without lock of this tree.
+	 * Snapshot returns the copied tree for cities of the same count and builds other cities from scratch,
+	 * so snapshot of a stale tree rebuilds it on thread of solver.
+	 * @return builder of copy of tree
+	 * */
+	public synchronized MstBuilder snapshot() {
+		if (stale)
+			return builder;
+		return new Snapshot(Arrays.copyOf(parents, size), weight, builder);
+	}
+
+	/*
+	 * Copy of tree that is built from root on demand.
+	 * */
+	private static class Snapshot implements MstBuilder {
+		private final int[] parents;
+		private final double weight;
+		private final MstBuilder builder;
+
+		private Snapshot(int[] parents, double weight, MstBuilder builder) {
+			this.parents = parents;
+			this.weight = weight;
+			this.builder = builder;
+		}
+
+		@Override
+		public double build(PointSet points, int root, int[] mstOrder) {
+			int n = points.size();
+			if (n != parents.length)
+				return builder.build(points, root, mstOrder);
+			if (n == 0)
+				return 0;
+			int[] from = new int[n - 1], to = new int[n - 1];
+			for (int u = 1; u < n; u++) {
+				from[u - 1] = u;
+				to[u - 1] = parents[u];
+			}
+			int[] treeParents = new int[n];
+			bfs(n, from, to, n - 1, root, mstOrder, treeParents);
+			points.clearTree();
+			for (int k = n - 1; k > 0; k--)
+				points.attach(mstOrder[k], treeParents[mstOrder[k]]);
+			return weight;
+		}
+	}
+
+	@Override
+	public synchronized double build(PointSet points, int root, int[] mstOrder) {
+		int n = points.size();
+		if (stale || n != size)
+			rebuild(points);
+		if (n == 0)
+			return 0;
+
+		// Orient tree from root
+		int[] treeParents;
+		if (root == 0) {
+			order();
+			System.arraycopy(order, 0, mstOrder, 0, n);
+			treeParents = parents;
+		} else {
+			int[] from = new int[n - 1], to = new int[n - 1];
+			for (int u = 1; u < n; u++) {
+				from[u - 1] = u;
+				to[u - 1] = parents[u];
+			}
+			treeParents = new int[n];
+			bfs(n, from, to, n - 1, root, mstOrder, treeParents);
+		}
+
+		// Attach vertices in reverse order, so children of each vertex keep the order of adding to MST
+		points.clearTree();
+		for (int k = n - 1; k > 0; k--)
+			points.attach(mstOrder[k], treeParents[mstOrder[k]]);
+		return weight;
+	}
+
+	/*
+	 * Build tree of cities from scratch, changes of previous cities are lost.
+	 * */
+	private void rebuild(PointSet points) {
+		builder.build(points, 0, new int[points.size()]);
+		load(points);
+	}
+
+	/*
+	 * Forget tree of cities, it's rebuilt from scratch on next build.
+	 * */
+	private void markStale(int n) {
+		changes.clear();
+		stale = true;
+		size = n;
+		ordered = false;
+	}
+
+	/*
+	 * Find breadth first order of tree from the first city if it's not valid.
+	 * */
+	private void order() {
+		if (ordered)
+			return;
+		int n = size;
+		int[] from = new int[Math.max(n - 1, 0)], to = new int[from.length];
+		for (int u = 1; u < n; u++) {
+			from[u - 1] = u;
+			to[u - 1] = parents[u];
+		}
+		bfs(n, from, to, from.length, 0, order, new int[n]);
+		ordered = true;
+	}
+
+	/*
+	 * Walk tree of given edges from root in breadth first order and find parent of each vertex.
+	 * */
+	private static void bfs(int n, int[] from, int[] to, int edges, int root, int[] order, int[] parents) {
+
+		// Keep neighbours of each vertex, neighbours of v are in range degree[v] to degree[v + 1]
+		int[] degree = new int[n + 1];
+		for (int e = 0; e < edges; e++) {
+			degree[from[e] + 1]++;
+			degree[to[e] + 1]++;
+		}
+		for (int u = 0; u < n; u++)
+			degree[u + 1] += degree[u];
+		int[] adjacency = new int[2 * edges];
+		int[] fill = new int[n];
+		for (int e = 0; e < edges; e++) {
+			adjacency[degree[from[e]] + fill[from[e]]++] = to[e];
+			adjacency[degree[to[e]] + fill[to[e]]++] = from[e];
+		}
+
+		parents[root] = PointSet.NONE;
+		order[0] = root;
+		for (int head = 0, tail = 1; head < tail; head++) {
+			int u = order[head];
+			for (int i = degree[u]; i < degree[u + 1]; i++) {
+				int w = adjacency[i];
+				if (w != parents[u]) {
+					parents[w] = u;
+					order[tail++] = w;
+				}
+			}
+		}
+	}
+
+	private double key(int edge) {
+		return edge >= 0 ? newKeys[edge] : keys[-edge - 1];
+	}
+
+	private void remove(int edge) {
+		if (edge >= 0)
+			removedNew[edge] = true;
+		else
+			removedTree[-edge - 1] = true;
+	}
+
+	private void ensureCapacity(int n) {
+		if (n <= parents.length)
+			return;
+		int capacity = Math.max(n, parents.length * 2);
+		parents = Arrays.copyOf(parents, capacity);
+		keys = Arrays.copyOf(keys, capacity);
+		order = Arrays.copyOf(order, capacity);
+		heaviest = new int[capacity];
+		newKeys = new double[capacity];
+		removedNew = new boolean[capacity];
+		removedTree = new boolean[capacity];
+	}
+}
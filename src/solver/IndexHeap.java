@@ -0,0 +1,106 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of vertices by keys of them with decrease of keys, without boxing.
+ * Position of each vertex in heap is kept, so key of a vertex is decreased in O(log n) time.
+ * @author Majid Feyzi
+ * */
+class IndexHeap {
+
+	// Vertices of heap, their keys and position of each vertex in heap or -1 if it's not in heap
+	private final int[] heap;
+	private final double[] keys;
+	private final int[] position;
+	private int size;
+
+	IndexHeap(int n) {
+		heap = new int[n];
+		keys = new double[n];
+		position = new int[n];
+		Arrays.fill(position, -1);
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Add vertex with key or decrease it's key, larger keys of vertices in heap are ignored.
+	 * @param v vertex
+	 * @param key key of vertex
+	 * @return true if vertex has been added or it's key has been decreased
+	 * */
+	boolean offer(int v, double key) {
+		int i = position[v];
+		if (i == -1) {
+			i = size++;
+		} else if (key >= keys[v]) {
+			return false;
+		}
+		keys[v] = key;
+		up(v, i);
+		return true;
+	}
+
+	/**
+	 * Remove vertex with the smallest key.
+	 * @return vertex
+	 * */
+	int poll() {
+		int v = heap[0];
+		position[v] = -1;
+		if (--size > 0)
+			down(heap[size], 0);
+		return v;
+	}
+
+	/**
+	 * Remove all vertices of heap.
+	 * */
+	void clear() {
+		for (int i = 0; i < size; i++)
+			position[heap[i]] = -1;
+		size = 0;
+	}
+
+	/*
+	 * Move vertex up from position i until it's parent has a smaller key.
+	 * */
+	private void up(int v, int i) {
+		double key = keys[v];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			int p = heap[parent];
+			if (keys[p] <= key)
+				break;
+			heap[i] = p;
+			position[p] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		position[v] = i;
+	}
+
+	/*
+	 * Move vertex down from position i until it's children have larger keys.
+	 * */
+	private void down(int v, int i) {
+		double key = keys[v];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+				child++;
+			int c = heap[child];
+			if (key <= keys[c])
+				break;
+			heap[i] = c;
+			position[c] = i;
+			i = child;
+		}
+		heap[i] = v;
+		position[v] = i;
+	}
+}
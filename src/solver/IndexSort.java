@@ -0,0 +1,70 @@
+package solver;
+
+/**
+ * Sort of indices by keys of them without boxing.
+ * @author Majid Feyzi
+ * */
+class IndexSort {
+
+	private IndexSort() {}
+
+	/**
+	 * Sort indices by their keys in ascending order using quicksort.
+	 * @param ids indices to sort
+	 * @param keys keys of indices, key of index i is keys[i]
+	 * @param left first position of range to sort, inclusive
+	 * @param right last position of range to sort, inclusive
+	 * */
+	static void sort(int[] ids, double[] keys, int left, int right) {
+		while (right - left > 20) {
+
+			// Pick median of three as pivot
+			int median = (left + right) >>> 1;
+			int i = left + 1, j = right;
+			swap(ids, median, i);
+			if (keys[ids[left]] > keys[ids[right]])
+				swap(ids, left, right);
+			if (keys[ids[i]] > keys[ids[right]])
+				swap(ids, i, right);
+			if (keys[ids[left]] > keys[ids[i]])
+				swap(ids, left, i);
+
+			int pivot = ids[i];
+			double pivotKey = keys[pivot];
+			while (true) {
+				do i++; while (keys[ids[i]] < pivotKey);
+				do j--; while (keys[ids[j]] > pivotKey);
+				if (j < i)
+					break;
+				swap(ids, i, j);
+			}
+			ids[left + 1] = ids[j];
+			ids[j] = pivot;
+
+			// Sort smaller part recursively and continue with larger part to keep stack depth logarithmic
+			if (right - i + 1 >= j - left) {
+				sort(ids, keys, left, j - 1);
+				left = i;
+			} else {
+				sort(ids, keys, i, right);
+				right = j - 1;
+			}
+		}
+
+		// Insertion sort for small ranges
+		for (int i = left + 1; i <= right; i++) {
+			int id = ids[i];
+			double key = keys[id];
+			int j = i - 1;
+			while (j >= left && keys[ids[j]] > key)
+				ids[j + 1] = ids[j--];
+			ids[j + 1] = id;
+		}
+	}
+
+	private static void swap(int[] ids, int i, int j) {
+		int temp = ids[i];
+		ids[i] = ids[j];
+		ids[j] = temp;
+	}
+}
@@ -0,0 +1,343 @@
+package solver;
+
+/**
+ * Improvement of tours with 2-opt and Or-opt moves.
+ * Tour is kept in an array with position of each city, so cost of each move is evaluated in O(1).
+ * Moves are only searched between each city and it's k nearest neighbours, and cities that have no improving move
+ * are skipped with don't look bits until one of their tour neighbours changes.
+ * Search stops when no move improves the tour, when time limit is reached or when gap of tour cost from
+ * MST weight, that is a lower bound of optimal tour, reaches target gap.
+ * @author Majid Feyzi
+ * */
+public class LocalSearch {
+
+	// Default count of nearest neighbours that moves are searched between
+	public static final int DEFAULT_NEIGHBOURS = 10;
+
+	// Minimum gain of a move to apply it, it avoids loops caused by rounding errors
+	private static final double EPSILON = 1e-9;
+
+	// Maximum length of segments that Or-opt moves
+	private static final int MAX_SEGMENT = 3;
+
+	// Metric of distance between cities
+	private final DistanceMetric metric;
+
+	// Count of nearest neighbours of each city
+	private final int neighbours;
+
+	// Time limit of search in milliseconds
+	private final long timeLimit;
+
+	// Gap of tour cost from lower bound that search stops at, for example 0.1 to stop at 10% above MST weight
+	private final double targetGap;
+
+	// Memory budget of distance matrix, distances are computed on each evaluation for larger problems
+	private final long matrixBudget;
+
+	// State of current search
+	private double[] x, y;
+	private Distances distances;
+	private int n;
+	private int[] tour, position;
+
+	// Log that exchanges of edges are recorded in, null if they are not recorded
+	private SolveLog log;
+
+	public LocalSearch(DistanceMetric metric) {
+		this(metric, DEFAULT_NEIGHBOURS, Long.MAX_VALUE, 0);
+	}
+
+	/**
+	 * Create local search.
+	 * @param metric metric of distance between cities
+	 * @param neighbours count of nearest neighbours of each city to search moves
+	 * @param timeLimit time limit of search in milliseconds
+	 * @param targetGap gap of tour cost above MST weight to stop search
+	 * */
+	public LocalSearch(DistanceMetric metric, int neighbours, long timeLimit, double targetGap) {
+		this(metric, neighbours, timeLimit, targetGap, DistanceMatrix.DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Create local search that evaluates moves with a precomputed distance matrix if it fits in memory budget.
+	 * Matrix keeps distances as floats, so moves are compared with rounded distances and cost of final tour is exact.
+	 * @param metric metric of distance between cities
+	 * @param neighbours count of nearest neighbours of each city to search moves
+	 * @param timeLimit time limit of search in milliseconds
+	 * @param targetGap gap of tour cost above MST weight to stop search
+	 * @param matrixBudget maximum size of distance matrix in bytes, 0 to never build a matrix
+	 * */
+	public LocalSearch(DistanceMetric metric, int neighbours, long timeLimit, double targetGap, long matrixBudget) {
+		this.metric = metric;
+		this.neighbours = neighbours;
+		this.timeLimit = timeLimit;
+		this.targetGap = targetGap;
+		this.matrixBudget = matrixBudget;
+	}
+
+	/**
+	 * Improve tour of cities.
+	 * @param points cities of problem
+	 * @param initial tour to improve
+	 * @return improved tour that starts from the same city
+	 * */
+	public Tour improve(PointSet points, Tour initial) {
+		return improve(points, initial, new SolveMetrics());
+	}
+
+	/**
+	 * Improve tour of cities and record metrics of improvement.
+	 * Cost of tour is recorded after each pass over all cities, and search stops when solve is cancelled
+	 * or deadline of metrics passes. Initial tour is returned if deadline has passed before search.
+	 * @param points cities of problem
+	 * @param initial tour to improve
+	 * @param metrics metrics of solve that tour belongs to
+	 * @return improved tour that starts from the same city
+	 * */
+	public synchronized Tour improve(PointSet points, Tour initial, SolveMetrics metrics) {
+		n = initial.size();
+		if (n < 5 || metrics.isPastDeadline())
+			return initial;
+		metrics.begin(Phase.IMPROVEMENT, n);
+		log = metrics.getLog();
+
+		long deadline = timeLimit == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimit * 1_000_000;
+		double target = initial.getMstCost() * (1 + targetGap);
+
+		x = points.xs();
+		y = points.ys();
+		tour = initial.getOrder().clone();
+		position = new int[n];
+		for (int i = 0; i < n; i++)
+			position[tour[i]] = i;
+
+		// Neighbours of non euclidean metrics are found by comparing all pairs, so distances are computed once
+		// into a matrix that search reads too, if it fits in memory budget
+		distances = Distances.of(points, metric, metric.isEuclidean() ? 0 : matrixBudget);
+		int[][] candidates = distances instanceof DistanceMatrix ? NearestNeighbours.find(distances, neighbours) : NearestNeighbours.find(x, y, n, neighbours, metric);
+		metrics.countQueries(n);
+
+		// Queue of cities that their don't look bit is off
+		int[] queue = new int[n];
+		boolean[] queued = new boolean[n];
+		int head = 0, count = n;
+		for (int i = 0; i < n; i++) {
+			queue[i] = tour[i];
+			queued[tour[i]] = true;
+		}
+
+		double cost = initial.getCost();
+		int[] touched = new int[6];
+		for (long iteration = 0; count > 0 && cost > target; iteration++) {
+			if ((iteration & 255) == 0 && (System.nanoTime() > deadline || metrics.isStopped()))
+				break;
+			if (iteration > 0 && iteration % n == 0)
+				metrics.cost(cost);
+
+			int a = queue[head];
+			head = (head + 1) % n;
+			count--;
+			queued[a] = false;
+
+			double gain = twoOpt(a, candidates[a], touched);
+			if (gain <= 0)
+				gain = orOpt(a, candidates[a], touched);
+
+			// Turn off don't look bits of cities that their tour neighbours have changed
+			if (gain > 0) {
+				cost -= gain;
+				for (int city : touched) {
+					if (!queued[city]) {
+						queue[(head + count) % n] = city;
+						queued[city] = true;
+						count++;
+					}
+				}
+			}
+		}
+
+		// Rotate tour to start from the same city and find it's exact cost
+		int[] order = new int[n];
+		int offset = position[initial.getOrder()[0]];
+		double exact = 0;
+		for (int i = 0; i < n; i++)
+			order[i] = tour[(offset + i) % n];
+		for (int i = 0; i < n; i++)
+			exact += metric.distance(x[order[i]], y[order[i]], x[order[(i + 1) % n]], y[order[(i + 1) % n]]);
+
+		tour = position = null;
+		x = y = null;
+		distances = null;
+		log = null;
+		metrics.end(Phase.IMPROVEMENT);
+		metrics.cost(exact);
+		return new Tour(order, initial.getMstOrder(), exact, initial.getMstCost());
+	}
+
+	/*
+	 * Find and apply best 2-opt move that removes an edge of city a.
+	 * Return gain of move or 0 if there is no improving move.
+	 * */
+	private double twoOpt(int a, int[] candidates, int[] touched) {
+		for (int direction = 0; direction < 2; direction++) {
+			boolean forward = direction == 0;
+			int b = forward ? next(a) : previous(a);
+			double ab = distance(a, b);
+			for (int c : candidates) {
+				double ac = distance(a, c);
+
+				// Neighbours are sorted, so next neighbours can not give a positive gain
+				if (ac >= ab)
+					break;
+				int d = forward ? next(c) : previous(c);
+				if (c == b || d == a)
+					continue;
+				double gain = ab + distance(c, d) - ac - distance(b, d);
+				if (gain > EPSILON) {
+					move(a, b, c, d);
+					touched[0] = a;
+					touched[1] = b;
+					touched[2] = c;
+					touched[3] = d;
+					touched[4] = touched[5] = a;
+					return gain;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Find and apply an Or-opt move that moves a segment of up to three cities starting from city a
+	 * between two other adjacent cities near a.
+	 * Return gain of move or 0 if there is no improving move.
+	 * */
+	private double orOpt(int a, int[] candidates, int[] touched) {
+		for (int direction = 0; direction < 2; direction++) {
+			boolean forward = direction == 0;
+			int p = forward ? previous(a) : next(a);
+			int e = a;
+			for (int length = 1; length <= MAX_SEGMENT && length + 3 <= n; length++) {
+				if (length > 1)
+					e = forward ? next(e) : previous(e);
+				int nx = forward ? next(e) : previous(e);
+				double removeGain = distance(p, a) + distance(e, nx) - distance(p, nx);
+				if (removeGain <= EPSILON)
+					continue;
+
+				for (int c : candidates) {
+					double ac = distance(a, c);
+					if (ac >= removeGain)
+						break;
+					if (inSegment(c, a, length, forward))
+						continue;
+
+					// Try to insert segment between c and it's next or previous city
+					for (int side = 0; side < 2; side++) {
+						int u = side == 0 ? c : (forward ? previous(c) : next(c));
+						int w = forward ? next(u) : previous(u);
+						if (inSegment(u, a, length, forward) || inSegment(w, a, length, forward))
+							continue;
+						double uw = distance(u, w);
+						double adjacent = distance(u, a) + distance(e, w) - uw;
+						double reversed = distance(u, e) + distance(a, w) - uw;
+						double gain = removeGain - Math.min(adjacent, reversed);
+						if (gain > EPSILON) {
+							boolean keepOrder = adjacent <= reversed;
+							if (w == p)
+								moveSegment(nx, e, a, p, p, u, keepOrder);
+							else
+								moveSegment(p, a, e, nx, u, w, keepOrder);
+							touched[0] = p;
+							touched[1] = a;
+							touched[2] = e;
+							touched[3] = nx;
+							touched[4] = u;
+							touched[5] = w;
+							return gain;
+						}
+					}
+				}
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Move segment a..e that is between p and nx to between u and w, that w follows u in the same direction
+	 * that nx follows e, and u..w comes after nx in this direction.
+	 * If keepOrder is true a will be adjacent to u, otherwise e will be adjacent to u.
+	 * */
+	private void moveSegment(int p, int a, int e, int nx, int u, int w, boolean keepOrder) {
+		move(p, a, u, w);
+		if (u != nx)
+			move(p, u, nx, e);
+		if (keepOrder)
+			move(u, e, a, w);
+	}
+
+	/*
+	 * Check that city c is in segment of given length that starts from city a.
+	 * */
+	private boolean inSegment(int c, int a, int length, boolean forward) {
+		int offset = forward ? position[c] - position[a] : position[a] - position[c];
+		if (offset < 0)
+			offset += n;
+		return offset < length;
+	}
+
+	/*
+	 * Apply 2-opt move that removes edges (a, b) and (c, d) and adds edges (a, c) and (b, d).
+	 * b must follow a and d must follow c in the same direction of tour.
+	 * */
+	private void move(int a, int b, int c, int d) {
+		if (log != null)
+			log.exchange(a, b, c, d);
+		if (next(a) == b)
+			reverse(b, c);
+		else
+			reverse(c, b);
+	}
+
+	/*
+	 * Reverse path of tour from city from to city to in forward direction.
+	 * If path is longer than half of tour, the rest of tour is reversed instead that gives the same cycle.
+	 * */
+	private void reverse(int from, int to) {
+		int i = position[from], j = position[to];
+		int length = j - i;
+		if (length < 0)
+			length += n;
+		length++;
+		if (2 * length > n) {
+			int temp = i;
+			i = (j + 1) % n;
+			j = (temp - 1 + n) % n;
+			length = n - length;
+		}
+		for (int k = 0; k < length / 2; k++) {
+			int ci = tour[i], cj = tour[j];
+			tour[i] = cj;
+			position[cj] = i;
+			tour[j] = ci;
+			position[ci] = j;
+			i = i + 1 == n ? 0 : i + 1;
+			j = j == 0 ? n - 1 : j - 1;
+		}
+	}
+
+	private int next(int city) {
+		int i = position[city] + 1;
+		return tour[i == n ? 0 : i];
+	}
+
+	private int previous(int city) {
+		int i = position[city];
+		return tour[i == 0 ? n - 1 : i - 1];
+	}
+
+	private double distance(int a, int b) {
+		return distances.distance(a, b);
+	}
+}
@@ -0,0 +1,203 @@
+package solver;
+
+/**
+ * Distance metrics that can be used by solvers.
+ * Bulk methods are written as simple loops over coordinate arrays, so JIT can vectorize them.
+ * @author Majid Feyzi
+ * @see DistanceMetric
+ * */
+public enum Metric implements DistanceMetric {
+
+	/**
+	 * Straight line distance, comparison key is squared distance.
+	 * */
+	EUCLIDEAN {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			double dx = x2 - x1, dy = y2 - y1;
+			return Math.sqrt(dx * dx + dy * dy);
+		}
+
+		@Override
+		public double key(double x1, double y1, double x2, double y2) {
+			double dx = x2 - x1, dy = y2 - y1;
+			return dx * dx + dy * dy;
+		}
+
+		@Override
+		public double toDistance(double key) {
+			return Math.sqrt(key);
+		}
+
+		@Override
+		public void distances(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			for (int i = from; i < to; i++) {
+				double dx = xs[i] - x, dy = ys[i] - y;
+				out[i] = Math.sqrt(dx * dx + dy * dy);
+			}
+		}
+
+		@Override
+		public void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			for (int i = from; i < to; i++) {
+				double dx = xs[i] - x, dy = ys[i] - y;
+				out[i] = dx * dx + dy * dy;
+			}
+		}
+
+		@Override
+		public boolean isEuclidean() {
+			return true;
+		}
+	},
+
+	/**
+	 * Euclidean distance rounded to nearest integer like EUC_2D of TSPLIB.
+	 * */
+	EUC_2D {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			return toDistance(key(x1, y1, x2, y2));
+		}
+
+		@Override
+		public double key(double x1, double y1, double x2, double y2) {
+			return EUCLIDEAN.key(x1, y1, x2, y2);
+		}
+
+		@Override
+		public double toDistance(double key) {
+			return (int) (Math.sqrt(key) + 0.5);
+		}
+
+		@Override
+		public void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			EUCLIDEAN.keys(x, y, xs, ys, from, to, out);
+		}
+
+		@Override
+		public boolean isEuclidean() {
+			return true;
+		}
+	},
+
+	/**
+	 * Squared euclidean distance, it's only useful to compare distances.
+	 * */
+	SQUARED_EUCLIDEAN {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			return EUCLIDEAN.key(x1, y1, x2, y2);
+		}
+
+		@Override
+		public void distances(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			EUCLIDEAN.keys(x, y, xs, ys, from, to, out);
+		}
+
+		@Override
+		public void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			EUCLIDEAN.keys(x, y, xs, ys, from, to, out);
+		}
+
+		@Override
+		public boolean isEuclidean() {
+			return true;
+		}
+	},
+
+	/**
+	 * Sum of absolute differences of coordinates.
+	 * */
+	MANHATTAN {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			return Math.abs(x2 - x1) + Math.abs(y2 - y1);
+		}
+
+		@Override
+		public void distances(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			for (int i = from; i < to; i++)
+				out[i] = Math.abs(xs[i] - x) + Math.abs(ys[i] - y);
+		}
+
+		@Override
+		public void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			distances(x, y, xs, ys, from, to, out);
+		}
+	},
+
+	/**
+	 * Manhattan distance rounded to nearest integer like MAN_2D of TSPLIB.
+	 * */
+	MAN_2D {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			return toDistance(key(x1, y1, x2, y2));
+		}
+
+		@Override
+		public double key(double x1, double y1, double x2, double y2) {
+			return MANHATTAN.distance(x1, y1, x2, y2);
+		}
+
+		@Override
+		public double toDistance(double key) {
+			return (int) (key + 0.5);
+		}
+
+		@Override
+		public void keys(double x, double y, double[] xs, double[] ys, int from, int to, double[] out) {
+			MANHATTAN.distances(x, y, xs, ys, from, to, out);
+		}
+	},
+
+	/**
+	 * Geographical distance of TSPLIB in kilometers.
+	 * x is latitude and y is longitude in DDD.MM format, that integer part is degrees and fraction part is minutes.
+	 * */
+	GEO {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			double latitude1 = radians(x1), longitude1 = radians(y1);
+			double latitude2 = radians(x2), longitude2 = radians(y2);
+			double q1 = Math.cos(longitude1 - longitude2);
+			double q2 = Math.cos(latitude1 - latitude2);
+			double q3 = Math.cos(latitude1 + latitude2);
+			return (int) (GEO_RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+		}
+
+		/*
+		 * Convert DDD.MM coordinate to radians like TSPLIB.
+		 * */
+		private double radians(double coordinate) {
+			int degrees = (int) coordinate;
+			double minutes = coordinate - degrees;
+			return GEO_PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+		}
+	},
+
+	/**
+	 * Great circle distance in kilometers computed with haversine formula.
+	 * x is longitude and y is latitude in decimal degrees.
+	 * */
+	HAVERSINE {
+		@Override
+		public double distance(double x1, double y1, double x2, double y2) {
+			double latitude1 = Math.toRadians(y1), latitude2 = Math.toRadians(y2);
+			double sinLatitude = Math.sin((latitude2 - latitude1) / 2);
+			double sinLongitude = Math.sin(Math.toRadians(x2 - x1) / 2);
+			double h = sinLatitude * sinLatitude + Math.cos(latitude1) * Math.cos(latitude2) * sinLongitude * sinLongitude;
+			return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(h, 1.0)));
+		}
+	};
+
+	// Radius of earth in kilometers used by GEO metric of TSPLIB
+	private static final double GEO_RADIUS = 6378.388;
+
+	// Value of pi that TSPLIB uses to convert GEO coordinates, it's needed to get the same distances
+	private static final double GEO_PI = 3.141592;
+
+	// Mean radius of earth in kilometers
+	private static final double EARTH_RADIUS = 6371.0088;
+}
@@ -0,0 +1,30 @@
+package solver;
+
+/**
+ * Distances of cities that are computed from their coordinates on each call.
+ * @author Majid Feyzi
+ * @see Distances
+ * */
+class MetricDistances implements Distances {
+
+	private final double[] x, y;
+	private final int n;
+	private final DistanceMetric metric;
+
+	MetricDistances(PointSet points, DistanceMetric metric) {
+		this.x = points.xs();
+		this.y = points.ys();
+		this.n = points.size();
+		this.metric = metric;
+	}
+
+	@Override
+	public double distance(int a, int b) {
+		return metric.distance(x[a], y[a], x[b], y[b]);
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+}
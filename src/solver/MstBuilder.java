@@ -0,0 +1,20 @@
+package solver;
+
+/**
+ * Builder of minimum spanning tree of cities.
+ * Builders keep the tree in point set as parent, first child and next sibling links.
+ * @author Majid Feyzi
+ * @see PointSet
+ * */
+public interface MstBuilder {
+
+	/**
+	 * Build MST of cities and keep it in point set.
+	 * Parent of each vertex is added to MST before the vertex itself.
+	 * @param points cities of problem
+	 * @param root root of MST
+	 * @param mstOrder output array to keep cities in order they have been added to MST
+	 * @return total weight of MST
+	 * */
+	double build(PointSet points, int root, int[] mstOrder);
+}
@@ -0,0 +1,97 @@
+package solver;
+
+/**
+ * 2-approximation solver of TSP problem.
+ * It builds MST of cities and returns preorder of MST as tour.
+ * For euclidean metrics MST is built from Delaunay triangulation in O(n log n) time,
+ * and for other metrics it's built with Prim algorithm over complete graph in O(n^2) time.
+ * @author Majid Feyzi
+ * @see MstBuilder
+ * */
+public class MstTourSolver implements TourSolver {
+
+	// Metric of distance between cities
+	private final DistanceMetric metric;
+
+	// Builder of MST that tour is built from
+	private final MstBuilder builder;
+
+	public MstTourSolver() {
+		this(Metric.EUCLIDEAN);
+	}
+
+	public MstTourSolver(DistanceMetric metric) {
+		this(metric, metric.isEuclidean() ? new DelaunayMst(metric) : new PrimMst(metric));
+	}
+
+	public MstTourSolver(DistanceMetric metric, MstBuilder builder) {
+		this.metric = metric;
+		this.builder = builder;
+	}
+
+	@Override
+	public Tour solve(PointSet points, int start, SolveMetrics metrics) {
+		int n = points.size();
+		if (n == 0)
+			return new Tour(new int[0], new int[0], 0, 0);
+
+		metrics.begin(Phase.MST, n);
+		int[] mstOrder = new int[n];
+		double mstCost = builder.build(points, start, mstOrder);
+		metrics.end(Phase.MST);
+		if (metrics.getLog() != null)
+			metrics.getLog().mst(points, mstOrder);
+
+		// Tour is preorder of MST
+		metrics.begin(Phase.TRAVERSAL, n);
+		int[] order = new int[n];
+		preorder(points, start, order);
+		double cost = cost(points, order, metric);
+		metrics.end(Phase.TRAVERSAL);
+		metrics.cost(cost);
+		if (metrics.getLog() != null)
+			metrics.getLog().tour(order);
+
+		return new Tour(order, mstOrder, cost, mstCost);
+	}
+
+	/**
+	 * Find cost of tour that visits cities in given order and returns to the first city.
+	 * @param points cities of problem
+	 * @param order order of visiting cities
+	 * @param metric metric of distance between cities
+	 * @return total cost of tour
+	 * */
+	static double cost(PointSet points, int[] order, DistanceMetric metric) {
+		double[] x = points.xs(), y = points.ys();
+		int n = order.length;
+		double cost = 0;
+		for (int i = 0; i < n; i++) {
+			int a = order[i], b = order[i + 1 == n ? 0 : i + 1];
+			cost += metric.distance(x[a], y[a], x[b], y[b]);
+		}
+		return cost;
+	}
+
+	/*
+	 * Keep preorder of MST from given root in order array without recursion, so deep trees such as paths
+	 * don't overflow thread stack. Walk goes down through first children and climbs up through parent links
+	 * to next sibling of nearest ancestor that has one, so each edge is walked twice and no stack is needed.
+	 * */
+	private static void preorder(PointSet points, int root, int[] order) {
+		int position = 0, vertex = root;
+		while (true) {
+			order[position++] = vertex;
+			int child = points.getFirstChild(vertex);
+			if (child != PointSet.NONE) {
+				vertex = child;
+				continue;
+			}
+			while (vertex != root && points.getNextSibling(vertex) == PointSet.NONE)
+				vertex = points.getParent(vertex);
+			if (vertex == root)
+				return;
+			vertex = points.getNextSibling(vertex);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package solver;
+
+import solver.spatial.KdTree;
+
+/**
+ * Finder of k nearest neighbours of cities.
+ * Neighbours of each city are sorted by distance and are used as candidate lists of local search and matching.
+ * For euclidean metrics neighbours are found with a k-d tree in O(n k log n) time,
+ * for other metrics all pairs of cities are compared.
+ * @author Majid Feyzi
+ * */
+public class NearestNeighbours {
+
+	private NearestNeighbours() {}
+
+	/**
+	 * Find k nearest neighbours of each city among first n cities.
+	 * @param x x coordinates of cities
+	 * @param y y coordinates of cities
+	 * @param n count of cities
+	 * @param k count of neighbours
+	 * @param metric metric of distance between cities
+	 * @return nearest neighbours of each city sorted by distance
+	 * */
+	public static int[][] find(double[] x, double[] y, int n, int k, DistanceMetric metric) {
+		k = Math.max(0, Math.min(k, n - 1));
+		int[][] candidates = new int[n][k];
+		if (k == 0)
+			return candidates;
+		if (metric.isEuclidean()) {
+			KdTree tree = new KdTree(x, y, n);
+			int[] nearest = new int[k + 1];
+			for (int i = 0; i < n; i++) {
+
+				// Find one more neighbour because city itself or it's duplicate may be found
+				int count = tree.nearest(x[i], y[i], k + 1, nearest);
+				for (int j = 0, size = 0; j < count && size < k; j++)
+					if (nearest[j] != i)
+						candidates[i][size++] = nearest[j];
+			}
+			return candidates;
+		}
+		double[] keys = new double[n];
+		double[] nearestKeys = new double[k];
+		for (int i = 0; i < n; i++) {
+			metric.keys(x[i], y[i], x, y, 0, n, keys);
+			int[] nearest = candidates[i];
+			int size = 0;
+			for (int j = 0; j < n; j++) {
+				if (j == i || (size == k && keys[j] >= nearestKeys[k - 1]))
+					continue;
+
+				// Insert neighbour into sorted list of nearest neighbours
+				int position = size < k ? size++ : k - 1;
+				while (position > 0 && nearestKeys[position - 1] > keys[j]) {
+					nearestKeys[position] = nearestKeys[position - 1];
+					nearest[position] = nearest[position - 1];
+					position--;
+				}
+				nearestKeys[position] = keys[j];
+				nearest[position] = j;
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Find k nearest neighbours of each city by comparing all pairs of precomputed distances.
+	 * @param distances distances of cities
+	 * @param k count of neighbours
+	 * @return nearest neighbours of each city sorted by distance
+	 * */
+	public static int[][] find(Distances distances, int k) {
+		int n = distances.size();
+		k = Math.max(0, Math.min(k, n - 1));
+		int[][] candidates = new int[n][k];
+		if (k == 0)
+			return candidates;
+		double[] nearestKeys = new double[k];
+		for (int i = 0; i < n; i++) {
+			int[] nearest = candidates[i];
+			int size = 0;
+			for (int j = 0; j < n; j++) {
+				if (j == i)
+					continue;
+				double key = distances.distance(i, j);
+				if (size == k && key >= nearestKeys[k - 1])
+					continue;
+
+				// Insert neighbour into sorted list of nearest neighbours
+				int position = size < k ? size++ : k - 1;
+				while (position > 0 && nearestKeys[position - 1] > key) {
+					nearestKeys[position] = nearestKeys[position - 1];
+					nearest[position] = nearest[position - 1];
+					position--;
+				}
+				nearestKeys[position] = key;
+				nearest[position] = j;
+			}
+		}
+		return candidates;
+	}
+}
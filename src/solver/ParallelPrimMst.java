@@ -0,0 +1,115 @@
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builder of MST of complete graph of cities with Prim algorithm that runs on all cores.
+ * Each pass of Prim that updates best distances and finds the nearest city is split into ranges
+ * and ranges are scanned in a fork join pool.
+ * Minimums of ranges are merged in order of ranges and ties are broken by position,
+ * so result is exactly the same as sequential Prim for the same input.
+ * Builder that creates it's own pool must be closed to shut the pool down.
+ * @author Majid Feyzi
+ * @see PrimMst
+ * */
+public class ParallelPrimMst extends PrimMst implements AutoCloseable {
+
+	// Minimum count of cities that each task scans, smaller ranges are scanned sequentially
+	private static final int GRAIN = 8192;
+
+	private final ForkJoinPool pool;
+
+	// True if pool has been created by builder, so closing builder shuts it down
+	private final boolean owned;
+
+	// Count of ranges that each pass is split into
+	private final int parallelism;
+
+	/**
+	 * Create builder that runs on common pool with it's parallelism.
+	 * @param metric metric of distance between cities
+	 * */
+	public ParallelPrimMst(DistanceMetric metric) {
+		this(metric, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create builder that runs on a new pool with given parallelism, pool is shut down by closing builder.
+	 * @param metric metric of distance between cities
+	 * @param parallelism count of threads
+	 * */
+	public ParallelPrimMst(DistanceMetric metric, int parallelism) {
+		this(metric, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Create builder that runs on given pool.
+	 * @param metric metric of distance between cities
+	 * @param pool pool to run tasks
+	 * */
+	public ParallelPrimMst(DistanceMetric metric, ForkJoinPool pool) {
+		this(metric, pool, false);
+	}
+
+	private ParallelPrimMst(DistanceMetric metric, ForkJoinPool pool, boolean owned) {
+		super(metric);
+		this.pool = pool;
+		this.owned = owned;
+		this.parallelism = pool.getParallelism();
+	}
+
+	/**
+	 * Shut down pool of builder if builder has created it, pools that have been given to builder are kept.
+	 * */
+	@Override
+	public void close() {
+		if (owned)
+			pool.shutdown();
+	}
+
+	@Override
+	protected int scan(State state, int vertex, double nx, double ny, int remain) {
+		if (parallelism <= 1 || remain < 2 * GRAIN)
+			return scan(state, vertex, nx, ny, 0, remain);
+		int grain = Math.max(GRAIN, (remain + parallelism - 1) / parallelism);
+		return pool.invoke(new Scan(state, vertex, nx, ny, 0, remain, grain));
+	}
+
+	/*
+	 * Task that scans a range of remaining cities and returns position of the nearest one.
+	 * */
+	@SuppressWarnings("serial")
+	private class Scan extends RecursiveTask<Integer> {
+
+		private final State state;
+		private final int vertex;
+		private final double nx, ny;
+		private final int from, to, grain;
+
+		Scan(State state, int vertex, double nx, double ny, int from, int to, int grain) {
+			this.state = state;
+			this.vertex = vertex;
+			this.nx = nx;
+			this.ny = ny;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= grain)
+				return scan(state, vertex, nx, ny, from, to);
+
+			int middle = (from + to) >>> 1;
+			Scan right = new Scan(state, vertex, nx, ny, middle, to, grain);
+			right.fork();
+			int left = new Scan(state, vertex, nx, ny, from, middle, grain).compute();
+			int other = right.join();
+
+			// Left range has smaller positions, so it wins ties like sequential scan
+			return state.best[other] < state.best[left] ? other : left;
+		}
+	}
+}
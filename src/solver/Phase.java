@@ -0,0 +1,24 @@
+package solver;
+
+/**
+ * Phases of solving a TSP problem that their wall time is measured separately.
+ * @author Majid Feyzi
+ * @see SolveMetrics
+ * */
+public enum Phase {
+
+	// Reading or generating cities of problem and ordering them in memory
+	LOAD,
+
+	// Building minimum spanning tree of cities
+	MST,
+
+	// Matching odd vertices of MST in Christofides algorithm
+	MATCHING,
+
+	// Turning tree or multigraph into a tour
+	TRAVERSAL,
+
+	// Improving tour with local search
+	IMPROVEMENT
+}
@@ -0,0 +1,26 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a phase of solving, that is committed only when flight recording is enabled
+ * with tsp.jfr system property.
+ * @author Majid Feyzi
+ * @see SolveMetrics
+ * */
+@Name("solver.Phase")
+@Label("Solve Phase")
+@Category("TSP")
+@Description("Wall time of a phase of solving a TSP problem")
+class PhaseEvent extends Event {
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Cities")
+	int cities;
+}
@@ -0,0 +1,222 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Store of cities and MST of them in primitive arrays.
+ * Coordinates are kept in separate x and y arrays and MST is kept as parent, first child and next sibling
+ * arrays, so every city costs some primitive array slots instead of an object with a list of children.
+ * Grid, solvers and readers and writers of instances share this class as model of problem.
+ * @author Majid Feyzi
+ * */
+public class PointSet {
+
+	// Value of parent, child and sibling links when there is no such vertex
+	public static final int NONE = -1;
+
+	// Coordinates of cities, only first size items are valid
+	private double[] x, y;
+
+	// Count of cities
+	private int size;
+
+	// MST of cities, each vertex has link to it's parent, it's first child and it's next sibling
+	private int[] parent, firstChild, nextSibling;
+
+	public PointSet() {
+		this(16);
+	}
+
+	public PointSet(int capacity) {
+		capacity = Math.max(capacity, 1);
+		x = new double[capacity];
+		y = new double[capacity];
+		parent = new int[capacity];
+		firstChild = new int[capacity];
+		nextSibling = new int[capacity];
+	}
+
+	/**
+	 * Create point set from coordinates arrays, arrays are used directly without copy.
+	 * @param x x coordinates of cities
+	 * @param y y coordinates of cities
+	 * */
+	public PointSet(double[] x, double[] y) {
+		if (x.length != y.length)
+			throw new IllegalArgumentException("Length of x and y coordinates must be equal");
+		this.x = x;
+		this.y = y;
+		size = x.length;
+		parent = new int[size];
+		firstChild = new int[size];
+		nextSibling = new int[size];
+		clearTree();
+	}
+
+	/**
+	 * Add new city to the end of set.
+	 * @param x x coordinate of city
+	 * @param y y coordinate of city
+	 * @return index of added city
+	 * */
+	public int add(double x, double y) {
+		if (size == this.x.length)
+			grow(size * 2);
+		this.x[size] = x;
+		this.y[size] = y;
+		parent[size] = firstChild[size] = nextSibling[size] = NONE;
+		return size++;
+	}
+
+	/**
+	 * Remove last added city.
+	 * MST is not valid after removing so it will be cleared.
+	 * */
+	public void removeLast() {
+		if (size > 0) {
+			size--;
+			clearTree();
+		}
+	}
+
+	/**
+	 * Copy cities into a new point set, MST of cities is not copied.
+	 * Copy can be solved on another thread while cities of this set change.
+	 * @return new point set with the same cities
+	 * */
+	public PointSet copy() {
+		return new PointSet(Arrays.copyOf(x, size), Arrays.copyOf(y, size));
+	}
+
+	/**
+	 * Reorder cities in place, so city order[i] becomes city i.
+	 * Solvers walk arrays of cities faster when cities that are close in plane are close in memory too,
+	 * e.g. in order of a space filling curve. Links of MST are moved to new indices of cities.
+	 * Reordering by inverse of a permutation restores previous order.
+	 * @param order permutation of cities
+	 * @see HilbertCurve
+	 * */
+	public void reorder(int[] order) {
+		if (order.length != size)
+			throw new IllegalArgumentException("Order has " + order.length + " cities instead of " + size);
+		int[] index = new int[size];
+		Arrays.fill(index, NONE);
+		for (int i = 0; i < size; i++) {
+			if (order[i] < 0 || order[i] >= size || index[order[i]] != NONE)
+				throw new IllegalArgumentException("Order is not a permutation of cities");
+			index[order[i]] = i;
+		}
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++)
+			values[i] = x[order[i]];
+		System.arraycopy(values, 0, x, 0, size);
+		for (int i = 0; i < size; i++)
+			values[i] = y[order[i]];
+		System.arraycopy(values, 0, y, 0, size);
+		int[] links = new int[size];
+		for (int[] link : new int[][] { parent, firstChild, nextSibling }) {
+			for (int i = 0; i < size; i++) {
+				int old = link[order[i]];
+				links[i] = old == NONE ? NONE : index[old];
+			}
+			System.arraycopy(links, 0, link, 0, size);
+		}
+	}
+
+	/**
+	 * Remove all cities.
+	 * */
+	public void clear() {
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+	/**
+	 * Get x coordinates array to use in hot loops.
+	 * Length of array may be more than size and only first size items are valid.
+	 * @return x coordinates array
+	 * */
+	public double[] xs() {
+		return x;
+	}
+
+	/**
+	 * Get y coordinates array to use in hot loops.
+	 * Length of array may be more than size and only first size items are valid.
+	 * @return y coordinates array
+	 * */
+	public double[] ys() {
+		return y;
+	}
+
+	/**
+	 * Find index of city with given coordinates.
+	 * @param x x coordinate of city
+	 * @param y y coordinate of city
+	 * @return index of city or -1 if there is no city with this coordinates
+	 * */
+	public int indexOf(double x, double y) {
+		for (int i = 0; i < size; i++)
+			if (this.x[i] == x && this.y[i] == y)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Remove all links of MST.
+	 * */
+	public void clearTree() {
+		Arrays.fill(parent, 0, size, NONE);
+		Arrays.fill(firstChild, 0, size, NONE);
+		Arrays.fill(nextSibling, 0, size, NONE);
+	}
+
+	/**
+	 * Add vertex to MST as first child of given parent.
+	 * @param child vertex to add
+	 * @param parent parent of vertex in MST
+	 * */
+	public void attach(int child, int parent) {
+		this.parent[child] = parent;
+		nextSibling[child] = firstChild[parent];
+		firstChild[parent] = child;
+	}
+
+	public int getParent(int i) {
+		return parent[i];
+	}
+
+	public int getFirstChild(int i) {
+		return firstChild[i];
+	}
+
+	public int getNextSibling(int i) {
+		return nextSibling[i];
+	}
+
+	/*
+	 * Grow arrays to new capacity.
+	 * */
+	private void grow(int capacity) {
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling, capacity);
+	}
+}
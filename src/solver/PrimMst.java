@@ -0,0 +1,134 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Builder of MST of complete graph of cities with Prim algorithm.
+ * Prim keeps best distance of each remaining city to the tree in an array, so building MST
+ * takes O(n^2) time and O(n) extra memory.
+ * Remaining cities are kept packed at start of arrays, so every pass of Prim is a simple loop
+ * over contiguous arrays without checking which city is already in MST.
+ * Prim only compares comparison keys of metric, so for euclidean metric it never takes square root.
+ * @author Majid Feyzi
+ * */
+public class PrimMst implements MstBuilder {
+
+	// Metric of distance between cities
+	protected final DistanceMetric metric;
+
+	public PrimMst(DistanceMetric metric) {
+		this.metric = metric;
+	}
+
+	@Override
+	public double build(PointSet points, int root, int[] mstOrder) {
+		int n = points.size();
+		State state = new State(points);
+
+		int[] parentOf = new int[n];
+		double weight = 0;
+		int remain = n;
+		int next = root;
+		for (int k = 0; k < n; k++) {
+
+			// Add next vertex to MST and take distance of picked edge only once from it's key
+			int vertex = state.index[next];
+			mstOrder[k] = vertex;
+			parentOf[vertex] = state.parents[next];
+			if (k > 0)
+				weight += metric.toDistance(state.best[next]);
+			double nx = state.x[next], ny = state.y[next];
+
+			// Remove vertex from remaining cities by moving last remaining city into it's place
+			remain--;
+			state.x[next] = state.x[remain];
+			state.y[next] = state.y[remain];
+			state.index[next] = state.index[remain];
+			state.best[next] = state.best[remain];
+			state.parents[next] = state.parents[remain];
+
+			// Update best distance of remaining vertices using the new vertex
+			// and find the next vertex with minimum distance from MST vertices
+			if (remain > 0)
+				next = scan(state, vertex, nx, ny, remain);
+		}
+
+		// Attach vertices in reverse order, so children of each vertex keep the order of adding to MST
+		points.clearTree();
+		for (int k = n - 1; k > 0; k--)
+			points.attach(mstOrder[k], parentOf[mstOrder[k]]);
+
+		return weight;
+	}
+
+	/**
+	 * Update best distance of all remaining cities using new vertex of MST and find the nearest one.
+	 * @param state state of algorithm
+	 * @param vertex index of new vertex of MST
+	 * @param nx x coordinate of new vertex
+	 * @param ny y coordinate of new vertex
+	 * @param remain count of remaining cities
+	 * @return position of nearest remaining city
+	 * */
+	protected int scan(State state, int vertex, double nx, double ny, int remain) {
+		return scan(state, vertex, nx, ny, 0, remain);
+	}
+
+	/**
+	 * Update best distance of a range of remaining cities using new vertex of MST and find the nearest one.
+	 * In case of equal distances the city with smaller position is picked.
+	 * @param from first position of range, inclusive
+	 * @param to last position of range, exclusive
+	 * @return position of nearest city in range
+	 * */
+	protected final int scan(State state, int vertex, double nx, double ny, int from, int to) {
+		double[] best = state.best, keys = state.keys;
+		int[] parents = state.parents;
+		metric.keys(nx, ny, state.x, state.y, from, to, keys);
+		int next = from;
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			if (keys[i] < best[i]) {
+				best[i] = keys[i];
+				parents[i] = vertex;
+			}
+			if (best[i] < min) {
+				min = best[i];
+				next = i;
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Arrays of remaining cities, first remaining items of arrays are valid.
+	 * */
+	protected static class State {
+
+		// Coordinates and indices of remaining cities
+		final double[] x, y;
+		final int[] index;
+
+		// Best distance key of each remaining city from MST vertices and the MST vertex that gives it
+		final double[] best;
+		final int[] parents;
+
+		// Keys of distance of remaining cities from the new vertex
+		final double[] keys;
+
+		State(PointSet points) {
+			int n = points.size();
+			x = Arrays.copyOf(points.xs(), n);
+			y = Arrays.copyOf(points.ys(), n);
+			index = new int[n];
+			best = new double[n];
+			parents = new int[n];
+			keys = new double[n];
+			for (int i = 0; i < n; i++) {
+				index[i] = i;
+				best[i] = Double.POSITIVE_INFINITY;
+				parents[i] = PointSet.NONE;
+			}
+		}
+	}
+}
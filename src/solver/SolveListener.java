@@ -0,0 +1,46 @@
+package solver;
+
+/**
+ * Listener of progress of solving a TSP problem.
+ * All methods are called on the thread that solves the problem and have empty default implementations,
+ * so listeners only override events they need.
+ * @author Majid Feyzi
+ * @see SolveMetrics
+ * */
+public interface SolveListener {
+
+	// Listener that ignores all events
+	SolveListener NONE = new SolveListener() {};
+
+	/**
+	 * This method notify end of a phase of solving.
+	 * @param phase phase that is finished
+	 * @param nanos wall time of phase in nanoseconds
+	 * */
+	default void onPhaseComplete(Phase phase, long nanos) {}
+
+	/**
+	 * This method notify cost of current tour when a tour is built or improved.
+	 * @param cost cost of current tour
+	 * @param nanos time from start of solving in nanoseconds
+	 * */
+	default void onCostChanged(double cost, long nanos) {}
+
+	/**
+	 * This method notify all metrics of solving after finish.
+	 * @param metrics metrics of finished solve
+	 * */
+	default void onMetricsComplete(SolveMetrics metrics) {}
+
+	/**
+	 * This method notify final result of solving.
+	 * @param result tour, it's cost, lower bound and phase times of solve
+	 * */
+	default void onSolveComplete(SolveResult result) {}
+
+	/**
+	 * This method notify that solving has failed, has been cancelled or has passed it's deadline.
+	 * @param error cause of failure
+	 * */
+	default void onSolveFailed(Throwable error) {}
+}
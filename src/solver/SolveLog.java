@@ -0,0 +1,83 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Compact log of events of a solve that can be replayed after solving, so visualisation doesn't slow down solver.
+ * Events are edges added to MST, edges added to tour and exchanges of tour edges by local search.
+ * Each event is kept in one byte of type and four integers of vertices.
+ * @author Majid Feyzi
+ * @see SolveMetrics
+ * */
+public class SolveLog {
+
+	// Types of events
+	public static final byte MST_EDGE = 0, TOUR_EDGE = 1, EXCHANGE = 2;
+
+	// Type of each event
+	private byte[] types = new byte[64];
+
+	// Four vertices of each event, unused vertices are PointSet.NONE
+	private int[] vertices = new int[256];
+
+	// Count of events
+	private int size;
+
+	/**
+	 * Record edges of MST in order of adding them to tree.
+	 * @param points cities that MST is kept in
+	 * @param mstOrder vertices in order of adding to MST
+	 * */
+	public void mst(PointSet points, int[] mstOrder) {
+		for (int i = 1; i < mstOrder.length; i++)
+			add(MST_EDGE, points.getParent(mstOrder[i]), mstOrder[i], PointSet.NONE, PointSet.NONE);
+	}
+
+	/**
+	 * Record edges of tour in order of visiting, including the edge that returns to first city.
+	 * @param order cities in order of visiting
+	 * */
+	public void tour(int[] order) {
+		int n = order.length;
+		for (int i = 0; i < n && n > 1; i++)
+			add(TOUR_EDGE, order[i], order[i + 1 == n ? 0 : i + 1], PointSet.NONE, PointSet.NONE);
+	}
+
+	/**
+	 * Record exchange of edges (a, b) and (c, d) of tour with edges (a, c) and (b, d).
+	 * */
+	public void exchange(int a, int b, int c, int d) {
+		add(EXCHANGE, a, b, c, d);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public byte getType(int event) {
+		return types[event];
+	}
+
+	/**
+	 * Get a vertex of an event.
+	 * @param event index of event
+	 * @param k index of vertex of event from 0 to 3, edges have two vertices and exchanges have four
+	 * @return index of vertex
+	 * */
+	public int getVertex(int event, int k) {
+		return vertices[4 * event + k];
+	}
+
+	private void add(byte type, int a, int b, int c, int d) {
+		if (size == types.length) {
+			types = Arrays.copyOf(types, size * 2);
+			vertices = Arrays.copyOf(vertices, size * 8);
+		}
+		types[size] = type;
+		int i = 4 * size++;
+		vertices[i] = a;
+		vertices[i + 1] = b;
+		vertices[i + 2] = c;
+		vertices[i + 3] = d;
+	}
+}
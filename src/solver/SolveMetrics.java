@@ -0,0 +1,326 @@
+package solver;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Metrics of solving a TSP problem, such as wall time of each phase, count of distance evaluations and
+ * nearest neighbour queries, bytes allocated by solving thread and cost of tour over time.
+ * Each solve has it's own metrics that is filled by solvers while they run and it's not thread safe,
+ * except cancellation and deadline that other threads can set. Solvers check them at start of each phase
+ * and local search checks them while it runs, so a phase that has started is not interrupted.
+ * Events are sent to listener as they happen, and to flight recorder if tsp.jfr system property is true.
+ * Allocations are not measured by metrics that are created without listener, because it needs management beans.
+ * Metrics that are created on another thread than the solving thread must be started by the solving thread,
+ * because allocations are counted per thread.
+ * @author Majid Feyzi
+ * @see SolveListener
+ * @see CountingMetric
+ * */
+public class SolveMetrics {
+
+	// Send phases to flight recorder as custom events
+	private static final boolean FLIGHT_RECORDER = Boolean.getBoolean("tsp.jfr");
+
+	// Listener of events of solving
+	private final SolveListener listener;
+
+	// Start time of solve and allocated bytes of solving thread before solve, or -1 if allocations are not measured
+	private long startTime, startAllocated;
+
+	// True if bytes allocated by solving thread are measured
+	private final boolean allocations;
+
+	// Metric that counts distance evaluations and it's count before solve, null if they are not counted
+	private CountingMetric counter;
+	private long startDistances;
+
+	// Start time and total wall time of each phase, start time is 0 for a phase that is not running
+	private final long[] phaseStart = new long[Phase.values().length];
+	private final long[] phaseTime = new long[Phase.values().length];
+
+	// Flight recorder event of each running phase
+	private final Object[] events = new Object[Phase.values().length];
+
+	// Solve is cancelled by another thread
+	private volatile boolean cancelled;
+
+	// Deadline of solve in nanoseconds of System.nanoTime, or Long.MAX_VALUE without deadline
+	private volatile long deadline = Long.MAX_VALUE;
+
+	// Log of events of solve, null if events are not recorded
+	private SolveLog log;
+
+	// Count of cities of problem
+	private int cities;
+
+	// Counters of solve that are final after finish
+	private long distances, queries, allocated = -1;
+
+	// Cost of tour over time
+	private double[] costs = new double[16];
+	private long[] costTimes = new long[16];
+	private int costCount;
+
+	/**
+	 * Create metrics of a solve that starts now, without listener and allocation measurement.
+	 * */
+	public SolveMetrics() {
+		listener = SolveListener.NONE;
+		allocations = false;
+		startAllocated = -1;
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Create metrics of a solve that starts now.
+	 * @param listener listener of events of solve
+	 * */
+	public SolveMetrics(SolveListener listener) {
+		this.listener = listener;
+		allocations = true;
+		startAllocated = Allocation.current();
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Start solve on current thread, it takes start time and allocated bytes of current thread again.
+	 * It must be called by solving thread if metrics have been created on another thread.
+	 * */
+	public void start() {
+		if (allocations)
+			startAllocated = Allocation.current();
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Count distance evaluations of a metric from now to finish of solve.
+	 * @param metric metric that solvers use
+	 * */
+	public void watch(CountingMetric metric) {
+		counter = metric;
+		startDistances = metric.getCount();
+	}
+
+	/**
+	 * Start measuring wall time of a phase.
+	 * @param phase phase that starts
+	 * @param cities count of cities that phase works on
+	 * @throws CancellationException if solve is cancelled or it's deadline has passed
+	 * */
+	public void begin(Phase phase, int cities) {
+		if (cancelled)
+			throw new CancellationException("Solve has been cancelled");
+		if (isPastDeadline())
+			throw new CancellationException("Deadline of solve has passed");
+		this.cities = Math.max(this.cities, cities);
+		if (FLIGHT_RECORDER)
+			events[phase.ordinal()] = Flight.begin();
+		phaseStart[phase.ordinal()] = System.nanoTime();
+	}
+
+	/**
+	 * Stop measuring wall time of a phase and notify listener.
+	 * @param phase phase that ends, it must be started before
+	 * */
+	public void end(Phase phase) {
+		int i = phase.ordinal();
+		long nanos = System.nanoTime() - phaseStart[i];
+		phaseStart[i] = 0;
+		phaseTime[i] += nanos;
+		if (events[i] != null) {
+			Flight.commit(events[i], phase, cities);
+			events[i] = null;
+		}
+		listener.onPhaseComplete(phase, nanos);
+	}
+
+	/**
+	 * Record cost of current tour.
+	 * @param cost cost of tour
+	 * */
+	public void cost(double cost) {
+		long nanos = System.nanoTime() - startTime;
+		if (costCount == costs.length) {
+			costs = Arrays.copyOf(costs, costCount * 2);
+			costTimes = Arrays.copyOf(costTimes, costCount * 2);
+		}
+		costs[costCount] = cost;
+		costTimes[costCount++] = nanos;
+		listener.onCostChanged(cost, nanos);
+	}
+
+	/**
+	 * Add count of nearest neighbour queries.
+	 * @param count count of queries
+	 * */
+	public void countQueries(long count) {
+		queries += count;
+	}
+
+	/**
+	 * Record events of solve in a log to replay them later.
+	 * @param log log of events
+	 * */
+	public void record(SolveLog log) {
+		this.log = log;
+	}
+
+	/**
+	 * Get log of events of solve.
+	 * @return log of events, or null if events are not recorded
+	 * */
+	public SolveLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Cancel solve, solver stops at start of next phase.
+	 * */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Set deadline of solve, phases can't start after it and local search stops at it.
+	 * @param deadline deadline in nanoseconds of System.nanoTime
+	 * */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	public boolean isPastDeadline() {
+		long deadline = this.deadline;
+		return deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+	}
+
+	/**
+	 * Check that solve must stop, because it's cancelled or it's deadline has passed.
+	 * @return true if solver must stop
+	 * */
+	public boolean isStopped() {
+		return cancelled || isPastDeadline();
+	}
+
+	/**
+	 * Finish solve, read counters and notify listener.
+	 * */
+	public void finish() {
+		if (counter != null)
+			distances = counter.getCount() - startDistances;
+		long current = allocations ? Allocation.current() : -1;
+		if (startAllocated >= 0 && current >= 0)
+			allocated = current - startAllocated;
+		listener.onMetricsComplete(this);
+	}
+
+	/**
+	 * Get total wall time of a phase.
+	 * @param phase phase of solve
+	 * @return wall time in nanoseconds, 0 if phase didn't run
+	 * */
+	public long getPhaseTime(Phase phase) {
+		return phaseTime[phase.ordinal()];
+	}
+
+	/**
+	 * Get count of distance evaluations after finish.
+	 * @return count of distances, 0 if metric of solver doesn't count them
+	 * */
+	public long getDistanceEvaluations() {
+		return distances;
+	}
+
+	public long getNearestNeighbourQueries() {
+		return queries;
+	}
+
+	/**
+	 * Get bytes allocated by solving thread after finish.
+	 * @return allocated bytes, or -1 if allocations are not measured
+	 * */
+	public long getAllocatedBytes() {
+		return allocated;
+	}
+
+	public int getCities() {
+		return cities;
+	}
+
+	public int getCostCount() {
+		return costCount;
+	}
+
+	public double getCost(int i) {
+		return costs[i];
+	}
+
+	/**
+	 * Get time of a cost sample.
+	 * @param i index of sample
+	 * @return time from start of solving in nanoseconds
+	 * */
+	public long getCostTime(int i) {
+		return costTimes[i];
+	}
+
+	/**
+	 * Summary of metrics in one line like "mst 1.20 ms, traversal 0.31 ms, distances 2000, queries 0".
+	 * */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			if (phaseTime[phase.ordinal()] > 0) {
+				builder.append(phase.name().toLowerCase()).append(' ');
+				builder.append(String.format("%.2f", phaseTime[phase.ordinal()] / 1e6)).append(" ms, ");
+			}
+		}
+		builder.append("distances ").append(distances).append(", queries ").append(queries);
+		if (allocated >= 0)
+			builder.append(", allocated ").append(allocated).append(" bytes");
+		return builder.toString();
+	}
+
+	/*
+	 * Bytes allocated by current thread, that is loaded lazily because management beans are slow to start.
+	 * It's -1 if runtime doesn't measure allocations of current thread.
+	 * */
+	private static class Allocation {
+
+		private static final java.lang.management.ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+
+		private static long current() {
+			if (BEAN instanceof com.sun.management.ThreadMXBean)
+				return ((com.sun.management.ThreadMXBean) BEAN).getCurrentThreadAllocatedBytes();
+			return -1;
+		}
+	}
+
+	/*
+	 * Flight recorder events, that is loaded only when they are enabled.
+	 * */
+	private static class Flight {
+
+		private static Object begin() {
+			PhaseEvent event = new PhaseEvent();
+			event.begin();
+			return event;
+		}
+
+		private static void commit(Object object, Phase phase, int cities) {
+			PhaseEvent event = (PhaseEvent) object;
+			event.end();
+			if (event.shouldCommit()) {
+				event.phase = phase.name();
+				event.cities = cities;
+				event.commit();
+			}
+		}
+	}
+}
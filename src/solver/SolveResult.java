@@ -0,0 +1,125 @@
+package solver;
+
+/**
+ * Typed result of solving a TSP problem, that services can consume without formatting or parsing it.
+ * It keeps the tour as a permutation of cities, it's exact cost, weight of MST as lower bound of optimal tour,
+ * gap of tour from this bound and wall time of each phase of solving.
+ * @author Majid Feyzi
+ * @see SolveListener
+ * */
+public class SolveResult {
+
+	// Final tour of solve
+	private final Tour tour;
+
+	// Indices of cities in order of visiting, tour returns from last city to first one
+	private final int[] order;
+
+	// Exact cost of tour, weight of MST and cost of first tour before any improvement
+	private final double cost, lowerBound, initialCost;
+
+	// Log of events of solve, null if events have not been recorded
+	private final SolveLog log;
+
+	// Wall time of each phase in nanoseconds
+	private final long[] phaseTimes = new long[Phase.values().length];
+
+	/**
+	 * Create result of a finished solve.
+	 * @param tour final tour of solve
+	 * @param metrics metrics of solve, phase times are copied from it
+	 * */
+	public SolveResult(Tour tour, SolveMetrics metrics) {
+		this.tour = tour;
+		this.order = tour.getOrder();
+		this.cost = tour.getCost();
+		this.lowerBound = tour.getMstCost();
+		this.initialCost = metrics.getCostCount() > 0 ? metrics.getCost(0) : cost;
+		this.log = metrics.getLog();
+		for (Phase phase : Phase.values())
+			phaseTimes[phase.ordinal()] = metrics.getPhaseTime(phase);
+	}
+
+	/**
+	 * Get tour as permutation of indices of cities, array is shared and must not be changed.
+	 * @return indices of cities in order of visiting
+	 * */
+	public int[] getOrder() {
+		return order;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	/**
+	 * Get cost of tour that solver has built before improving it.
+	 * @return cost of first tour of solve
+	 * */
+	public double getInitialCost() {
+		return initialCost;
+	}
+
+	/**
+	 * Get tour with order of building MST, that is kept in point set that has been solved.
+	 * @return final tour of solve
+	 * */
+	public Tour getTour() {
+		return tour;
+	}
+
+	/**
+	 * Get lower bound of cost of optimal tour, that is weight of MST of cities.
+	 * @return weight of MST
+	 * */
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Get gap of cost of tour from lower bound, for example 0.1 for a tour that is 10% above MST weight.
+	 * Tour is at most this much worse than optimal tour.
+	 * @return relative gap, 0 for a tour without cost
+	 * */
+	public double getGap() {
+		if (cost == 0)
+			return 0;
+		return lowerBound > 0 ? cost / lowerBound - 1 : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Get log of events of solve to replay them.
+	 * @return log of events, or null if they have not been recorded
+	 * */
+	public SolveLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Get wall time of a phase of solve.
+	 * @param phase phase of solve
+	 * @return wall time in nanoseconds, 0 if phase didn't run
+	 * */
+	public long getPhaseTime(Phase phase) {
+		return phaseTimes[phase.ordinal()];
+	}
+
+	/**
+	 * Get total wall time of all phases.
+	 * @return wall time in nanoseconds
+	 * */
+	public long getTotalTime() {
+		long total = 0;
+		for (long time : phaseTimes)
+			total += time;
+		return total;
+	}
+
+	/**
+	 * Get count of cities in tour.
+	 * @return count of cities
+	 * */
+	public int size() {
+		return order.length;
+	}
+}
@@ -0,0 +1,157 @@
+package solver;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service that solves problems asynchronously on a bounded count of threads.
+ * Each solve returns a future of it's result, cancelling the future cancels the solve and a solve that passes
+ * it's deadline completes with TimeoutException. Progress of solve is sent to listener of it's metrics
+ * on the solving thread, so user interfaces must move events to their own thread.
+ * Threads are virtual threads if runtime supports them, otherwise daemon platform threads.
+ * @author Majid Feyzi
+ * @see SolveMetrics
+ * */
+public class SolveService implements AutoCloseable {
+
+	// Executor of solves
+	private final ExecutorService executor;
+
+	public SolveService() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create service that runs at most given count of solves concurrently, other solves wait in a queue.
+	 * @param parallelism count of concurrent solves
+	 * */
+	public SolveService(int parallelism) {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), threadFactory());
+		pool.allowCoreThreadTimeOut(true);
+		this.executor = pool;
+	}
+
+	/**
+	 * Create service that runs solves on given executor, executor is shut down by closing service.
+	 * @param executor executor of solves
+	 * */
+	public SolveService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Solve problem asynchronously.
+	 * @param solver solver of problem
+	 * @param points cities of problem, they must not change until solve is done
+	 * @param start index of start and end city of tour
+	 * @param listener listener of progress of solve
+	 * @param timeLimit time limit of solve in milliseconds, 0 for no limit
+	 * @return future of result of solve
+	 * */
+	public CompletableFuture<SolveResult> submit(TourSolver solver, PointSet points, int start, SolveListener listener, long timeLimit) {
+		SolveMetrics metrics = new SolveMetrics(listener);
+		if (timeLimit > 0)
+			metrics.setDeadline(System.nanoTime() + timeLimit * 1_000_000);
+		return submit(solver, points, start, metrics);
+	}
+
+	/**
+	 * Solve problem asynchronously and record it's metrics.
+	 * Metrics is started on solving thread, finished by service and cancelled when future is cancelled.
+	 * @param solver solver of problem
+	 * @param points cities of problem, they must not change until solve is done
+	 * @param start index of start and end city of tour
+	 * @param metrics metrics of solve with it's listener and deadline
+	 * @return future of result of solve
+	 * */
+	public CompletableFuture<SolveResult> submit(TourSolver solver, PointSet points, int start, SolveMetrics metrics) {
+		CompletableFuture<SolveResult> future = new CompletableFuture<>();
+		future.whenComplete((result, error) -> {
+			if (future.isCancelled())
+				metrics.cancel();
+		});
+		try {
+			executor.execute(new Task(future, solver, points, start, metrics));
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Stop accepting solves, solves that are waiting are cancelled and running solves are finished.
+	 * */
+	@Override
+	public void close() {
+		for (Runnable task : executor.shutdownNow())
+			if (task instanceof Task)
+				((Task) task).future.cancel(false);
+	}
+
+	/*
+	 * Task of a solve that completes it's future.
+	 * */
+	private static class Task implements Runnable {
+		private final CompletableFuture<SolveResult> future;
+		private final TourSolver solver;
+		private final PointSet points;
+		private final int start;
+		private final SolveMetrics metrics;
+
+		private Task(CompletableFuture<SolveResult> future, TourSolver solver, PointSet points, int start, SolveMetrics metrics) {
+			this.future = future;
+			this.solver = solver;
+			this.points = points;
+			this.start = start;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void run() {
+			if (future.isDone())
+				return;
+			try {
+
+				// Metrics have been created on thread that submitted solve, so they are started on this thread
+				metrics.start();
+				Tour tour = solver.solve(points, start, metrics);
+				metrics.finish();
+				future.complete(new SolveResult(tour, metrics));
+			} catch (CancellationException e) {
+				if (metrics.isCancelled())
+					future.cancel(false);
+				else
+					future.completeExceptionally(new TimeoutException(e.getMessage()));
+			} catch (RuntimeException | Error e) {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+
+	/*
+	 * Find factory of virtual threads with reflection, because they are not available in all supported runtimes,
+	 * or factory of daemon platform threads if they are not available.
+	 * */
+	private static ThreadFactory threadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			AtomicInteger count = new AtomicInteger();
+			return runnable -> {
+				Thread thread = new Thread(runnable, "solver-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+		}
+	}
+}
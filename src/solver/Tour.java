@@ -0,0 +1,55 @@
+package solver;
+
+/**
+ * Result of TSP solvers.
+ * Tour keeps order of visiting cities, it's total cost and order of building MST that tour has been built from.
+ * MST itself is kept in point set of problem.
+ * @author Majid Feyzi
+ * @see TourSolver
+ * @see PointSet
+ * */
+public class Tour {
+
+	// Indices of cities in order of visiting, tour returns from last city to first one
+	private final int[] order;
+
+	// Indices of cities in order they have been added to MST
+	private final int[] mstOrder;
+
+	// Total cost of tour including the edge from last city back to start city
+	private final double cost;
+
+	// Total weight of MST, it's a lower bound of cost of optimal tour
+	private final double mstCost;
+
+	public Tour(int[] order, int[] mstOrder, double cost, double mstCost) {
+		this.order = order;
+		this.mstOrder = mstOrder;
+		this.cost = cost;
+		this.mstCost = mstCost;
+	}
+
+	public int[] getOrder() {
+		return order;
+	}
+
+	public int[] getMstOrder() {
+		return mstOrder;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	public double getMstCost() {
+		return mstCost;
+	}
+
+	/**
+	 * Get count of cities in tour.
+	 * @return count of cities
+	 * */
+	public int size() {
+		return order.length;
+	}
+}
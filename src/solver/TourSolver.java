@@ -0,0 +1,31 @@
+package solver;
+
+/**
+ * Solver of TSP problem that works on plain coordinates without any dependency to GUI.
+ * Implementations take cities and return a tour that visits all of them.
+ * @author Majid Feyzi
+ * @see Tour
+ * */
+public interface TourSolver {
+
+	/**
+	 * Solve the problem for given cities.
+	 * MST that tour has been built from will be kept in point set.
+	 * @param points cities of problem
+	 * @param start index of start and end city of tour
+	 * @return tour that visits all cities and returns to start city
+	 * */
+	default Tour solve(PointSet points, int start) {
+		return solve(points, start, new SolveMetrics());
+	}
+
+	/**
+	 * Solve the problem for given cities and record metrics of solving.
+	 * Solver records it's phases and costs, and caller finishes metrics after solving.
+	 * @param points cities of problem
+	 * @param start index of start and end city of tour
+	 * @param metrics metrics of this solve
+	 * @return tour that visits all cities and returns to start city
+	 * */
+	Tour solve(PointSet points, int start, SolveMetrics metrics);
+}
@@ -0,0 +1,664 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Maximum weight matching of general graphs with Edmonds blossom algorithm.
+ * It's primal dual method of Galil that runs in O(n^3) time. Weights are integers, so dual variables
+ * and slacks are exact and algorithm never fails because of rounding errors.
+ * Vertices are labeled S (1) or T (2) in alternating trees, blossoms are numbered from n to 2n - 1
+ * and endpoints of edge k are numbered 2k and 2k + 1.
+ * @author Majid Feyzi
+ * */
+public class WeightedMatching {
+
+	// Graph
+	private final int n;
+	private final int[] edgeFrom, edgeTo;
+	private final long[] weight;
+	private final int[] endpoint;
+	private final int[] neighbourStart, neighbourEnds;
+
+	// Matching, mate[v] is the remote endpoint of matched edge of v or -1
+	private final int[] mate;
+
+	// Labels of vertices and blossoms and endpoint that labeled them
+	private final int[] label, labelEnd;
+
+	// Blossoms
+	private final int[] inBlossom, blossomParent, blossomBase;
+	private final int[][] blossomChildren, blossomEndpoints, blossomBestEdges;
+	private final int[] bestEdge;
+	private final int[] unusedBlossoms;
+	private int unusedCount;
+
+	// Dual variables
+	private final long[] dual;
+	private final boolean[] allowEdge;
+
+	// Queue of S vertices to scan and buffers to collect leaves of blossoms and to trace paths
+	private int[] queue;
+	private int queueSize;
+	private final int[] leaves, stack, path;
+
+	private WeightedMatching(int n, int[] edgeFrom, int[] edgeTo, long[] weight) {
+		this.n = n;
+		this.edgeFrom = edgeFrom;
+		this.edgeTo = edgeTo;
+		this.weight = weight;
+		int edges = weight.length;
+
+		long maxWeight = 0;
+		for (long w : weight)
+			maxWeight = Math.max(maxWeight, w);
+
+		endpoint = new int[2 * edges];
+		neighbourStart = new int[n + 1];
+		neighbourEnds = new int[2 * edges];
+		for (int k = 0; k < edges; k++) {
+			endpoint[2 * k] = edgeFrom[k];
+			endpoint[2 * k + 1] = edgeTo[k];
+			neighbourStart[edgeFrom[k] + 1]++;
+			neighbourStart[edgeTo[k] + 1]++;
+		}
+		for (int v = 0; v < n; v++)
+			neighbourStart[v + 1] += neighbourStart[v];
+		int[] fill = new int[n];
+		for (int k = 0; k < edges; k++) {
+			neighbourEnds[neighbourStart[edgeFrom[k]] + fill[edgeFrom[k]]++] = 2 * k + 1;
+			neighbourEnds[neighbourStart[edgeTo[k]] + fill[edgeTo[k]]++] = 2 * k;
+		}
+
+		mate = new int[n];
+		Arrays.fill(mate, -1);
+		label = new int[2 * n];
+		labelEnd = new int[2 * n];
+		Arrays.fill(labelEnd, -1);
+		inBlossom = new int[n];
+		blossomParent = new int[2 * n];
+		Arrays.fill(blossomParent, -1);
+		blossomBase = new int[2 * n];
+		Arrays.fill(blossomBase, -1);
+		for (int v = 0; v < n; v++)
+			inBlossom[v] = blossomBase[v] = v;
+		blossomChildren = new int[2 * n][];
+		blossomEndpoints = new int[2 * n][];
+		blossomBestEdges = new int[2 * n][];
+		bestEdge = new int[2 * n];
+		Arrays.fill(bestEdge, -1);
+		unusedBlossoms = new int[n];
+		for (int b = n; b < 2 * n; b++)
+			unusedBlossoms[unusedCount++] = b;
+		dual = new long[2 * n];
+		Arrays.fill(dual, 0, n, maxWeight);
+		allowEdge = new boolean[edges];
+		queue = new int[Math.max(n, 1)];
+		leaves = new int[Math.max(n, 1)];
+		stack = new int[2 * n];
+		path = new int[2 * n];
+	}
+
+	/**
+	 * Find maximum weight matching of graph.
+	 * @param n count of vertices
+	 * @param from first vertex of each edge
+	 * @param to second vertex of each edge
+	 * @param weight weight of each edge
+	 * @param maxCardinality if true, only matchings with maximum count of edges are considered
+	 * @return mate of each vertex or -1 for vertices that are not matched
+	 * */
+	public static int[] maximum(int n, int[] from, int[] to, long[] weight, boolean maxCardinality) {
+		WeightedMatching matching = new WeightedMatching(n, from, to, weight);
+		matching.solve(maxCardinality);
+		return matching.mate;
+	}
+
+	/**
+	 * Find minimum weight perfect matching of complete graph.
+	 * @param n count of vertices, it must be even
+	 * @param weight weight of edge between vertices i and j for i < j
+	 * @return mate of each vertex
+	 * */
+	public static int[] minimumPerfect(int n, CompleteWeight weight) {
+		int edges = n * (n - 1) / 2;
+		int[] from = new int[edges], to = new int[edges];
+		long[] w = new long[edges];
+		long max = 0;
+		for (int i = 0, k = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++, k++) {
+				from[k] = i;
+				to[k] = j;
+				w[k] = weight.weight(i, j);
+				max = Math.max(max, w[k]);
+			}
+		}
+
+		// Perfect matching with maximum of (max + 1 - weight) is the minimum weight perfect matching
+		for (int k = 0; k < edges; k++)
+			w[k] = max + 1 - w[k];
+		return maximum(n, from, to, w, true);
+	}
+
+	/**
+	 * Weight of edges of complete graph.
+	 * */
+	public interface CompleteWeight {
+		long weight(int i, int j);
+	}
+
+	private long slack(int k) {
+		return dual[edgeFrom[k]] + dual[edgeTo[k]] - 2 * weight[k];
+	}
+
+	/*
+	 * Collect leaf vertices of blossom b into leaves buffer and return their count.
+	 * */
+	private int blossomLeaves(int b) {
+		if (b < n) {
+			leaves[0] = b;
+			return 1;
+		}
+		int count = 0;
+		int top = 0;
+		stack[top++] = b;
+		while (top > 0) {
+			int t = stack[--top];
+			if (t < n) {
+				leaves[count++] = t;
+			} else {
+				int[] children = blossomChildren[t];
+				for (int i = children.length - 1; i >= 0; i--)
+					stack[top++] = children[i];
+			}
+		}
+		return count;
+	}
+
+	private void push(int v) {
+		if (queueSize == queue.length)
+			queue = Arrays.copyOf(queue, queueSize * 2);
+		queue[queueSize++] = v;
+	}
+
+	/*
+	 * Assign label t to top level blossom containing vertex w through endpoint p.
+	 * */
+	private void assignLabel(int w, int t, int p) {
+		while (true) {
+			int b = inBlossom[w];
+			label[w] = label[b] = t;
+			labelEnd[w] = labelEnd[b] = p;
+			bestEdge[w] = bestEdge[b] = -1;
+			if (t == 1) {
+				int count = blossomLeaves(b);
+				for (int i = 0; i < count; i++)
+					push(leaves[i]);
+				return;
+			}
+
+			// T blossom, it's mate becomes S
+			int base = blossomBase[b];
+			w = endpoint[mate[base]];
+			t = 1;
+			p = mate[base] ^ 1;
+		}
+	}
+
+	/*
+	 * Trace back from vertices v and w to find a new blossom or an augmenting path.
+	 * Return base vertex of new blossom or -1 for augmenting path.
+	 * */
+	private int scanBlossom(int v, int w) {
+		int size = 0;
+		int base = -1;
+		while (v != -1 || w != -1) {
+			int b = inBlossom[v];
+			if ((label[b] & 4) != 0) {
+				base = blossomBase[b];
+				break;
+			}
+			path[size++] = b;
+			label[b] = 5;
+			if (labelEnd[b] == -1) {
+				v = -1;
+			} else {
+				v = endpoint[labelEnd[b]];
+				b = inBlossom[v];
+				v = endpoint[labelEnd[b]];
+			}
+			if (w != -1) {
+				int temp = v;
+				v = w;
+				w = temp;
+			}
+		}
+		for (int i = 0; i < size; i++)
+			label[path[i]] = 1;
+		return base;
+	}
+
+	/*
+	 * Make a new blossom with given base that contains edge k.
+	 * */
+	private void addBlossom(int base, int k) {
+		int v = edgeFrom[k], w = edgeTo[k];
+		int bb = inBlossom[base];
+		int bv = inBlossom[v];
+		int bw = inBlossom[w];
+		int b = unusedBlossoms[--unusedCount];
+		blossomBase[b] = base;
+		blossomParent[b] = -1;
+		blossomParent[bb] = b;
+
+		// Trace back from v to base
+		int[] path = new int[2 * n + 1];
+		int[] endps = new int[2 * n + 1];
+		int size = 0, endSize = 0;
+		while (bv != bb) {
+			blossomParent[bv] = b;
+			path[size++] = bv;
+			endps[endSize++] = labelEnd[bv];
+			v = endpoint[labelEnd[bv]];
+			bv = inBlossom[v];
+		}
+		path[size++] = bb;
+		reverse(path, size);
+		reverse(endps, endSize);
+		endps[endSize++] = 2 * k;
+
+		// Trace back from w to base
+		while (bw != bb) {
+			blossomParent[bw] = b;
+			path[size++] = bw;
+			endps[endSize++] = labelEnd[bw] ^ 1;
+			w = endpoint[labelEnd[bw]];
+			bw = inBlossom[w];
+		}
+		blossomChildren[b] = Arrays.copyOf(path, size);
+		blossomEndpoints[b] = Arrays.copyOf(endps, endSize);
+
+		label[b] = 1;
+		labelEnd[b] = labelEnd[bb];
+		dual[b] = 0;
+
+		// Relabel vertices
+		int count = blossomLeaves(b);
+		for (int i = 0; i < count; i++) {
+			int leaf = leaves[i];
+			if (label[inBlossom[leaf]] == 2)
+				push(leaf);
+			inBlossom[leaf] = b;
+		}
+
+		// Compute best edges of new blossom to other S blossoms
+		int[] bestEdgeTo = new int[2 * n];
+		Arrays.fill(bestEdgeTo, -1);
+		for (int c = 0; c < size; c++) {
+			bv = path[c];
+			if (blossomBestEdges[bv] == null) {
+				int leavesCount = blossomLeaves(bv);
+				int[] own = Arrays.copyOf(leaves, leavesCount);
+				for (int leaf : own)
+					for (int i = neighbourStart[leaf]; i < neighbourStart[leaf + 1]; i++)
+						considerBestEdge(neighbourEnds[i] / 2, b, bestEdgeTo);
+			} else {
+				for (int e : blossomBestEdges[bv])
+					considerBestEdge(e, b, bestEdgeTo);
+			}
+			blossomBestEdges[bv] = null;
+			bestEdge[bv] = -1;
+		}
+		int best = 0;
+		for (int e : bestEdgeTo)
+			if (e != -1)
+				best++;
+		int[] bestEdges = new int[best];
+		best = 0;
+		for (int e : bestEdgeTo)
+			if (e != -1)
+				bestEdges[best++] = e;
+		blossomBestEdges[b] = bestEdges;
+		bestEdge[b] = -1;
+		for (int e : bestEdges)
+			if (bestEdge[b] == -1 || slack(e) < slack(bestEdge[b]))
+				bestEdge[b] = e;
+	}
+
+	private void considerBestEdge(int k, int b, int[] bestEdgeTo) {
+		int j = edgeTo[k];
+		if (inBlossom[j] == b)
+			j = edgeFrom[k];
+		int bj = inBlossom[j];
+		if (bj != b && label[bj] == 1 && (bestEdgeTo[bj] == -1 || slack(k) < slack(bestEdgeTo[bj])))
+			bestEdgeTo[bj] = k;
+	}
+
+	/*
+	 * Expand blossom b into it's sub blossoms.
+	 * */
+	private void expandBlossom(int b, boolean endStage) {
+		for (int s : blossomChildren[b]) {
+			blossomParent[s] = -1;
+			if (s < n) {
+				inBlossom[s] = s;
+			} else if (endStage && dual[s] == 0) {
+				expandBlossom(s, true);
+			} else {
+				int count = blossomLeaves(s);
+				for (int i = 0; i < count; i++)
+					inBlossom[leaves[i]] = s;
+			}
+		}
+
+		// If blossom is expanded in middle of a stage, relabel it's sub blossoms
+		if (!endStage && label[b] == 2) {
+			int[] children = blossomChildren[b];
+			int[] endps = blossomEndpoints[b];
+			int length = children.length;
+			int entryChild = inBlossom[endpoint[labelEnd[b] ^ 1]];
+			int j = indexOf(children, entryChild);
+			int jStep, endTrick;
+			if ((j & 1) != 0) {
+				j -= length;
+				jStep = 1;
+				endTrick = 0;
+			} else {
+				jStep = -1;
+				endTrick = 1;
+			}
+			int p = labelEnd[b];
+			while (j != 0) {
+				label[endpoint[p ^ 1]] = 0;
+				label[endpoint[endps[mod(j - endTrick, length)] ^ endTrick ^ 1]] = 0;
+				assignLabel(endpoint[p ^ 1], 2, p);
+				allowEdge[endps[mod(j - endTrick, length)] / 2] = true;
+				j += jStep;
+				p = endps[mod(j - endTrick, length)] ^ endTrick;
+				allowEdge[p / 2] = true;
+				j += jStep;
+			}
+			int bv = children[mod(j, length)];
+			label[endpoint[p ^ 1]] = label[bv] = 2;
+			labelEnd[endpoint[p ^ 1]] = labelEnd[bv] = p;
+			bestEdge[bv] = -1;
+			j += jStep;
+			while (children[mod(j, length)] != entryChild) {
+				bv = children[mod(j, length)];
+				if (label[bv] == 1) {
+					j += jStep;
+					continue;
+				}
+				int count = blossomLeaves(bv);
+				int v = -1;
+				for (int i = 0; i < count; i++) {
+					v = leaves[i];
+					if (label[v] != 0)
+						break;
+				}
+				if (label[v] != 0) {
+					label[v] = 0;
+					label[endpoint[mate[blossomBase[bv]]]] = 0;
+					assignLabel(v, 2, labelEnd[v]);
+				}
+				j += jStep;
+			}
+		}
+
+		label[b] = labelEnd[b] = -1;
+		blossomChildren[b] = blossomEndpoints[b] = null;
+		blossomBase[b] = -1;
+		blossomBestEdges[b] = null;
+		bestEdge[b] = -1;
+		unusedBlossoms[unusedCount++] = b;
+	}
+
+	/*
+	 * Swap matched and unmatched edges of blossom b along path from vertex v to base of blossom.
+	 * */
+	private void augmentBlossom(int b, int v) {
+		int t = v;
+		while (blossomParent[t] != b)
+			t = blossomParent[t];
+		if (t >= n)
+			augmentBlossom(t, v);
+
+		int[] children = blossomChildren[b];
+		int[] endps = blossomEndpoints[b];
+		int length = children.length;
+		int i = indexOf(children, t);
+		int j = i;
+		int jStep, endTrick;
+		if ((i & 1) != 0) {
+			j -= length;
+			jStep = 1;
+			endTrick = 0;
+		} else {
+			jStep = -1;
+			endTrick = 1;
+		}
+		while (j != 0) {
+			j += jStep;
+			t = children[mod(j, length)];
+			int p = endps[mod(j - endTrick, length)] ^ endTrick;
+			if (t >= n)
+				augmentBlossom(t, endpoint[p]);
+			j += jStep;
+			t = children[mod(j, length)];
+			if (t >= n)
+				augmentBlossom(t, endpoint[p ^ 1]);
+			mate[endpoint[p]] = p ^ 1;
+			mate[endpoint[p ^ 1]] = p;
+		}
+
+		// Rotate children so new base is the first one
+		blossomChildren[b] = rotate(children, i);
+		blossomEndpoints[b] = rotate(endps, i);
+		blossomBase[b] = blossomBase[blossomChildren[b][0]];
+	}
+
+	/*
+	 * Swap matched and unmatched edges along augmenting path through edge k.
+	 * */
+	private void augmentMatching(int k) {
+		for (int side = 0; side < 2; side++) {
+			int s = side == 0 ? edgeFrom[k] : edgeTo[k];
+			int p = side == 0 ? 2 * k + 1 : 2 * k;
+			while (true) {
+				int bs = inBlossom[s];
+				if (bs >= n)
+					augmentBlossom(bs, s);
+				mate[s] = p;
+				if (labelEnd[bs] == -1)
+					break;
+				int t = endpoint[labelEnd[bs]];
+				int bt = inBlossom[t];
+				s = endpoint[labelEnd[bt]];
+				int j = endpoint[labelEnd[bt] ^ 1];
+				if (bt >= n)
+					augmentBlossom(bt, j);
+				mate[j] = labelEnd[bt];
+				p = labelEnd[bt] ^ 1;
+			}
+		}
+	}
+
+	private void solve(boolean maxCardinality) {
+		int edges = weight.length;
+		for (int stage = 0; stage < n; stage++) {
+
+			// Start a new stage
+			Arrays.fill(label, 0);
+			Arrays.fill(bestEdge, -1);
+			Arrays.fill(blossomBestEdges, n, 2 * n, null);
+			Arrays.fill(allowEdge, false);
+			queueSize = 0;
+			for (int v = 0; v < n; v++)
+				if (mate[v] == -1 && label[inBlossom[v]] == 0)
+					assignLabel(v, 1, -1);
+
+			boolean augmented = false;
+			while (true) {
+
+				// Grow alternating trees from S vertices in queue
+				while (queueSize > 0 && !augmented) {
+					int v = queue[--queueSize];
+					for (int i = neighbourStart[v]; i < neighbourStart[v + 1]; i++) {
+						int p = neighbourEnds[i];
+						int k = p / 2;
+						int w = endpoint[p];
+						if (inBlossom[v] == inBlossom[w])
+							continue;
+						long kSlack = 0;
+						if (!allowEdge[k]) {
+							kSlack = slack(k);
+							if (kSlack <= 0)
+								allowEdge[k] = true;
+						}
+						if (allowEdge[k]) {
+							if (label[inBlossom[w]] == 0) {
+								assignLabel(w, 2, p ^ 1);
+							} else if (label[inBlossom[w]] == 1) {
+								int base = scanBlossom(v, w);
+								if (base >= 0) {
+									addBlossom(base, k);
+								} else {
+									augmentMatching(k);
+									augmented = true;
+									break;
+								}
+							} else if (label[w] == 0) {
+								label[w] = 2;
+								labelEnd[w] = p ^ 1;
+							}
+						} else if (label[inBlossom[w]] == 1) {
+							int b = inBlossom[v];
+							if (bestEdge[b] == -1 || kSlack < slack(bestEdge[b]))
+								bestEdge[b] = k;
+						} else if (label[w] == 0) {
+							if (bestEdge[w] == -1 || kSlack < slack(bestEdge[w]))
+								bestEdge[w] = k;
+						}
+					}
+				}
+				if (augmented)
+					break;
+
+				// No augmenting path, find the smallest change of dual variables that allows a new edge
+				int deltaType = -1;
+				long delta = 0;
+				int deltaEdge = -1, deltaBlossom = -1;
+				if (!maxCardinality) {
+					deltaType = 1;
+					delta = Long.MAX_VALUE;
+					for (int v = 0; v < n; v++)
+						delta = Math.min(delta, dual[v]);
+				}
+				for (int v = 0; v < n; v++) {
+					if (label[inBlossom[v]] == 0 && bestEdge[v] != -1) {
+						long d = slack(bestEdge[v]);
+						if (deltaType == -1 || d < delta) {
+							delta = d;
+							deltaType = 2;
+							deltaEdge = bestEdge[v];
+						}
+					}
+				}
+				for (int b = 0; b < 2 * n; b++) {
+					if (blossomParent[b] == -1 && label[b] == 1 && bestEdge[b] != -1) {
+						long d = slack(bestEdge[b]) / 2;
+						if (deltaType == -1 || d < delta) {
+							delta = d;
+							deltaType = 3;
+							deltaEdge = bestEdge[b];
+						}
+					}
+				}
+				for (int b = n; b < 2 * n; b++) {
+					if (blossomBase[b] >= 0 && blossomParent[b] == -1 && label[b] == 2
+							&& (deltaType == -1 || dual[b] < delta)) {
+						delta = dual[b];
+						deltaType = 4;
+						deltaBlossom = b;
+					}
+				}
+				if (deltaType == -1) {
+					deltaType = 1;
+					delta = Long.MAX_VALUE;
+					for (int v = 0; v < n; v++)
+						delta = Math.min(delta, dual[v]);
+					delta = Math.max(0, delta);
+				}
+
+				// Update dual variables
+				for (int v = 0; v < n; v++) {
+					if (label[inBlossom[v]] == 1)
+						dual[v] -= delta;
+					else if (label[inBlossom[v]] == 2)
+						dual[v] += delta;
+				}
+				for (int b = n; b < 2 * n; b++) {
+					if (blossomBase[b] >= 0 && blossomParent[b] == -1) {
+						if (label[b] == 1)
+							dual[b] += delta;
+						else if (label[b] == 2)
+							dual[b] -= delta;
+					}
+				}
+
+				if (deltaType == 1) {
+					break;
+				} else if (deltaType == 2) {
+					allowEdge[deltaEdge] = true;
+					int i = edgeFrom[deltaEdge];
+					if (label[inBlossom[i]] == 0)
+						i = edgeTo[deltaEdge];
+					push(i);
+				} else if (deltaType == 3) {
+					allowEdge[deltaEdge] = true;
+					push(edgeFrom[deltaEdge]);
+				} else {
+					expandBlossom(deltaBlossom, false);
+				}
+			}
+
+			if (!augmented)
+				break;
+
+			// Expand S blossoms with zero dual at end of stage
+			for (int b = n; b < 2 * n; b++)
+				if (blossomParent[b] == -1 && blossomBase[b] >= 0 && label[b] == 1 && dual[b] == 0)
+					expandBlossom(b, true);
+		}
+
+		// Convert remote endpoints to vertices
+		for (int v = 0; v < n; v++)
+			if (mate[v] >= 0)
+				mate[v] = endpoint[mate[v]];
+	}
+
+	private static int indexOf(int[] array, int value) {
+		for (int i = 0; i < array.length; i++)
+			if (array[i] == value)
+				return i;
+		return -1;
+	}
+
+	private static int mod(int i, int length) {
+		return ((i % length) + length) % length;
+	}
+
+	private static void reverse(int[] array, int size) {
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			int temp = array[i];
+			array[i] = array[j];
+			array[j] = temp;
+		}
+	}
+
+	private static int[] rotate(int[] array, int i) {
+		int[] rotated = new int[array.length];
+		for (int k = 0; k < array.length; k++)
+			rotated[k] = array[(i + k) % array.length];
+		return rotated;
+	}
+}
@@ -0,0 +1,336 @@
+package solver.spatial;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Static k-d tree of points.
+ * Tree is implicit in a permutation of points: node of range [lo, hi) is the point at middle of range,
+ * points of left subtree are in [lo, middle) and points of right subtree are in (middle, hi).
+ * Each node keeps count of remaining points of it's subtree, so subtrees that all their points
+ * have been removed are skipped and removing a point takes O(log n) time.
+ * Queries take O(log n) time on average.
+ * @author Majid Feyzi
+ * */
+public class KdTree implements SpatialIndex {
+
+	// Coordinates of points and their copy in order of tree
+	private final double[] x, y;
+	private final double[] treeX, treeY;
+	private final int n;
+
+	// Permutation of points that keeps the tree and position of each point in it
+	private final int[] tree, position;
+
+	// Split axis of each node, true for x axis
+	private final boolean[] splitX;
+
+	// Count of remaining points in subtree of each node and removed nodes
+	private final int[] remaining;
+	private final boolean[] removed;
+
+	// State of current query
+	private double qx, qy;
+	private int best;
+	private double bestDistance;
+	private int[] heap;
+	private double[] heapDistances;
+	private int heapSize, heapCapacity;
+
+	/**
+	 * Build tree of first n points of coordinates arrays.
+	 * @param x x coordinates of points
+	 * @param y y coordinates of points
+	 * @param n count of points
+	 * */
+	public KdTree(double[] x, double[] y, int n) {
+		this.x = x;
+		this.y = y;
+		this.n = n;
+		tree = new int[n];
+		position = new int[n];
+		splitX = new boolean[n];
+		remaining = new int[n];
+		removed = new boolean[n];
+		for (int i = 0; i < n; i++)
+			tree[i] = i;
+		build(0, n);
+		treeX = new double[n];
+		treeY = new double[n];
+		for (int i = 0; i < n; i++) {
+			position[tree[i]] = i;
+			treeX[i] = x[tree[i]];
+			treeY[i] = y[tree[i]];
+		}
+	}
+
+	/*
+	 * Build subtree of range [lo, hi) by splitting it on the axis with larger spread.
+	 * */
+	private void build(int lo, int hi) {
+		while (lo < hi) {
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			for (int i = lo; i < hi; i++) {
+				int p = tree[i];
+				minX = Math.min(minX, x[p]);
+				maxX = Math.max(maxX, x[p]);
+				minY = Math.min(minY, y[p]);
+				maxY = Math.max(maxY, y[p]);
+			}
+			int middle = (lo + hi) >>> 1;
+			boolean axis = maxX - minX >= maxY - minY;
+			select(lo, hi - 1, middle, axis ? x : y);
+			splitX[middle] = axis;
+			remaining[middle] = hi - lo;
+
+			// Build smaller subtree recursively and continue with larger one
+			if (middle - lo < hi - middle - 1) {
+				build(lo, middle);
+				lo = middle + 1;
+			} else {
+				build(middle + 1, hi);
+				hi = middle;
+			}
+		}
+	}
+
+	/*
+	 * Reorder range [left, right] so that k-th point is in it's sorted place by coordinate.
+	 * */
+	private void select(int left, int right, int k, double[] coordinate) {
+		while (right > left) {
+			int middle = (left + right) >>> 1;
+			if (coordinate[tree[middle]] < coordinate[tree[left]])
+				swap(middle, left);
+			if (coordinate[tree[right]] < coordinate[tree[left]])
+				swap(right, left);
+			if (coordinate[tree[right]] < coordinate[tree[middle]])
+				swap(right, middle);
+			double pivot = coordinate[tree[middle]];
+			int i = left, j = right;
+			while (i <= j) {
+				while (coordinate[tree[i]] < pivot)
+					i++;
+				while (coordinate[tree[j]] > pivot)
+					j--;
+				if (i <= j)
+					swap(i++, j--);
+			}
+			if (k <= j)
+				right = j;
+			else if (k >= i)
+				left = i;
+			else
+				return;
+		}
+	}
+
+	private void swap(int i, int j) {
+		int temp = tree[i];
+		tree[i] = tree[j];
+		tree[j] = temp;
+	}
+
+	@Override
+	public int nearest(double x, double y) {
+		qx = x;
+		qy = y;
+		best = -1;
+		bestDistance = Double.POSITIVE_INFINITY;
+		nearest(0, n);
+		return best;
+	}
+
+	private void nearest(int lo, int hi) {
+		if (lo >= hi)
+			return;
+		int middle = (lo + hi) >>> 1;
+		if (remaining[middle] == 0)
+			return;
+		if (!removed[middle]) {
+			double d = squaredDistance(middle);
+			if (d < bestDistance) {
+				bestDistance = d;
+				best = tree[middle];
+			}
+		}
+		double diff = splitX[middle] ? qx - treeX[middle] : qy - treeY[middle];
+		if (diff < 0) {
+			nearest(lo, middle);
+			if (diff * diff < bestDistance)
+				nearest(middle + 1, hi);
+		} else {
+			nearest(middle + 1, hi);
+			if (diff * diff < bestDistance)
+				nearest(lo, middle);
+		}
+	}
+
+	@Override
+	public int nearest(double x, double y, int k, int[] out) {
+		if (k <= 0)
+			return 0;
+		qx = x;
+		qy = y;
+		if (heap == null || heap.length < k) {
+			heap = new int[k];
+			heapDistances = new double[k];
+		}
+		heapSize = 0;
+		heapCapacity = k;
+		nearestK(0, n);
+
+		// Pop points of max heap from the farthest one
+		int count = heapSize;
+		for (int i = count - 1; i >= 0; i--) {
+			out[i] = heap[0];
+			pop();
+		}
+		return count;
+	}
+
+	private void nearestK(int lo, int hi) {
+		if (lo >= hi)
+			return;
+		int middle = (lo + hi) >>> 1;
+		if (remaining[middle] == 0)
+			return;
+		if (!removed[middle]) {
+			double d = squaredDistance(middle);
+			if (heapSize < heapCapacity)
+				push(tree[middle], d);
+			else if (d < heapDistances[0]) {
+				pop();
+				push(tree[middle], d);
+			}
+		}
+		double diff = splitX[middle] ? qx - treeX[middle] : qy - treeY[middle];
+		int firstLo = diff < 0 ? lo : middle + 1, firstHi = diff < 0 ? middle : hi;
+		int secondLo = diff < 0 ? middle + 1 : lo, secondHi = diff < 0 ? hi : middle;
+		nearestK(firstLo, firstHi);
+		if (heapSize < heapCapacity || diff * diff < heapDistances[0])
+			nearestK(secondLo, secondHi);
+	}
+
+	/*
+	 * Add point to max heap of found points.
+	 * */
+	private void push(int p, double d) {
+		int i = heapSize++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heapDistances[parent] >= d)
+				break;
+			heap[i] = heap[parent];
+			heapDistances[i] = heapDistances[parent];
+			i = parent;
+		}
+		heap[i] = p;
+		heapDistances[i] = d;
+	}
+
+	/*
+	 * Remove the farthest point from max heap of found points.
+	 * */
+	private void pop() {
+		int last = heap[--heapSize];
+		double d = heapDistances[heapSize];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && heapDistances[child + 1] > heapDistances[child])
+				child++;
+			if (heapDistances[child] <= d)
+				break;
+			heap[i] = heap[child];
+			heapDistances[i] = heapDistances[child];
+			i = child;
+		}
+		heap[i] = last;
+		heapDistances[i] = d;
+	}
+
+	@Override
+	public void radius(double x, double y, double radius, IntConsumer consumer) {
+		qx = x;
+		qy = y;
+		radius(0, n, radius * radius, consumer);
+	}
+
+	private void radius(int lo, int hi, double squaredRadius, IntConsumer consumer) {
+		if (lo >= hi)
+			return;
+		int middle = (lo + hi) >>> 1;
+		if (remaining[middle] == 0)
+			return;
+		if (!removed[middle] && squaredDistance(middle) <= squaredRadius)
+			consumer.accept(tree[middle]);
+		double diff = splitX[middle] ? qx - treeX[middle] : qy - treeY[middle];
+		if (diff < 0 || diff * diff <= squaredRadius)
+			radius(lo, middle, squaredRadius, consumer);
+		if (diff >= 0 || diff * diff <= squaredRadius)
+			radius(middle + 1, hi, squaredRadius, consumer);
+	}
+
+	@Override
+	public void range(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+		range(0, n, minX, minY, maxX, maxY, consumer);
+	}
+
+	private void range(int lo, int hi, double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+		while (lo < hi) {
+			int middle = (lo + hi) >>> 1;
+			if (remaining[middle] == 0)
+				return;
+			double px = treeX[middle], py = treeY[middle];
+			if (!removed[middle] && px >= minX && px <= maxX && py >= minY && py <= maxY)
+				consumer.accept(tree[middle]);
+			double split = splitX[middle] ? px : py;
+			boolean left = (splitX[middle] ? minX : minY) <= split;
+			boolean right = (splitX[middle] ? maxX : maxY) >= split;
+
+			// Visit left subtree recursively and continue with right one
+			if (left && right) {
+				range(lo, middle, minX, minY, maxX, maxY, consumer);
+				lo = middle + 1;
+			} else if (left) {
+				hi = middle;
+			} else {
+				lo = middle + 1;
+			}
+		}
+	}
+
+	@Override
+	public void remove(int i) {
+		int target = position[i];
+		if (removed[target])
+			return;
+		removed[target] = true;
+
+		// Decrease remaining count of nodes on path from root to the point
+		int lo = 0, hi = n;
+		while (lo < hi) {
+			int middle = (lo + hi) >>> 1;
+			remaining[middle]--;
+			if (target == middle)
+				break;
+			if (target < middle)
+				hi = middle;
+			else
+				lo = middle + 1;
+		}
+	}
+
+	@Override
+	public boolean isRemoved(int i) {
+		return removed[position[i]];
+	}
+
+	private double squaredDistance(int node) {
+		double dx = treeX[node] - qx, dy = treeY[node] - qy;
+		return dx * dx + dy * dy;
+	}
+}
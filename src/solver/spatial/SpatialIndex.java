@@ -0,0 +1,65 @@
+package solver.spatial;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Index of points in plane to answer nearest neighbour queries faster than scanning all points.
+ * Points are identified by their index and distances are euclidean.
+ * Points can be removed from index, so queries such as nearest unvisited city only return remaining points.
+ * Indices keep state of queries in fields, so they are not thread safe.
+ * @author Majid Feyzi
+ * @see KdTree
+ * @see UniformGrid
+ * */
+public interface SpatialIndex {
+
+	/**
+	 * Find nearest remaining point to a location.
+	 * @param x x coordinate of location
+	 * @param y y coordinate of location
+	 * @return index of nearest point or -1 if there is no remaining point
+	 * */
+	int nearest(double x, double y);
+
+	/**
+	 * Find k nearest remaining points to a location.
+	 * @param x x coordinate of location
+	 * @param y y coordinate of location
+	 * @param k count of points
+	 * @param out output array to keep indices of points sorted by distance, it's length must be at least k
+	 * @return count of found points, it's less than k only if there are less remaining points
+	 * */
+	int nearest(double x, double y, int k, int[] out);
+
+	/**
+	 * Find all remaining points within a distance of a location.
+	 * @param x x coordinate of location
+	 * @param y y coordinate of location
+	 * @param radius maximum distance of points
+	 * @param consumer consumer of indices of found points
+	 * */
+	void radius(double x, double y, double radius, IntConsumer consumer);
+
+	/**
+	 * Find all remaining points inside a rectangle, bounds of rectangle are inclusive.
+	 * @param minX left bound of rectangle
+	 * @param minY top bound of rectangle
+	 * @param maxX right bound of rectangle
+	 * @param maxY bottom bound of rectangle
+	 * @param consumer consumer of indices of found points
+	 * */
+	void range(double minX, double minY, double maxX, double maxY, IntConsumer consumer);
+
+	/**
+	 * Remove point from index, removed points are not returned by queries anymore.
+	 * @param i index of point
+	 * */
+	void remove(int i);
+
+	/**
+	 * Check that point has been removed.
+	 * @param i index of point
+	 * @return true if point has been removed
+	 * */
+	boolean isRemoved(int i);
+}
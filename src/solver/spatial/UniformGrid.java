@@ -0,0 +1,448 @@
+package solver.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid of square cells that keeps points of each cell in a linked list.
+ * Cells are kept in a hash table, so grid is not bounded and points can be added one by one,
+ * which is suitable for points that user adds interactively.
+ * Queries visit rings of cells around location until no nearer point can be found,
+ * and once rings have more cells than hash table, they scan used cells of hash table instead.
+ * @author Majid Feyzi
+ * */
+public class UniformGrid implements SpatialIndex {
+
+	private static final int EMPTY = -1;
+
+	// Key of empty slots of hash table, it's not a valid cell coordinate because cell coordinates are clamped
+	private static final long FREE = Long.MIN_VALUE;
+
+	// Largest magnitude of cell coordinates
+	private static final double MAX_CELL = 0x1p60;
+
+	// Side length of cells
+	private final double cellSize;
+
+	// Coordinates of points and next point of the same cell
+	private double[] x, y;
+	private int[] next;
+	private boolean[] removed;
+	private int size;
+
+	// Hash table of cells with keys of cell coordinates and values of first point of cell
+	private long[] keysX, keysY;
+	private int[] heads;
+	private int cells;
+
+	// Bounds of cells that have been used
+	private long minCx = Long.MAX_VALUE, maxCx = Long.MIN_VALUE;
+	private long minCy = Long.MAX_VALUE, maxCy = Long.MIN_VALUE;
+
+	// State of current query
+	private double qx, qy;
+	private int best;
+	private double bestDistance;
+	private int[] heap;
+	private double[] heapDistances;
+	private int heapSize, heapCapacity;
+
+	/**
+	 * Create empty grid.
+	 * @param cellSize side length of cells
+	 * */
+	public UniformGrid(double cellSize) {
+		if (!(cellSize > 0))
+			throw new IllegalArgumentException("Cell size must be positive");
+		this.cellSize = cellSize;
+		x = new double[16];
+		y = new double[16];
+		next = new int[16];
+		removed = new boolean[16];
+		keysX = new long[64];
+		keysY = new long[64];
+		heads = new int[64];
+		Arrays.fill(keysX, FREE);
+	}
+
+	/**
+	 * Create grid of first n points of coordinates arrays with cell size that keeps about two points in each cell.
+	 * @param x x coordinates of points
+	 * @param y y coordinates of points
+	 * @param n count of points
+	 * */
+	public UniformGrid(double[] x, double[] y, int n) {
+		this(cellSize(x, y, n));
+		for (int i = 0; i < n; i++)
+			add(x[i], y[i]);
+	}
+
+	private static double cellSize(double[] x, double[] y, int n) {
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			maxX = Math.max(maxX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		// Use square of larger side as area if points are on a horizontal or vertical line
+		double width = maxX - minX, height = maxY - minY, side = Math.max(width, height);
+		double area = Math.max(width * height, side * side / Math.max(n, 1));
+		double size = Math.sqrt(2 * area / Math.max(n, 1));
+		return size > 0 && Double.isFinite(size) ? size : 1;
+	}
+
+	/**
+	 * Add point to grid.
+	 * @param px x coordinate of point
+	 * @param py y coordinate of point
+	 * @return index of point
+	 * */
+	public int add(double px, double py) {
+		if (size == x.length) {
+			int capacity = size * 2;
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			next = Arrays.copyOf(next, capacity);
+			removed = Arrays.copyOf(removed, capacity);
+		}
+		int i = size++;
+		x[i] = px;
+		y[i] = py;
+		removed[i] = false;
+		long cx = cell(px), cy = cell(py);
+		minCx = Math.min(minCx, cx);
+		maxCx = Math.max(maxCx, cx);
+		minCy = Math.min(minCy, cy);
+		maxCy = Math.max(maxCy, cy);
+
+		// Prepend point to list of it's cell
+		int slot = slot(cx, cy, true);
+		next[i] = heads[slot];
+		heads[slot] = i;
+		return i;
+	}
+
+	/**
+	 * Delete last added point, so index of next added point will be the same.
+	 * */
+	public void removeLast() {
+		if (size == 0)
+			return;
+		int i = --size;
+
+		// Last added point is always first point of it's cell
+		int slot = slot(cell(x[i]), cell(y[i]), false);
+		heads[slot] = next[i];
+	}
+
+	/**
+	 * Delete all points.
+	 * */
+	public void clear() {
+		size = 0;
+		cells = 0;
+		Arrays.fill(keysX, FREE);
+		minCx = minCy = Long.MAX_VALUE;
+		maxCx = maxCy = Long.MIN_VALUE;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int nearest(double x, double y) {
+		qx = x;
+		qy = y;
+		best = -1;
+		bestDistance = Double.POSITIVE_INFINITY;
+		long cx = cell(x), cy = cell(y), rings = rings(cx, cy);
+		for (long ring = firstRing(cx, cy); ring <= rings; ring++) {
+
+			// Points of this ring and next rings are at least this far from location
+			double bound = (ring - 1) * cellSize;
+			if (best != -1 && ring > 0 && bestDistance <= bound * bound)
+				break;
+
+			// Far from points most cells of rings are empty, so scan hash table once instead of the remaining rings
+			if (8.0 * ring > keysX.length) {
+				visitTable(cx, cy, ring, false);
+				break;
+			}
+			visitRing(cx, cy, ring, false);
+		}
+		return best;
+	}
+
+	@Override
+	public int nearest(double x, double y, int k, int[] out) {
+		if (k <= 0)
+			return 0;
+		qx = x;
+		qy = y;
+		if (heap == null || heap.length < k) {
+			heap = new int[k];
+			heapDistances = new double[k];
+		}
+		heapSize = 0;
+		heapCapacity = k;
+		long cx = cell(x), cy = cell(y), rings = rings(cx, cy);
+		for (long ring = firstRing(cx, cy); ring <= rings; ring++) {
+			double bound = (ring - 1) * cellSize;
+			if (heapSize == k && ring > 0 && heapDistances[0] <= bound * bound)
+				break;
+			if (8.0 * ring > keysX.length) {
+				visitTable(cx, cy, ring, true);
+				break;
+			}
+			visitRing(cx, cy, ring, true);
+		}
+
+		// Pop points of max heap from the farthest one
+		int count = heapSize;
+		for (int i = count - 1; i >= 0; i--) {
+			out[i] = heap[0];
+			pop();
+		}
+		return count;
+	}
+
+	/*
+	 * Count of rings of cells around a cell that cover all used cells.
+	 * */
+	private long rings(long cx, long cy) {
+		if (cells == 0)
+			return -1;
+		return Math.max(Math.max(Math.abs(cx - minCx), Math.abs(cx - maxCx)), Math.max(Math.abs(cy - minCy), Math.abs(cy - maxCy)));
+	}
+
+	/*
+	 * First ring of cells around a cell that intersects used cells.
+	 * */
+	private long firstRing(long cx, long cy) {
+		return Math.max(Math.max(Math.max(minCx - cx, cx - maxCx), Math.max(minCy - cy, cy - maxCy)), 0);
+	}
+
+	/*
+	 * Visit points of cells on border of square of cells around a cell, only cells in bounds of used cells are visited.
+	 * */
+	private void visitRing(long cx, long cy, long ring, boolean k) {
+		if (ring == 0) {
+			visitCell(cx, cy, k);
+			return;
+		}
+		long top = cy - ring, bottom = cy + ring, left = cx - ring, right = cx + ring;
+		for (long i = Math.max(left, minCx), to = Math.min(right, maxCx); i <= to; i++) {
+			if (top >= minCy)
+				visitCell(i, top, k);
+			if (bottom <= maxCy)
+				visitCell(i, bottom, k);
+		}
+		for (long i = Math.max(top + 1, minCy), to = Math.min(bottom - 1, maxCy); i <= to; i++) {
+			if (left >= minCx)
+				visitCell(left, i, k);
+			if (right <= maxCx)
+				visitCell(right, i, k);
+		}
+	}
+
+	/*
+	 * Visit points of used cells of hash table that are on a ring from the given ring on, cells of inner rings
+	 * have been visited. Cells that are farther than the farthest found point are skipped.
+	 * */
+	private void visitTable(long cx, long cy, long ring, boolean k) {
+		for (int slot = 0; slot < keysX.length; slot++) {
+			long kx = keysX[slot], ky = keysY[slot];
+			if (kx == FREE || Math.max(Math.abs(kx - cx), Math.abs(ky - cy)) < ring)
+				continue;
+			double bound = (Math.max(Math.abs(kx - cx), Math.abs(ky - cy)) - 1) * cellSize;
+			double farthest = k ? (heapSize < heapCapacity ? Double.POSITIVE_INFINITY : heapDistances[0]) : bestDistance;
+			if (farthest <= bound * bound)
+				continue;
+			visitCell(kx, ky, k);
+		}
+	}
+
+	private void visitCell(long cx, long cy, boolean k) {
+		if (cx < minCx || cx > maxCx || cy < minCy || cy > maxCy)
+			return;
+		int slot = slot(cx, cy, false);
+		if (slot == EMPTY)
+			return;
+		for (int p = heads[slot]; p != EMPTY; p = next[p]) {
+			if (removed[p])
+				continue;
+			double dx = x[p] - qx, dy = y[p] - qy;
+			double d = dx * dx + dy * dy;
+			if (!k) {
+				if (d < bestDistance) {
+					bestDistance = d;
+					best = p;
+				}
+			} else if (heapSize < heapCapacity)
+				push(p, d);
+			else if (d < heapDistances[0]) {
+				pop();
+				push(p, d);
+			}
+		}
+	}
+
+	/*
+	 * Add point to max heap of found points.
+	 * */
+	private void push(int p, double d) {
+		int i = heapSize++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heapDistances[parent] >= d)
+				break;
+			heap[i] = heap[parent];
+			heapDistances[i] = heapDistances[parent];
+			i = parent;
+		}
+		heap[i] = p;
+		heapDistances[i] = d;
+	}
+
+	/*
+	 * Remove the farthest point from max heap of found points.
+	 * */
+	private void pop() {
+		int last = heap[--heapSize];
+		double d = heapDistances[heapSize];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && heapDistances[child + 1] > heapDistances[child])
+				child++;
+			if (heapDistances[child] <= d)
+				break;
+			heap[i] = heap[child];
+			heapDistances[i] = heapDistances[child];
+			i = child;
+		}
+		heap[i] = last;
+		heapDistances[i] = d;
+	}
+
+	@Override
+	public void radius(double x, double y, double radius, IntConsumer consumer) {
+		double squaredRadius = radius * radius;
+		long fromX = Math.max(cell(x - radius), minCx), toX = Math.min(cell(x + radius), maxCx);
+		long fromY = Math.max(cell(y - radius), minCy), toY = Math.min(cell(y + radius), maxCy);
+		for (long cx = fromX; cx <= toX; cx++) {
+			for (long cy = fromY; cy <= toY; cy++) {
+				int slot = slot(cx, cy, false);
+				if (slot == EMPTY)
+					continue;
+				for (int p = heads[slot]; p != EMPTY; p = next[p]) {
+					double dx = this.x[p] - x, dy = this.y[p] - y;
+					if (!removed[p] && dx * dx + dy * dy <= squaredRadius)
+						consumer.accept(p);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void range(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+		long fromX = Math.max(cell(minX), minCx), toX = Math.min(cell(maxX), maxCx);
+		long fromY = Math.max(cell(minY), minCy), toY = Math.min(cell(maxY), maxCy);
+		if (fromX > toX || fromY > toY)
+			return;
+
+		// Scan hash table instead of cells of rectangle if rectangle has more cells than table
+		if ((double) (toX - fromX + 1) * (toY - fromY + 1) > keysX.length) {
+			for (int slot = 0; slot < keysX.length; slot++) {
+				if (keysX[slot] != FREE && keysX[slot] >= fromX && keysX[slot] <= toX && keysY[slot] >= fromY && keysY[slot] <= toY)
+					range(heads[slot], minX, minY, maxX, maxY, consumer);
+			}
+			return;
+		}
+		for (long cx = fromX; cx <= toX; cx++) {
+			for (long cy = fromY; cy <= toY; cy++) {
+				int slot = slot(cx, cy, false);
+				if (slot != EMPTY)
+					range(heads[slot], minX, minY, maxX, maxY, consumer);
+			}
+		}
+	}
+
+	/*
+	 * Find remaining points of list of a cell that are inside rectangle.
+	 * */
+	private void range(int head, double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+		for (int p = head; p != EMPTY; p = next[p])
+			if (!removed[p] && x[p] >= minX && x[p] <= maxX && y[p] >= minY && y[p] <= maxY)
+				consumer.accept(p);
+	}
+
+	@Override
+	public void remove(int i) {
+		removed[i] = true;
+	}
+
+	@Override
+	public boolean isRemoved(int i) {
+		return removed[i];
+	}
+
+	private long cell(double coordinate) {
+		return (long) Math.max(-MAX_CELL, Math.min(MAX_CELL, Math.floor(coordinate / cellSize)));
+	}
+
+	/*
+	 * Find slot of cell in hash table with linear probing.
+	 * @return slot of cell or -1 if cell doesn't exist and create is false
+	 * */
+	private int slot(long cx, long cy, boolean create) {
+		int mask = keysX.length - 1;
+		int slot = hash(cx, cy) & mask;
+		while (keysX[slot] != FREE) {
+			if (keysX[slot] == cx && keysY[slot] == cy)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		if (!create)
+			return EMPTY;
+		if ((cells + 1) * 2 > keysX.length) {
+			rehash();
+			return slot(cx, cy, true);
+		}
+		keysX[slot] = cx;
+		keysY[slot] = cy;
+		heads[slot] = EMPTY;
+		cells++;
+		return slot;
+	}
+
+	private void rehash() {
+		long[] oldX = keysX, oldY = keysY;
+		int[] oldHeads = heads;
+		keysX = new long[oldX.length * 2];
+		keysY = new long[oldX.length * 2];
+		heads = new int[oldX.length * 2];
+		Arrays.fill(keysX, FREE);
+		int mask = keysX.length - 1;
+		for (int i = 0; i < oldX.length; i++) {
+			if (oldX[i] == FREE)
+				continue;
+			int slot = hash(oldX[i], oldY[i]) & mask;
+			while (keysX[slot] != FREE)
+				slot = (slot + 1) & mask;
+			keysX[slot] = oldX[i];
+			keysY[slot] = oldY[i];
+			heads[slot] = oldHeads[i];
+		}
+	}
+
+	private static int hash(long cx, long cy) {
+		long key = (cx * 0x9E3779B97F4A7C15L) ^ (cy * 0xC2B2AE3D27D4EB4FL);
+		return (int) (key ^ (key >>> 32));
+	}
+}
@@ -0,0 +1,86 @@
+package tsplib;
+
+import solver.Graph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reader of weighted graphs in DIMACS shortest path format, that road networks are usually published in.
+ * Line "p sp n m" gives count of nodes and arcs, each line "a u v w" is an arc from node u to node v
+ * with weight w where nodes are numbered from one, and lines that start with c are comments.
+ * Arcs are parsed directly from bytes of mapped file into primitive arrays and then sorted into adjacency arrays of graph.
+ * @author Majid Feyzi
+ * @see Graph
+ * */
+public class DimacsReader {
+
+	private DimacsReader() {}
+
+	/**
+	 * Read graph of a DIMACS file.
+	 * @param path path of file
+	 * @return graph of file
+	 * @throws IOException if file can't be read or is not valid
+	 * */
+	public static Graph read(Path path) throws IOException {
+		int n = -1, m = 0;
+		int[] from = new int[0], to = new int[0];
+		double[] weight = new double[0];
+		try (MappedInput input = new MappedInput(path)) {
+			while (!input.isEnd()) {
+				String line = input.word();
+				switch (line) {
+				case "c":
+					input.value();
+					break;
+				case "p":
+					if (n >= 0)
+						throw new IOException("Problem line is repeated in " + path);
+					String[] problem = input.value().split("\\s+");
+					if (problem.length != 3 || !problem[0].equals("sp"))
+						throw new IOException("Invalid problem line in " + path);
+					long arcs;
+					try {
+						n = Integer.parseInt(problem[1]);
+						arcs = Long.parseLong(problem[2]);
+					} catch (NumberFormatException e) {
+						throw new IOException("Invalid problem line in " + path);
+					}
+					if (n < 0 || arcs < 0 || arcs > Integer.MAX_VALUE / 2)
+						throw new IOException("Invalid count of nodes or arcs in " + path);
+					from = new int[(int) arcs];
+					to = new int[(int) arcs];
+					weight = new double[(int) arcs];
+					break;
+				case "a":
+					if (n < 0)
+						throw new IOException("Problem line must be specified before arcs in " + path);
+					long u = input.integer(), v = input.integer();
+					if (u < 1 || u > n || v < 1 || v > n)
+						throw new IOException("Invalid arc " + u + " " + v + " in " + path);
+					if (m == from.length) {
+						int capacity = Math.max(16, m * 2);
+						from = Arrays.copyOf(from, capacity);
+						to = Arrays.copyOf(to, capacity);
+						weight = Arrays.copyOf(weight, capacity);
+					}
+					from[m] = (int) u - 1;
+					to[m] = (int) v - 1;
+					weight[m++] = input.number();
+					break;
+				default:
+					throw new IOException("Invalid line " + line + " in " + path);
+				}
+			}
+		}
+		if (n < 0)
+			throw new IOException("Problem line is missing in " + path);
+		try {
+			return Graph.of(n, from, to, weight, m);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage() + " in " + path, e);
+		}
+	}
+}
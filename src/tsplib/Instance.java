@@ -0,0 +1,118 @@
+package tsplib;
+
+import solver.Graph;
+import solver.Metric;
+import solver.PointSet;
+
+/**
+ * Problem or tour of a TSPLIB file.
+ * Problems have cities or an explicit matrix of weights and tours have order of visiting cities,
+ * other parts are specified by header of file.
+ * @author Majid Feyzi
+ * @see TsplibReader
+ * @see TsplibWriter
+ * */
+public class Instance {
+
+	// Specification of file
+	private final String name, comment, type, edgeWeightType;
+	private final int dimension;
+
+	// Cities of problem, or null if file has no coordinates
+	private final PointSet points;
+
+	// Complete graph of explicit weights between cities, or null if file has no weights
+	private final Graph graph;
+
+	// Order of visiting cities from zero, or null if file has no tour
+	private final int[] tour;
+
+	public Instance(String name, String comment, String type, String edgeWeightType, int dimension, PointSet points, Graph graph, int[] tour) {
+		this.name = name;
+		this.comment = comment;
+		this.type = type;
+		this.edgeWeightType = edgeWeightType;
+		this.dimension = dimension;
+		this.points = points;
+		this.graph = graph;
+		this.tour = tour;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getComment() {
+		return comment;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getEdgeWeightType() {
+		return edgeWeightType;
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	public PointSet getPoints() {
+		return points;
+	}
+
+	public Graph getGraph() {
+		return graph;
+	}
+
+	public int[] getTour() {
+		return tour;
+	}
+
+	/**
+	 * Get metric of distance between cities that edge weight type specifies.
+	 * @return metric, or null if edge weight type is not specified or is not supported
+	 * */
+	public Metric getMetric() {
+		return metric(edgeWeightType);
+	}
+
+	/**
+	 * Get metric of an edge weight type of TSPLIB.
+	 * @param edgeWeightType edge weight type
+	 * @return metric, or null if edge weight type is not supported
+	 * */
+	public static Metric metric(String edgeWeightType) {
+		if (edgeWeightType == null)
+			return null;
+		switch (edgeWeightType) {
+		case "EUC_2D":
+			return Metric.EUC_2D;
+		case "MAN_2D":
+			return Metric.MAN_2D;
+		case "GEO":
+			return Metric.GEO;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Get edge weight type of TSPLIB for a metric.
+	 * @param metric metric of distance between cities
+	 * @return edge weight type, or null if TSPLIB has no such type
+	 * */
+	public static String edgeWeightType(Metric metric) {
+		switch (metric) {
+		case EUC_2D:
+			return "EUC_2D";
+		case MAN_2D:
+			return "MAN_2D";
+		case GEO:
+			return "GEO";
+		default:
+			return null;
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package tsplib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of tokens of a text file that maps the file into memory.
+ * File is mapped in windows, so files larger than 2 GB can be read too. Bytes of window are copied
+ * in bulk into a reused chunk that is refilled before each token, so tokens are never split between two chunks
+ * and parsing doesn't pay for bounds checks of buffer on each byte.
+ * Numbers are parsed directly from bytes of file without creating strings.
+ * @author Majid Feyzi
+ * */
+class MappedInput implements Closeable {
+
+	// Size of mapped windows of file, size of chunks and maximum length of tokens
+	private static final long WINDOW = 1 << 26;
+	private static final int CHUNK = 1 << 16;
+	private static final int MAX_TOKEN = 1 << 12;
+
+	// Powers of ten that are exactly representable as double
+	private static final double[] POWERS = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private final FileChannel channel;
+	private final long size;
+
+	// Mapped window of file and it's offset in file
+	private MappedByteBuffer window;
+	private long windowBase;
+
+	// Chunk of file, it's offset in file and position of next byte in chunk
+	private final byte[] buffer = new byte[CHUNK];
+	private long base;
+	private int position, limit;
+
+	MappedInput(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		size = channel.size();
+		map(0);
+		fill();
+	}
+
+	private void map(long offset) throws IOException {
+		window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size - offset));
+		windowBase = offset;
+	}
+
+	/*
+	 * Keep the rest of chunk at it's beginning and copy next bytes of file after it.
+	 * */
+	private void fill() throws IOException {
+		int rest = limit - position;
+		System.arraycopy(buffer, position, buffer, 0, rest);
+		base += position;
+		position = 0;
+		limit = rest;
+		while (limit < CHUNK && base + limit < size) {
+			long offset = base + limit;
+			if (offset >= windowBase + window.limit())
+				map(offset);
+			int length = (int) Math.min(CHUNK - limit, windowBase + window.limit() - offset);
+			window.get((int) (offset - windowBase), buffer, limit, length);
+			limit += length;
+		}
+	}
+
+	/*
+	 * Refill chunk if a token may not fit in the rest of it.
+	 * */
+	private void ensure() throws IOException {
+		if (limit - position < MAX_TOKEN && base + limit < size)
+			fill();
+	}
+
+	/**
+	 * Skip spaces and empty lines and check that there is another token.
+	 * @return true if end of file has been reached
+	 * */
+	boolean isEnd() throws IOException {
+		skip(true);
+		return position == limit;
+	}
+
+	/**
+	 * Read next word, a word ends at space or colon.
+	 * @return word, or null if end of file has been reached
+	 * */
+	String word() throws IOException {
+		skip(true);
+		int start = position;
+		while (position < limit) {
+			byte b = buffer[position];
+			if (isSpace(b) || b == ':')
+				break;
+			position++;
+		}
+		return start == position ? null : string(start, position);
+	}
+
+	/**
+	 * Read rest of line after an optional colon without spaces around it.
+	 * @return rest of line
+	 * */
+	String value() throws IOException {
+		skip(false);
+		if (position < limit && buffer[position] == ':')
+			position++;
+		skip(false);
+		int start = position, end = position;
+		while (position < limit) {
+			byte b = buffer[position];
+			if (b == '\n' || b == '\r')
+				break;
+			position++;
+			if (!isSpace(b))
+				end = position;
+		}
+		return string(start, end);
+	}
+
+	/**
+	 * Read next integer.
+	 * @return integer
+	 * @throws IOException if next token is not an integer
+	 * */
+	long integer() throws IOException {
+		skip(true);
+		int start = position;
+		boolean negative = false;
+		if (position < limit && (buffer[position] == '-' || buffer[position] == '+'))
+			negative = buffer[position++] == '-';
+		long value = 0;
+		int digits = 0;
+		while (position < limit) {
+			int d = buffer[position] - '0';
+			if (d < 0 || d > 9)
+				break;
+			if (value > (Long.MAX_VALUE - d) / 10)
+				throw error("Too large integer", start);
+			value = value * 10 + d;
+			digits++;
+			position++;
+		}
+		if (digits == 0 || !isDelimiter())
+			throw error("Invalid integer", start);
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Read next number in decimal or scientific notation.
+	 * Numbers with at most 18 significant digits and small exponents are computed exactly from their digits,
+	 * other numbers are parsed by Double.parseDouble.
+	 * @return number
+	 * @throws IOException if next token is not a number
+	 * */
+	double number() throws IOException {
+		skip(true);
+		int start = position;
+		boolean negative = false;
+		if (position < limit && (buffer[position] == '-' || buffer[position] == '+'))
+			negative = buffer[position++] == '-';
+
+		// Significant digits of number and exponent of it's last digit
+		long mantissa = 0;
+		int significant = 0, digits = 0, exponent = 0;
+		boolean truncated = false, fraction = false;
+		while (position < limit) {
+			byte b = buffer[position];
+			if (b == '.' && !fraction) {
+				fraction = true;
+				position++;
+				continue;
+			}
+			int d = b - '0';
+			if (d < 0 || d > 9)
+				break;
+			digits++;
+			position++;
+			if (significant < 18) {
+				if (mantissa != 0 || d != 0) {
+					mantissa = mantissa * 10 + d;
+					significant++;
+				}
+				if (fraction)
+					exponent--;
+			} else {
+				truncated |= d != 0;
+				if (!fraction)
+					exponent++;
+			}
+		}
+		if (digits == 0)
+			throw error("Invalid number", start);
+		if (position < limit && (buffer[position] == 'e' || buffer[position] == 'E')) {
+			position++;
+			boolean negativeExponent = false;
+			if (position < limit && (buffer[position] == '-' || buffer[position] == '+'))
+				negativeExponent = buffer[position++] == '-';
+			int value = 0, exponentDigits = 0;
+			while (position < limit) {
+				int d = buffer[position] - '0';
+				if (d < 0 || d > 9)
+					break;
+				value = Math.min(value * 10 + d, 100000);
+				exponentDigits++;
+				position++;
+			}
+			if (exponentDigits == 0)
+				throw error("Invalid number", start);
+			exponent += negativeExponent ? -value : value;
+		}
+		if (!isDelimiter())
+			throw error("Invalid number", start);
+
+		if (truncated || mantissa >= 1L << 53 || exponent < -22 || exponent > 22)
+			return Double.parseDouble(string(start, position));
+		double value = exponent >= 0 ? mantissa * POWERS[exponent] : mantissa / POWERS[-exponent];
+		return negative ? -value : value;
+	}
+
+	/*
+	 * Skip spaces and if lines is true, skip line breaks too.
+	 * */
+	private void skip(boolean lines) throws IOException {
+		while (true) {
+			while (position < limit) {
+				byte b = buffer[position];
+				if (b == '\n' || b == '\r' ? !lines : !isSpace(b))
+					break;
+				position++;
+			}
+			int remaining = limit - position;
+			ensure();
+			if (limit - position == remaining)
+				return;
+		}
+	}
+
+	/*
+	 * Check that token ends at current position, end of window is end of token only at end of file.
+	 * */
+	private boolean isDelimiter() {
+		return position == limit ? base + limit >= size : isSpace(buffer[position]);
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+	}
+
+	private String string(int start, int end) {
+		return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+	}
+
+	private IOException error(String message, int start) {
+		return new IOException(message + " at byte " + (base + start));
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
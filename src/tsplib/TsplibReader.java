@@ -0,0 +1,195 @@
+package tsplib;
+
+import solver.Graph;
+import solver.PointSet;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reader of problems and tours in TSPLIB format.
+ * File is mapped into memory and coordinates are parsed directly from it's bytes into primitive arrays,
+ * so reading cities doesn't create any object for each line.
+ * Supported sections are NODE_COORD_SECTION with two dimensional coordinates, EDGE_WEIGHT_SECTION of explicit
+ * weights in full or triangular matrix formats, TOUR_SECTION and DISPLAY_DATA_SECTION that is skipped.
+ * @author Majid Feyzi
+ * @see TsplibWriter
+ * */
+public class TsplibReader {
+
+	private TsplibReader() {}
+
+	/**
+	 * Read problem or tour of a TSPLIB file.
+	 * @param path path of file
+	 * @return instance of file
+	 * @throws IOException if file can't be read or is not valid
+	 * */
+	public static Instance read(Path path) throws IOException {
+		String name = null, comment = null, type = null, edgeWeightType = null, edgeWeightFormat = null, coordType = null;
+		int dimension = -1;
+		PointSet points = null;
+		Graph graph = null;
+		int[] tour = null;
+		try (MappedInput input = new MappedInput(path)) {
+			while (!input.isEnd()) {
+				String keyword = input.word();
+				if (keyword == null)
+					throw new IOException("Expected keyword in " + path);
+				switch (keyword) {
+				case "NAME":
+					name = input.value();
+					break;
+				case "COMMENT":
+					comment = comment == null ? input.value() : comment + "\n" + input.value();
+					break;
+				case "TYPE":
+					type = input.value();
+					break;
+				case "DIMENSION":
+					dimension = dimension(input.value());
+					break;
+				case "EDGE_WEIGHT_TYPE":
+					edgeWeightType = input.value();
+					break;
+				case "EDGE_WEIGHT_FORMAT":
+					edgeWeightFormat = input.value();
+					break;
+				case "NODE_COORD_TYPE":
+					coordType = input.value();
+					break;
+				case "NODE_COORD_SECTION":
+					if (coordType != null && !coordType.equals("TWOD_COORDS"))
+						throw new IOException("Node coordinate type " + coordType + " is not supported");
+					points = coordinates(input, dimension);
+					break;
+				case "EDGE_WEIGHT_SECTION":
+					if (!"EXPLICIT".equals(edgeWeightType))
+						throw new IOException("Edge weights are given but edge weight type is " + edgeWeightType);
+					try {
+						graph = Graph.complete(dimension, weights(input, dimension, edgeWeightFormat));
+					} catch (IllegalArgumentException e) {
+						throw new IOException(e.getMessage() + " in " + path, e);
+					}
+					break;
+				case "DISPLAY_DATA_SECTION":
+					coordinates(input, dimension);
+					break;
+				case "TOUR_SECTION":
+					tour = tour(input, dimension);
+					break;
+				case "EOF":
+					return new Instance(name, comment, type, edgeWeightType, dimension, points, graph, tour);
+				default:
+					if (keyword.endsWith("_SECTION"))
+						throw new IOException("Section " + keyword + " is not supported");
+
+					// Ignore value of other keywords
+					input.value();
+				}
+			}
+		}
+		return new Instance(name, comment, type, edgeWeightType, dimension, points, graph, tour);
+	}
+
+	private static int dimension(String value) throws IOException {
+		try {
+			int dimension = Integer.parseInt(value);
+			if (dimension < 0)
+				throw new IOException("Invalid dimension " + value);
+			return dimension;
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid dimension " + value);
+		}
+	}
+
+	/*
+	 * Read coordinates of cities, each line has number of a city from one and it's coordinates.
+	 * */
+	private static PointSet coordinates(MappedInput input, int dimension) throws IOException {
+		if (dimension < 0)
+			throw new IOException("Dimension must be specified before coordinates");
+		double[] x = new double[dimension], y = new double[dimension];
+		boolean[] seen = new boolean[dimension];
+		for (int i = 0; i < dimension; i++) {
+			long node = input.integer();
+			if (node < 1 || node > dimension || seen[(int) node - 1])
+				throw new IOException("Invalid or repeated node " + node);
+			int city = (int) node - 1;
+			seen[city] = true;
+			x[city] = input.number();
+			y[city] = input.number();
+		}
+		return new PointSet(x, y);
+	}
+
+	/*
+	 * Read explicit weights into a full matrix row by row. Triangular formats give weights of symmetric problems,
+	 * upper triangle by columns has the same order as lower triangle by rows and vice versa.
+	 * */
+	private static double[] weights(MappedInput input, int dimension, String format) throws IOException {
+		if (dimension < 0)
+			throw new IOException("Dimension must be specified before edge weights");
+		if ((long) dimension * dimension > Integer.MAX_VALUE - 8)
+			throw new IOException("Matrix of dimension " + dimension + " is too large");
+		if (format == null)
+			throw new IOException("Edge weight format must be specified before edge weights");
+		int n = dimension;
+		double[] matrix = new double[n * n];
+		switch (format) {
+		case "FULL_MATRIX":
+			for (int i = 0; i < n * n; i++)
+				matrix[i] = input.number();
+			return matrix;
+		case "UPPER_ROW":
+		case "LOWER_COL":
+			return triangle(input, matrix, n, true, false);
+		case "UPPER_DIAG_ROW":
+		case "LOWER_DIAG_COL":
+			return triangle(input, matrix, n, true, true);
+		case "LOWER_ROW":
+		case "UPPER_COL":
+			return triangle(input, matrix, n, false, false);
+		case "LOWER_DIAG_ROW":
+		case "UPPER_DIAG_COL":
+			return triangle(input, matrix, n, false, true);
+		default:
+			throw new IOException("Edge weight format " + format + " is not supported");
+		}
+	}
+
+	/*
+	 * Read upper or lower triangle of a symmetric matrix row by row, with or without it's diagonal.
+	 * */
+	private static double[] triangle(MappedInput input, double[] matrix, int n, boolean upper, boolean diagonal) throws IOException {
+		for (int i = 0; i < n; i++) {
+			int from = upper ? (diagonal ? i : i + 1) : 0;
+			int to = upper ? n : (diagonal ? i + 1 : i);
+			for (int j = from; j < to; j++)
+				matrix[i * n + j] = matrix[j * n + i] = input.number();
+		}
+		return matrix;
+	}
+
+	/*
+	 * Read tour that is a list of numbers of cities from one that ends with -1.
+	 * */
+	private static int[] tour(MappedInput input, int dimension) throws IOException {
+		int[] tour = new int[Math.max(dimension, 16)];
+		int size = 0;
+		while (!input.isEnd()) {
+			long node = input.integer();
+			if (node == -1)
+				break;
+			if (node < 1 || (dimension >= 0 && node > dimension))
+				throw new IOException("Invalid node " + node + " in tour");
+			if (size == tour.length)
+				tour = Arrays.copyOf(tour, size * 2);
+			tour[size++] = (int) node - 1;
+		}
+		if (dimension >= 0 && size != dimension)
+			throw new IOException("Tour has " + size + " nodes instead of " + dimension);
+		return Arrays.copyOf(tour, size);
+	}
+}
@@ -0,0 +1,114 @@
+package tsplib;
+
+import solver.PointSet;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writer of problems and tours in TSPLIB format.
+ * Numbers are written as bytes into a buffered stream, and integer coordinates are written without fraction.
+ * @author Majid Feyzi
+ * @see TsplibReader
+ * */
+public class TsplibWriter {
+
+	private TsplibWriter() {}
+
+	/**
+	 * Write cities of problem into a TSPLIB file with NODE_COORD_SECTION.
+	 * @param path path of file
+	 * @param name name of problem
+	 * @param comment comment of problem, or null
+	 * @param edgeWeightType edge weight type of problem such as EUC_2D
+	 * @param points cities of problem
+	 * @throws IOException if file can't be written
+	 * */
+	public static void writeProblem(Path path, String name, String comment, String edgeWeightType, PointSet points) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+			byte[] scratch = new byte[24];
+			header(out, "NAME", name);
+			header(out, "COMMENT", comment);
+			header(out, "TYPE", "TSP");
+			header(out, "DIMENSION", Integer.toString(points.size()));
+			header(out, "EDGE_WEIGHT_TYPE", edgeWeightType);
+			line(out, "NODE_COORD_SECTION");
+			for (int i = 0; i < points.size(); i++) {
+				integer(out, i + 1, scratch);
+				out.write(' ');
+				number(out, points.getX(i), scratch);
+				out.write(' ');
+				number(out, points.getY(i), scratch);
+				out.write('\n');
+			}
+			line(out, "EOF");
+		}
+	}
+
+	/**
+	 * Write tour into a TSPLIB file with TOUR_SECTION.
+	 * @param path path of file
+	 * @param name name of tour
+	 * @param comment comment of tour such as it's length, or null
+	 * @param tour order of visiting cities from zero
+	 * @throws IOException if file can't be written
+	 * */
+	public static void writeTour(Path path, String name, String comment, int[] tour) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+			byte[] scratch = new byte[24];
+			header(out, "NAME", name);
+			header(out, "COMMENT", comment);
+			header(out, "TYPE", "TOUR");
+			header(out, "DIMENSION", Integer.toString(tour.length));
+			line(out, "TOUR_SECTION");
+			for (int city : tour) {
+				integer(out, city + 1, scratch);
+				out.write('\n');
+			}
+			line(out, "-1");
+			line(out, "EOF");
+		}
+	}
+
+	/*
+	 * Write a keyword and it's value, keywords without value are not written.
+	 * */
+	private static void header(OutputStream out, String keyword, String value) throws IOException {
+		if (value == null)
+			return;
+		out.write(keyword.getBytes(StandardCharsets.ISO_8859_1));
+		out.write(" : ".getBytes(StandardCharsets.ISO_8859_1));
+		line(out, value.replace('\n', ' '));
+	}
+
+	private static void line(OutputStream out, String line) throws IOException {
+		out.write(line.getBytes(StandardCharsets.ISO_8859_1));
+		out.write('\n');
+	}
+
+	/*
+	 * Write number, integers are written with digits of long and others with Double.toString.
+	 * */
+	private static void number(OutputStream out, double value, byte[] scratch) throws IOException {
+		if (value == Math.rint(value) && Math.abs(value) < 1e15 && !(value == 0 && 1 / value < 0))
+			integer(out, (long) value, scratch);
+		else
+			out.write(Double.toString(value).getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private static void integer(OutputStream out, long value, byte[] scratch) throws IOException {
+		int position = scratch.length;
+		long rest = Math.abs(value);
+		do {
+			scratch[--position] = (byte) ('0' + rest % 10);
+			rest /= 10;
+		} while (rest != 0);
+		if (value < 0)
+			scratch[--position] = '-';
+		out.write(scratch, position, scratch.length - position);
+	}
+}
@@ -0,0 +1,103 @@
+package binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.Metric;
+import solver.MstTourSolver;
+import solver.PointSet;
+import solver.Tour;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Instances that are written in binary format must be read back without any change.
+ * @author Majid Feyzi
+ * */
+class BinaryRoundTripTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void citiesTreeAndTour() throws IOException {
+		for (int n : new int[] { 0, 1, 2, 7, 1000 }) {
+			PointSet points = points(n);
+			Tour tour = new MstTourSolver().solve(points, n / 2);
+			Path file = directory.resolve("tree" + n + ".tspb");
+			BinaryWriter.write(file, points, true, Metric.EUC_2D, tour.getOrder(), tour.getCost());
+
+			// Arrays start at multiples of eight also for odd counts of cities
+			int flags = BinaryFormat.FLAG_TREE | BinaryFormat.FLAG_TOUR;
+			assertEquals(0, BinaryFormat.tourOffset(n, flags) % 8);
+			assertEquals(BinaryFormat.size(n, flags), Files.size(file));
+
+			BinaryInstance instance = BinaryReader.read(file);
+			assertCities(points, instance.getPoints());
+			assertTrue(instance.hasTree());
+			for (int i = 0; i < n; i++)
+				assertEquals(points.getParent(i), instance.getPoints().getParent(i));
+			assertEquals(Metric.EUC_2D, instance.getMetric());
+			assertArrayEquals(tour.getOrder(), instance.getTour());
+			assertEquals(tour.getCost(), instance.getCost());
+		}
+	}
+
+	@Test
+	void citiesOnly() throws IOException {
+		PointSet points = points(33);
+		Path file = directory.resolve("cities.tspb");
+		BinaryWriter.write(file, points, false, null, null, 0);
+
+		BinaryInstance instance = BinaryReader.read(file);
+		assertCities(points, instance.getPoints());
+		assertEquals(false, instance.hasTree());
+		assertNull(instance.getMetric());
+		assertNull(instance.getTour());
+	}
+
+	@Test
+	void everyMetric() throws IOException {
+		for (Metric metric : Metric.values()) {
+			Path file = directory.resolve(metric + ".tspb");
+			BinaryWriter.write(file, points(3), false, metric, null, 0);
+			assertEquals(metric, BinaryReader.read(file).getMetric());
+		}
+
+		// Codes of metrics don't depend on order of constants
+		Path file = directory.resolve("code.tspb");
+		BinaryWriter.write(file, points(3), false, Metric.MAN_2D, null, 0);
+		ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(BinaryFormat.VERSION, header.getInt(4));
+		assertEquals(6, header.getInt(16));
+		header.putInt(16, 42);
+		Files.write(file, header.array());
+		assertThrows(IOException.class, () -> BinaryReader.read(file));
+	}
+
+	private static PointSet points(int n) {
+		Random random = new Random(n);
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++)
+			points.add(random.nextGaussian() * 1e6, random.nextDouble());
+		return points;
+	}
+
+	private static void assertCities(PointSet expected, PointSet actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getX(i), actual.getX(i));
+			assertEquals(expected.getY(i), actual.getY(i));
+		}
+	}
+}
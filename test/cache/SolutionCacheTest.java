@@ -0,0 +1,154 @@
+package cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.Metric;
+import solver.MstTourSolver;
+import solver.PointSet;
+import solver.Tour;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache must find tours of the same cities in any order, evict least recently used entries
+ * at it's limits and keep entries in it's directory between instances.
+ * @author Majid Feyzi
+ * */
+class SolutionCacheTest {
+
+	private static final String OPTIONS = "MST EUCLIDEAN 0";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void permutedCitiesHit() {
+		SolutionCache cache = new SolutionCache();
+		PointSet points = points(200, 1);
+		Tour tour = new MstTourSolver().solve(points, 17);
+		cache.put(SolutionCache.key(points, 17, OPTIONS), points, tour, Metric.EUCLIDEAN);
+
+		// Shuffle cities, start city moves with them
+		Random random = new Random(2);
+		int n = points.size();
+		int[] permutation = new int[n];
+		for (int i = 0; i < n; i++)
+			permutation[i] = i;
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1), t = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = t;
+		}
+		PointSet shuffled = new PointSet(n);
+		int start = -1;
+		for (int i = 0; i < n; i++) {
+			shuffled.add(points.getX(permutation[i]), points.getY(permutation[i]));
+			if (permutation[i] == 17)
+				start = i;
+		}
+
+		assertEquals(SolutionCache.key(points, 17, OPTIONS), SolutionCache.key(shuffled, start, OPTIONS));
+		assertNotEquals(SolutionCache.key(points, 18, OPTIONS), SolutionCache.key(points, 17, OPTIONS));
+		Tour cached = cache.get(SolutionCache.key(shuffled, start, OPTIONS), shuffled);
+		assertNotNull(cached);
+		assertEquals(1, cache.getHits());
+		check(shuffled, start, cached);
+		assertEquals(tour.getCost(), cached.getCost());
+		assertEquals(tour.getMstCost(), cached.getMstCost());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		SolutionCache cache = new SolutionCache(2, Long.MAX_VALUE, null);
+		PointSet[] instances = { points(10, 3), points(10, 4), points(10, 5) };
+		SolutionCache.Key[] keys = new SolutionCache.Key[instances.length];
+		for (int i = 0; i < instances.length; i++)
+			keys[i] = SolutionCache.key(instances[i], 0, OPTIONS);
+
+		cache.put(keys[0], instances[0], new MstTourSolver().solve(instances[0], 0), Metric.EUCLIDEAN);
+		cache.put(keys[1], instances[1], new MstTourSolver().solve(instances[1], 0), Metric.EUCLIDEAN);
+
+		// Using the first entry makes the second one least recently used
+		assertNotNull(cache.get(keys[0], instances[0]));
+		cache.put(keys[2], instances[2], new MstTourSolver().solve(instances[2], 0), Metric.EUCLIDEAN);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNull(cache.get(keys[1], instances[1]));
+		assertNotNull(cache.get(keys[0], instances[0]));
+		assertNotNull(cache.get(keys[2], instances[2]));
+	}
+
+	@Test
+	void evictsOverSizeLimit() {
+		// Each entry of 100 cities takes more than a third of limit
+		long limit = 3000;
+		SolutionCache cache = new SolutionCache(100, limit, null);
+		for (int i = 0; i < 10; i++) {
+			PointSet points = points(100, 10 + i);
+			cache.put(SolutionCache.key(points, 0, OPTIONS), points, new MstTourSolver().solve(points, 0), Metric.EUCLIDEAN);
+			assertTrue(cache.getBytes() <= limit, "Cache keeps " + cache.getBytes() + " bytes");
+		}
+		assertEquals(2, cache.size());
+		assertEquals(8, cache.getEvictions());
+	}
+
+	@Test
+	void diskRoundTrip() {
+		PointSet points = points(300, 6);
+		Tour tour = new MstTourSolver().solve(points, 5);
+		SolutionCache.Key key = SolutionCache.key(points, 5, OPTIONS);
+		new SolutionCache(16, Long.MAX_VALUE, directory).put(key, points, tour, Metric.EUCLIDEAN);
+
+		// Another cache of the same directory reads entry from it's file
+		SolutionCache cache = new SolutionCache(16, Long.MAX_VALUE, directory);
+		PointSet copy = points(300, 6);
+		Tour cached = cache.get(SolutionCache.key(copy, 5, OPTIONS), copy);
+		assertNotNull(cached);
+		assertEquals(1, cache.getDiskHits());
+		assertArrayEquals(tour.getOrder(), cached.getOrder());
+		assertEquals(tour.getCost(), cached.getCost());
+		assertEquals(tour.getMstCost(), cached.getMstCost(), 1e-9 * tour.getMstCost());
+		for (int i = 0; i < copy.size(); i++)
+			assertEquals(points.getParent(i), copy.getParent(i));
+		check(copy, 5, cached);
+	}
+
+	private static PointSet points(int n, long seed) {
+		Random random = new Random(seed);
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++)
+			points.add(random.nextDouble() * 1000, random.nextDouble() * 1000);
+		return points;
+	}
+
+	/*
+	 * Check that tour visits each city once from start with it's real cost, and that MST is restored with it's weight.
+	 * */
+	private static void check(PointSet points, int start, Tour tour) {
+		int n = points.size();
+		int[] order = tour.getOrder();
+		assertEquals(n, order.length);
+		assertEquals(start, order[0]);
+		boolean[] seen = new boolean[n];
+		double cost = 0, mstCost = 0;
+		for (int i = 0; i < n; i++) {
+			assertTrue(!seen[order[i]], "Tour visits " + order[i] + " twice");
+			seen[order[i]] = true;
+			int a = order[i], b = order[(i + 1) % n];
+			cost += Metric.EUCLIDEAN.distance(points.getX(a), points.getY(a), points.getX(b), points.getY(b));
+			int parent = points.getParent(i);
+			if (parent != PointSet.NONE)
+				mstCost += Metric.EUCLIDEAN.distance(points.getX(i), points.getY(i), points.getX(parent), points.getY(parent));
+		}
+		assertEquals(cost, tour.getCost(), 1e-9 * cost);
+		assertEquals(tour.getMstCost(), mstCost, 1e-9 * mstCost);
+	}
+}
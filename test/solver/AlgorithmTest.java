@@ -0,0 +1,75 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every algorithm must return a tour that visits each city once from start city with it's real cost.
+ * @author Majid Feyzi
+ * */
+class AlgorithmTest {
+
+	@Test
+	void toursAreValid() {
+		for (Algorithm algorithm : Algorithm.values()) {
+			for (Metric metric : new Metric[] { Metric.EUCLIDEAN, Metric.MANHATTAN, Metric.HAVERSINE }) {
+				for (int n : new int[] { 0, 1, 2, 3, 10, 500 }) {
+					PointSet points = metric == Metric.HAVERSINE ? sphere(n) : TestPoints.uniform(n, n);
+					int start = n / 3;
+					Tour tour = algorithm.create(metric).solve(points, start);
+					String name = algorithm + " " + metric + " " + n;
+					check(points, start, tour, metric, name);
+
+					// MST based tours are at most twice the weight of MST in metric spaces
+					if (algorithm != Algorithm.HILBERT)
+						assertTrue(tour.getCost() <= 2 * tour.getMstCost() + 1e-6, name);
+				}
+			}
+		}
+	}
+
+	@Test
+	void improvedToursAreValid() {
+		PointSet points = TestPoints.uniform(2000, 5);
+		for (Algorithm algorithm : Algorithm.values()) {
+			Tour initial = algorithm.create(Metric.EUCLIDEAN).solve(points, 7);
+			Tour tour = new LocalSearch(Metric.EUCLIDEAN).improve(points, initial);
+			check(points, 7, tour, Metric.EUCLIDEAN, algorithm.toString());
+			assertTrue(tour.getCost() <= initial.getCost() + 1e-6, algorithm.toString());
+		}
+	}
+
+	static void check(PointSet points, int start, Tour tour, DistanceMetric metric, String name) {
+		int n = points.size();
+		int[] order = tour.getOrder();
+		assertEquals(n, order.length, name);
+		if (n == 0)
+			return;
+		assertEquals(start, order[0], name);
+		boolean[] seen = new boolean[n];
+		for (int city : order) {
+			assertTrue(!seen[city], name + " visits " + city + " twice");
+			seen[city] = true;
+		}
+		double cost = 0;
+		for (int i = 0; i < n; i++) {
+			int a = order[i], b = order[(i + 1) % n];
+			cost += metric.distance(points.getX(a), points.getY(a), points.getX(b), points.getY(b));
+		}
+		assertEquals(cost, tour.getCost(), 1e-9 * Math.max(1, cost), name);
+	}
+
+	/*
+	 * Cities with longitude and latitude in degrees.
+	 * */
+	private static PointSet sphere(int n) {
+		PointSet points = TestPoints.uniform(n, n);
+		for (int i = 0; i < n; i++) {
+			points.xs()[i] = points.getX(i) / 1000 * 340 - 170;
+			points.ys()[i] = points.getY(i) / 1000 * 160 - 80;
+		}
+		return points;
+	}
+}
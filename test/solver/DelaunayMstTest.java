@@ -0,0 +1,25 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * MST of Delaunay triangulation must have the same weight as Prim algorithm over complete graph,
+ * also for repeated and collinear cities.
+ * @author Majid Feyzi
+ * */
+class DelaunayMstTest {
+
+	private static final int[] SIZES = { 0, 1, 2, 3, 10, 200, 2000 };
+
+	@Test
+	void matchesPrim() {
+		for (int n : SIZES) {
+			for (long seed = 0; seed < 3; seed++) {
+				TestPoints.checkMst(TestPoints.uniform(n, seed), new DelaunayMst(Metric.EUCLIDEAN), Metric.EUCLIDEAN);
+				TestPoints.checkMst(TestPoints.lattice(n, seed), new DelaunayMst(Metric.EUCLIDEAN), Metric.EUCLIDEAN);
+				TestPoints.checkMst(TestPoints.line(n, seed), new DelaunayMst(Metric.EUCLIDEAN), Metric.EUCLIDEAN);
+				TestPoints.checkMst(TestPoints.uniform(n, seed), new DelaunayMst(Metric.EUC_2D), Metric.EUC_2D);
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Matrix must keep distance of every pair as metric computes it, in full tiles, in last partial tile
+ * and for pairs of both orders.
+ * @author Majid Feyzi
+ * */
+class DistanceMatrixTest {
+
+	@Test
+	void matchesMetric() {
+		for (int n : new int[] {0, 1, 2, 63, 64, 65, 150, 300})
+			for (DistanceMetric metric : new DistanceMetric[] {Metric.EUCLIDEAN, Metric.MANHATTAN, Metric.SQUARED_EUCLIDEAN})
+				check(TestPoints.uniform(n, n), metric);
+	}
+
+	@Test
+	void size() {
+		assertEquals(0, DistanceMatrix.bytes(0));
+		assertEquals(64 * 64 * Float.BYTES, DistanceMatrix.bytes(64));
+		assertEquals(3 * 64 * 64 * Float.BYTES, DistanceMatrix.bytes(65));
+		assertEquals(150, new DistanceMatrix(TestPoints.uniform(150, 1), Metric.EUCLIDEAN).size());
+	}
+
+	/*
+	 * Check all pairs, matrix keeps floats so distances are equal up to float precision.
+	 * */
+	private static void check(PointSet points, DistanceMetric metric) {
+		DistanceMatrix matrix = new DistanceMatrix(points, metric);
+		int n = points.size();
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < n; j++) {
+				double expected = metric.distance(points.getX(i), points.getY(i), points.getX(j), points.getY(j));
+				assertEquals(expected, matrix.distance(i, j), 1e-6 * expected,
+						metric + " distance of " + i + " and " + j + " of " + n + " cities");
+			}
+	}
+}
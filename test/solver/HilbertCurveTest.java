@@ -0,0 +1,38 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Order of cities must follow Hilbert curve from it's first cell to it's last cell without a seam.
+ * @author Majid Feyzi
+ * */
+class HilbertCurveTest {
+
+	@Test
+	void cornersFollowCurve() {
+		// Curve starts at the first corner and ends at the corner beside it on the x axis
+		PointSet points = new PointSet();
+		points.add(1, 0);
+		points.add(0, 1);
+		points.add(0, 0);
+		points.add(1, 1);
+		assertArrayEquals(new int[] { 2, 1, 3, 0 }, HilbertCurve.order(points));
+	}
+
+	@Test
+	void latticeIsWalkedByUnitSteps() {
+		// Each cell of the curve over a 256 by 256 lattice has one city, so consecutive cities are neighbours
+		int side = 256;
+		PointSet points = new PointSet(side * side);
+		for (int i = 0; i < side; i++)
+			for (int j = 0; j < side; j++)
+				points.add(j, i);
+		int[] order = HilbertCurve.order(points);
+		assertEquals(points.size(), order.length);
+		for (int k = 1; k < order.length; k++)
+			assertEquals(1, Metric.MANHATTAN.distance(points.getX(order[k - 1]), points.getY(order[k - 1]), points.getX(order[k]), points.getY(order[k])), "Step " + k);
+	}
+}
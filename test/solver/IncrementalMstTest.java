@@ -0,0 +1,93 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tree that is kept while cities are added and removed must be the same as a tree built from scratch.
+ * @author Majid Feyzi
+ * */
+class IncrementalMstTest {
+
+	@Test
+	void addAndUndoMatchRebuild() {
+		Random random = new Random(3);
+		for (int trial = 0; trial < 20; trial++) {
+			IncrementalMst mst = new IncrementalMst(Metric.EUCLIDEAN);
+			PointSet points = new PointSet();
+			for (int step = 0; step < 300; step++) {
+				if (points.size() > 0 && random.nextInt(4) == 0) {
+					points.removeLast();
+					mst.removeLast();
+				} else {
+					// Lattice cities make repeated cities and ties of edges
+					if (trial % 2 == 0)
+						points.add(random.nextDouble() * 100, random.nextDouble() * 100);
+					else
+						points.add(random.nextInt(10), random.nextInt(10));
+					mst.addLast(points);
+				}
+				check(mst, points, random.nextInt(points.size() + 1));
+			}
+		}
+	}
+
+	@Test
+	void undoAfterRebuildMatchesRebuild() {
+		IncrementalMst mst = new IncrementalMst(Metric.EUCLIDEAN);
+		PointSet points = TestPoints.uniform(500, 4);
+
+		// Tree of cities that have been loaded at once is rebuilt, so changes of removing them are not known
+		check(mst, points, 0);
+		for (int i = 0; i < 100; i++) {
+			points.removeLast();
+			mst.removeLast();
+			check(mst, points, 0);
+		}
+		points.add(500, 500);
+		mst.addLast(points);
+		check(mst, points, points.size() - 1);
+	}
+
+	@Test
+	void loadedTreeAndSnapshotMatchRebuild() {
+		IncrementalMst mst = new IncrementalMst(Metric.EUCLIDEAN);
+		PointSet points = new PointSet();
+
+		// Cities that are added without tree make it stale until a tree built in background is loaded
+		for (int i = 0; i < 300; i++) {
+			points.add(i % 17 * 7.5, i / 17 * 3.25);
+			if (i < 2)
+				mst.addLast(points);
+		}
+		mst.addLast(points);
+		assertEquals(true, mst.isStale());
+		PointSet copy = points.copy();
+		new DelaunayMst(Metric.EUCLIDEAN).build(copy, 0, new int[copy.size()]);
+		mst.load(copy);
+		assertEquals(false, mst.isStale());
+
+		// Snapshot keeps tree of cities when they are added later
+		MstBuilder snapshot = mst.snapshot();
+		PointSet solved = points.copy();
+		points.add(1000, 1000);
+		mst.addLast(points);
+		check(mst, points, 5);
+		double expected = new PrimMst(Metric.EUCLIDEAN).build(solved.copy(), 7, new int[solved.size()]);
+		assertEquals(expected, snapshot.build(solved, 7, new int[solved.size()]), 1e-9 * expected);
+		assertEquals(expected, TestPoints.treeWeight(solved, 7, Metric.EUCLIDEAN), 1e-9 * expected);
+	}
+
+	private static void check(IncrementalMst mst, PointSet points, int root) {
+		int n = points.size();
+		if (root >= n)
+			root = 0;
+		double expected = new PrimMst(Metric.EUCLIDEAN).build(points.copy(), root, new int[n]);
+		double weight = mst.build(points, root, new int[n]);
+		assertEquals(expected, weight, 1e-9 * Math.max(1, expected), "Tree of " + n + " cities");
+		assertEquals(expected, TestPoints.treeWeight(points, root, Metric.EUCLIDEAN), 1e-9 * Math.max(1, expected));
+	}
+}
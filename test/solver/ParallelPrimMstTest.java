@@ -0,0 +1,43 @@
+package solver;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel Prim algorithm must find the same tree weight as sequential Prim algorithm.
+ * @author Majid Feyzi
+ * */
+class ParallelPrimMstTest {
+
+	private static ForkJoinPool pool;
+
+	@BeforeAll
+	static void createPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterAll
+	static void closePool() {
+		pool.shutdown();
+	}
+
+	@Test
+	void matchesPrim() {
+		// Large instances are split into ranges of at least 8192 cities
+		for (int n : new int[] { 0, 1, 2, 200, 20000 }) {
+			TestPoints.checkMst(TestPoints.uniform(n, n), new ParallelPrimMst(Metric.EUCLIDEAN, pool), Metric.EUCLIDEAN);
+			TestPoints.checkMst(TestPoints.lattice(n, n), new ParallelPrimMst(Metric.MANHATTAN, pool), Metric.MANHATTAN);
+		}
+	}
+
+	@Test
+	void ownPool() {
+		// Builder creates it's pool and shuts it down on close
+		try (ParallelPrimMst builder = new ParallelPrimMst(Metric.EUCLIDEAN, 3)) {
+			TestPoints.checkMst(TestPoints.uniform(20000, 5), builder, Metric.EUCLIDEAN);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Solves of service must stop on cancellation and deadline at start of a phase,
+ * closing service must cancel waiting solves and allocations must be measured on solving thread.
+ * @author Majid Feyzi
+ * */
+@Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+class SolveServiceTest {
+
+	/*
+	 * Solver that waits until it's released or solve is stopped, and then starts MST phase like other solvers.
+	 * */
+	private static class WaitingSolver implements TourSolver {
+		private final CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+
+		@Override
+		public Tour solve(PointSet points, int start, SolveMetrics metrics) {
+			started.countDown();
+			try {
+				while (!metrics.isStopped() && !release.await(1, TimeUnit.MILLISECONDS));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new MstTourSolver().solve(points, start, metrics);
+		}
+	}
+
+	@Test
+	void cancel() throws InterruptedException {
+		try (SolveService service = new SolveService(1)) {
+			WaitingSolver solver = new WaitingSolver();
+			SolveMetrics metrics = new SolveMetrics();
+			CompletableFuture<SolveResult> future = service.submit(solver, TestPoints.uniform(100, 1), 0, metrics);
+			solver.started.await();
+			assertTrue(future.cancel(false));
+			assertTrue(metrics.isCancelled());
+			assertThrows(CancellationException.class, future::join);
+		}
+	}
+
+	@Test
+	void deadline() throws InterruptedException {
+		try (SolveService service = new SolveService(1)) {
+			WaitingSolver solver = new WaitingSolver();
+			CompletableFuture<SolveResult> future = service.submit(solver, TestPoints.uniform(100, 2), 0, SolveListener.NONE, 50);
+			ExecutionException error = assertThrows(ExecutionException.class, future::get);
+			assertInstanceOf(TimeoutException.class, error.getCause());
+		}
+	}
+
+	@Test
+	void closeCancelsWaitingSolves() throws Exception {
+		SolveService service = new SolveService(1);
+		WaitingSolver running = new WaitingSolver();
+		CompletableFuture<SolveResult> first = service.submit(running, TestPoints.uniform(100, 3), 0, new SolveMetrics());
+		running.started.await();
+		CompletableFuture<SolveResult> waiting = service.submit(new MstTourSolver(), TestPoints.uniform(100, 4), 0, new SolveMetrics());
+		service.close();
+		assertTrue(waiting.isCancelled());
+
+		// Running solve is finished
+		running.release.countDown();
+		assertEquals(100, first.get().getOrder().length);
+		assertTrue(service.submit(new MstTourSolver(), TestPoints.uniform(10, 5), 0, new SolveMetrics()).isCompletedExceptionally());
+	}
+
+	@Test
+	void allocationsOfSolvingThread() throws Exception {
+		// Metrics are created on this thread after it has allocated much more than the solve does
+		long[][] garbage = new long[64][];
+		for (int i = 0; i < garbage.length; i++)
+			garbage[i] = new long[1 << 16];
+		try (SolveService service = new SolveService(1)) {
+			SolveMetrics metrics = new SolveMetrics(SolveListener.NONE);
+			service.submit(new MstTourSolver(), TestPoints.uniform(100, 6), 0, metrics).get();
+			long allocated = metrics.getAllocatedBytes();
+			assertTrue(allocated == -1 || allocated >= 0 && allocated < 8L * garbage.length * garbage[0].length, "Allocated " + allocated + " bytes");
+		}
+	}
+}
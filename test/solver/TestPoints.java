@@ -0,0 +1,93 @@
+package solver;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Instances of tests, uniform cities, cities on a small lattice with repeated and collinear cities
+ * and cities on a line, that are degenerate cases of Delaunay triangulation.
+ * @author Majid Feyzi
+ * */
+class TestPoints {
+
+	private TestPoints() {}
+
+	static PointSet uniform(int n, long seed) {
+		Random random = new Random(seed);
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++)
+			points.add(random.nextDouble() * 1000, random.nextDouble() * 1000);
+		return points;
+	}
+
+	static PointSet lattice(int n, long seed) {
+		Random random = new Random(seed);
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++)
+			points.add(random.nextInt(8), random.nextInt(8));
+		return points;
+	}
+
+	static PointSet line(int n, long seed) {
+		Random random = new Random(seed);
+		PointSet points = new PointSet(n);
+		for (int i = 0; i < n; i++) {
+			double t = random.nextDouble() * 100;
+			points.add(t, 2 * t + 1);
+		}
+		return points;
+	}
+
+	/**
+	 * Check that tree of point set is a spanning tree rooted at root and return it's weight.
+	 * */
+	static double treeWeight(PointSet points, int root, DistanceMetric metric) {
+		int n = points.size();
+		if (n == 0)
+			return 0;
+		if (points.getParent(root) != PointSet.NONE)
+			throw new AssertionError("Root has a parent");
+		int reached = 0;
+		double weight = 0;
+		int[] stack = new int[n];
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int v = stack[--top];
+			reached++;
+			for (int child = points.getFirstChild(v); child != PointSet.NONE; child = points.getNextSibling(child)) {
+				if (points.getParent(child) != v)
+					throw new AssertionError("Parent of " + child + " is not " + v);
+				weight += metric.distance(points.getX(v), points.getY(v), points.getX(child), points.getY(child));
+				stack[top++] = child;
+			}
+		}
+		if (reached != n)
+			throw new AssertionError("Tree reaches " + reached + " of " + n + " cities");
+		return weight;
+	}
+
+	/**
+	 * Build MST with builder from a middle root and check it against Prim algorithm over complete graph,
+	 * each city must come after it's parent in MST order.
+	 * */
+	static void checkMst(PointSet points, MstBuilder builder, DistanceMetric metric) {
+		int n = points.size(), root = n / 2;
+		double expected = new PrimMst(metric).build(points.copy(), root, new int[n]);
+		int[] mstOrder = new int[n];
+		double weight = builder.build(points, root, mstOrder);
+		assertEquals(expected, weight, 1e-9 * Math.max(1, expected), builder.getClass().getSimpleName() + " of " + n + " cities");
+		assertEquals(expected, treeWeight(points, root, metric), 1e-9 * Math.max(1, expected));
+		if (n > 0) {
+			assertEquals(root, mstOrder[0]);
+			boolean[] seen = new boolean[n];
+			for (int v : mstOrder) {
+				assertEquals(false, seen[v], "MST order repeats city " + v);
+				seen[v] = true;
+				if (v != root)
+					assertEquals(true, seen[points.getParent(v)], "Parent of " + v + " comes after it in MST order");
+			}
+		}
+	}
+}
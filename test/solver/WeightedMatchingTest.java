@@ -0,0 +1,112 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Blossom algorithm must find matchings as good as brute force over all matchings of small graphs.
+ * @author Majid Feyzi
+ * */
+class WeightedMatchingTest {
+
+	@Test
+	void minimumPerfectMatchesBruteForce() {
+		Random random = new Random(1);
+		for (int trial = 0; trial < 300; trial++) {
+			int n = 2 * (1 + random.nextInt(5));
+			long[][] w = new long[n][n];
+			for (int i = 0; i < n; i++)
+				for (int j = i + 1; j < n; j++)
+					w[i][j] = w[j][i] = random.nextInt(trial % 2 == 0 ? 5 : 1000);
+			int[] mate = WeightedMatching.minimumPerfect(n, (i, j) -> w[i][j]);
+			long weight = 0;
+			for (int i = 0; i < n; i++) {
+				assertEquals(i, mate[mate[i]], "Matching is not symmetric");
+				if (i < mate[i])
+					weight += w[i][mate[i]];
+			}
+			assertEquals(minimumPerfect(w, new boolean[n]), weight, "Graph of " + n + " vertices");
+		}
+	}
+
+	@Test
+	void maximumMatchesBruteForce() {
+		Random random = new Random(2);
+		for (int trial = 0; trial < 300; trial++) {
+			int n = 1 + random.nextInt(8);
+			long[][] w = new long[n][n];
+			int[] from = new int[n * n], to = new int[n * n];
+			long[] weight = new long[n * n];
+			int edges = 0;
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					if (random.nextInt(3) > 0) {
+						from[edges] = i;
+						to[edges] = j;
+						weight[edges] = 1 + random.nextInt(50);
+						w[i][j] = w[j][i] = weight[edges++];
+					}
+				}
+			}
+			int[] mate = WeightedMatching.maximum(n, Arrays.copyOf(from, edges), Arrays.copyOf(to, edges), Arrays.copyOf(weight, edges), false);
+			long total = 0;
+			for (int i = 0; i < n; i++) {
+				if (mate[i] != -1) {
+					assertEquals(i, mate[mate[i]], "Matching is not symmetric");
+					if (i < mate[i]) {
+						assertEquals(true, w[i][mate[i]] > 0, "Matched vertices are not adjacent");
+						total += w[i][mate[i]];
+					}
+				}
+			}
+			assertEquals(maximum(w, new boolean[n], 0), total, "Graph of " + n + " vertices");
+		}
+	}
+
+	/*
+	 * Minimum weight perfect matching of unmatched vertices by trying every mate of the first unmatched vertex.
+	 * */
+	private static long minimumPerfect(long[][] w, boolean[] matched) {
+		int first = 0;
+		while (first < matched.length && matched[first])
+			first++;
+		if (first == matched.length)
+			return 0;
+		matched[first] = true;
+		long best = Long.MAX_VALUE;
+		for (int j = first + 1; j < matched.length; j++) {
+			if (!matched[j]) {
+				matched[j] = true;
+				best = Math.min(best, w[first][j] + minimumPerfect(w, matched));
+				matched[j] = false;
+			}
+		}
+		matched[first] = false;
+		return best;
+	}
+
+	/*
+	 * Maximum weight matching of vertices from first on, each vertex is left unmatched or matched to a later neighbour.
+	 * */
+	private static long maximum(long[][] w, boolean[] matched, int first) {
+		while (first < matched.length && matched[first])
+			first++;
+		if (first == matched.length)
+			return 0;
+		matched[first] = true;
+		long best = maximum(w, matched, first + 1);
+		for (int j = first + 1; j < matched.length; j++) {
+			if (!matched[j] && w[first][j] > 0) {
+				matched[j] = true;
+				best = Math.max(best, w[first][j] + maximum(w, matched, first + 1));
+				matched[j] = false;
+			}
+		}
+		matched[first] = false;
+		return best;
+	}
+}
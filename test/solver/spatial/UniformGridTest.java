@@ -0,0 +1,101 @@
+package solver.spatial;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Nearest queries of uniform grid must find the same points as a scan of all points,
+ * also for few points that are far apart compared to size of cells.
+ * @author Majid Feyzi
+ * */
+class UniformGridTest {
+
+	@Test
+	@Timeout(value = 5, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+	void sparseFarApartPoints() {
+		UniformGrid grid = new UniformGrid(20);
+		double side = 1e7;
+		double[] x = { 0, side, 0, side }, y = { 0, 0, side, side };
+		for (int i = 0; i < x.length; i++)
+			grid.add(x[i], y[i]);
+		assertEquals(0, grid.nearest(side / 2 - 1, side / 2 - 1));
+		assertEquals(3, grid.nearest(side / 2 + 1, side / 2 + 1));
+		assertEquals(1, grid.nearest(3 * side, -side));
+		int[] out = new int[3];
+		assertEquals(3, grid.nearest(side / 2 - 1, side / 2 - 2, 3, out));
+		assertEquals(0, out[0]);
+	}
+
+	@Test
+	@Timeout(value = 5, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+	void zoomedOutOverSparseVertices() {
+		// Vertices of grid are far apart compared to cells of their size on screen, and grid is zoomed out over them
+		Random random = new Random(2);
+		int n = 50;
+		double spread = 1e9;
+		double[] x = new double[n], y = new double[n];
+		UniformGrid grid = new UniformGrid(20);
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * spread;
+			y[i] = random.nextDouble() * spread;
+			grid.add(x[i], y[i]);
+		}
+		UniformGrid sized = new UniformGrid(x, y, n);
+		int[] visible = new int[1];
+		grid.range(-spread, -spread, 2 * spread, 2 * spread, i -> visible[0]++);
+		assertEquals(n, visible[0]);
+		for (int q = 0; q < 100; q++) {
+			double px = random.nextDouble() * spread, py = random.nextDouble() * spread;
+			int[] expected = scan(x, y, px, py, 4);
+			assertEquals(expected[0], grid.nearest(px, py));
+			assertEquals(expected[0], sized.nearest(px, py));
+			int[] out = new int[4];
+			assertEquals(4, grid.nearest(px, py, 4, out));
+			assertArrayEquals(expected, out);
+		}
+	}
+
+	@Test
+	void matchesScan() {
+		Random random = new Random(1);
+		for (double spread : new double[] { 100, 1e6 }) {
+			UniformGrid grid = new UniformGrid(1);
+			int n = 300;
+			double[] x = new double[n], y = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = random.nextDouble() * spread;
+				y[i] = random.nextDouble() * spread;
+				grid.add(x[i], y[i]);
+			}
+			for (int q = 0; q < 100; q++) {
+				double px = (random.nextDouble() * 3 - 1) * spread, py = (random.nextDouble() * 3 - 1) * spread;
+				int[] expected = scan(x, y, px, py, 5);
+				assertEquals(expected[0], grid.nearest(px, py));
+				int[] out = new int[5];
+				assertEquals(5, grid.nearest(px, py, 5, out));
+				assertArrayEquals(expected, out);
+			}
+		}
+	}
+
+	/*
+	 * Find k nearest points to location by sorting all points by their distance.
+	 * */
+	private static int[] scan(double[] x, double[] y, double px, double py, int k) {
+		Integer[] order = new Integer[x.length];
+		for (int i = 0; i < x.length; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> Double.compare((x[a] - px) * (x[a] - px) + (y[a] - py) * (y[a] - py),
+				(x[b] - px) * (x[b] - px) + (y[b] - py) * (y[b] - py)));
+		int[] nearest = new int[k];
+		for (int i = 0; i < k; i++)
+			nearest[i] = order[i];
+		return nearest;
+	}
+}
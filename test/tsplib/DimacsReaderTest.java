@@ -0,0 +1,162 @@
+package tsplib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.Graph;
+import solver.GraphTourSolver;
+import solver.SolveMetrics;
+import solver.Tour;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Graphs of DIMACS files must be read with their arcs, and tours of graphs must visit each city once
+ * with cost of shortest paths between consecutive cities, through direct arcs, MST paths or Dijkstra algorithm.
+ * @author Majid Feyzi
+ * */
+class DimacsReaderTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void read() throws IOException {
+		Graph graph = DimacsReader.read(write("read", "c small graph\np sp 3 3\na 1 2 5\nc between arcs\na 2 1 5\na 2 3 2.5\n"));
+		assertEquals(3, graph.size());
+		// Arc 2 -> 3 has a reverse slot with infinite weight in adjacency
+		assertEquals(4, graph.arcs());
+		assertEquals(5, graph.weight(0, 1));
+		assertEquals(5, graph.weight(1, 0));
+		assertEquals(2.5, graph.weight(1, 2));
+		assertEquals(Double.POSITIVE_INFINITY, graph.weight(2, 1));
+		assertFalse(graph.isSymmetric());
+	}
+
+	@Test
+	void invalid() throws IOException {
+		assertThrows(IOException.class, () -> DimacsReader.read(write("arc", "a 1 2 1\np sp 2 1\n")));
+		assertThrows(IOException.class, () -> DimacsReader.read(write("node", "p sp 2 1\na 1 3 1\n")));
+		assertThrows(IOException.class, () -> DimacsReader.read(write("problem", "c no problem line\n")));
+	}
+
+	@Test
+	void directArcsAndMstPaths() throws IOException {
+		// Cities are on a line in shuffled order with some chords, so shortest path between any two cities is their distance
+		int n = 40;
+		Random random = new Random(3);
+		int[] x = new int[n];
+		for (int i = 1; i < n; i++)
+			x[i] = x[i - 1] + 1 + random.nextInt(20);
+		int[] city = shuffle(n, random);
+		StringBuilder arcs = new StringBuilder();
+		int m = 0;
+		for (int i = 0; i < n; i++)
+			for (int j = i + 1; j < n; j++)
+				if (j == i + 1 || random.nextInt(4) == 0) {
+					arcs.append(arc(city[i], city[j], x[j] - x[i])).append(arc(city[j], city[i], x[j] - x[i]));
+					m += 2;
+				}
+		Graph graph = DimacsReader.read(write("line", "p sp " + n + " " + m + "\n" + arcs));
+		assertTrue(graph.isSymmetric());
+		check(graph, 7);
+	}
+
+	@Test
+	void asymmetricTree() throws IOException {
+		// Only path between two cities is through tree, each direction of an edge has it's own weight
+		int n = 60;
+		Random random = new Random(4);
+		StringBuilder arcs = new StringBuilder();
+		for (int v = 1; v < n; v++) {
+			int parent = random.nextInt(v);
+			arcs.append(arc(parent, v, 1 + random.nextInt(50))).append(arc(v, parent, 1 + random.nextInt(50)));
+		}
+		Graph graph = DimacsReader.read(write("tree", "p sp " + n + " " + 2 * (n - 1) + "\n" + arcs));
+		assertFalse(graph.isSymmetric());
+		check(graph, 0);
+		check(graph, 31);
+	}
+
+	@Test
+	void oneWayCycle() throws IOException {
+		// Arcs of cycle have only one direction, so steps back through MST take Dijkstra algorithm around cycle
+		int n = 25;
+		Random random = new Random(5);
+		int[] city = shuffle(n, random);
+		StringBuilder arcs = new StringBuilder();
+		for (int i = 0; i < n; i++)
+			arcs.append(arc(city[i], city[(i + 1) % n], 1 + random.nextInt(9)));
+		arcs.append(arc(city[3], city[10], 100));
+		Graph graph = DimacsReader.read(write("cycle", "p sp " + n + " " + (n + 1) + "\n" + arcs));
+		check(graph, 0);
+		check(graph, city[12]);
+	}
+
+	@Test
+	void disconnected() throws IOException {
+		Graph graph = DimacsReader.read(write("disconnected", "p sp 4 4\na 1 2 1\na 2 1 1\na 3 4 1\na 4 3 1\n"));
+		assertThrows(IllegalArgumentException.class, () -> new GraphTourSolver().solve(graph, 0, new SolveMetrics()));
+	}
+
+	/*
+	 * Check that tour visits each city once from start and it's cost is sum of shortest paths between consecutive cities,
+	 * shortest paths are found with Floyd-Warshall algorithm.
+	 * */
+	private static void check(Graph graph, int start) {
+		int n = graph.size();
+		double[][] shortest = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++)
+				shortest[i][j] = graph.weight(i, j);
+			shortest[i][i] = 0;
+		}
+		for (int k = 0; k < n; k++)
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					shortest[i][j] = Math.min(shortest[i][j], shortest[i][k] + shortest[k][j]);
+
+		Tour tour = new GraphTourSolver().solve(graph, start, new SolveMetrics());
+		int[] order = tour.getOrder();
+		assertEquals(n, order.length);
+		assertEquals(start, order[0]);
+		int[] sorted = order.clone();
+		Arrays.sort(sorted);
+		for (int i = 0; i < n; i++)
+			assertEquals(i, sorted[i], "Tour doesn't visit each city once");
+		double cost = 0;
+		for (int i = 0; i < n; i++)
+			cost += shortest[order[i]][order[(i + 1) % n]];
+		assertEquals(cost, tour.getCost());
+	}
+
+	private static int[] shuffle(int n, Random random) {
+		int[] city = new int[n];
+		for (int i = 0; i < n; i++)
+			city[i] = i;
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1), t = city[i];
+			city[i] = city[j];
+			city[j] = t;
+		}
+		return city;
+	}
+
+	private static String arc(int from, int to, int weight) {
+		return "a " + (from + 1) + " " + (to + 1) + " " + weight + "\n";
+	}
+
+	private Path write(String name, String content) throws IOException {
+		Path file = directory.resolve(name + ".gr");
+		Files.writeString(file, content);
+		return file;
+	}
+}
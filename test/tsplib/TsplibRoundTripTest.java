@@ -0,0 +1,105 @@
+package tsplib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.Graph;
+import solver.Metric;
+import solver.PointSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Problems and tours that are written in TSPLIB format must be read back without any change,
+ * and explicit weights must be read in every matrix format.
+ * @author Majid Feyzi
+ * */
+class TsplibRoundTripTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void problem() throws IOException {
+		Random random = new Random(6);
+		PointSet points = new PointSet();
+		for (int i = 0; i < 500; i++)
+			points.add(i % 2 == 0 ? random.nextInt(100000) : random.nextDouble() * 1e4, -random.nextDouble());
+		Path file = directory.resolve("problem.tsp");
+		TsplibWriter.writeProblem(file, "problem", "random\ncities", "EUC_2D", points);
+
+		Instance instance = TsplibReader.read(file);
+		assertEquals("problem", instance.getName());
+		assertEquals("EUC_2D", instance.getEdgeWeightType());
+		assertEquals(points.size(), instance.getDimension());
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(points.getX(i), instance.getPoints().getX(i));
+			assertEquals(points.getY(i), instance.getPoints().getY(i));
+		}
+	}
+
+	@Test
+	void roundedMetrics() {
+		// Edge weight types map to rounded metrics in both directions
+		for (String type : new String[] { "EUC_2D", "MAN_2D", "GEO" })
+			assertEquals(type, Instance.edgeWeightType(Instance.metric(type)));
+		assertEquals(Metric.MAN_2D, Instance.metric("MAN_2D"));
+		assertEquals(3, Metric.MAN_2D.distance(0, 0, 1.2, 1.3));
+		assertEquals(2, Metric.MAN_2D.distance(0, 0, 1.2, 1.2));
+		assertEquals(null, Instance.edgeWeightType(Metric.MANHATTAN));
+	}
+
+	@Test
+	void tour() throws IOException {
+		int[] tour = { 3, 0, 4, 1, 2 };
+		Path file = directory.resolve("problem.tour");
+		TsplibWriter.writeTour(file, "problem.tour", "Length 1", tour);
+		assertArrayEquals(tour, TsplibReader.read(file).getTour());
+	}
+
+	@Test
+	void explicitWeights() throws IOException {
+		int n = 5;
+		double[][] matrix = new double[n][n];
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < i; j++)
+				matrix[i][j] = matrix[j][i] = 10 * i + j;
+		String[] formats = { "FULL_MATRIX", "UPPER_ROW", "LOWER_ROW", "UPPER_DIAG_ROW", "LOWER_DIAG_ROW",
+				"UPPER_COL", "LOWER_COL", "UPPER_DIAG_COL", "LOWER_DIAG_COL" };
+		for (String format : formats) {
+			StringBuilder weights = new StringBuilder();
+			boolean columns = format.endsWith("_COL");
+			for (int a = 0; a < n; a++) {
+				for (int b = 0; b < n; b++) {
+					// Columns of upper triangle are read like rows of lower triangle
+					int i = columns ? b : a, j = columns ? a : b;
+					boolean upper = format.startsWith("UPPER");
+					boolean diagonal = format.contains("DIAG");
+					if (format.equals("FULL_MATRIX") || (upper ? j > i : j < i) || (diagonal && i == j))
+						weights.append(matrix[a][b]).append(' ');
+				}
+				weights.append('\n');
+			}
+			Path file = directory.resolve(format + ".tsp");
+			Files.writeString(file, "NAME: m\nTYPE: TSP\nDIMENSION: " + n + "\nEDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: "
+					+ format + "\nEDGE_WEIGHT_SECTION\n" + weights + "EOF\n");
+			Graph graph = TsplibReader.read(file).getGraph();
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					assertEquals(matrix[i][j], graph.weight(i, j), format + " " + i + " " + j);
+		}
+	}
+
+	@Test
+	void invalidNode() throws IOException {
+		Path file = directory.resolve("invalid.tsp");
+		Files.writeString(file, "NAME: x\nDIMENSION: 2\nNODE_COORD_SECTION\n1 0 0\n3 1 1\nEOF\n");
+		assertThrows(IOException.class, () -> TsplibReader.read(file));
+	}
+}